@@ -0,0 +1,84 @@
+package com.college.bench;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataStore;
+import java.util.Random;
+
+/**
+ * TOOL: BenchData
+ * 
+ * Builds a synthetic roster of any size for the benchmarks.
+ * 
+ * The data is random but repeatable: the same sizes and seed always give the
+ * same roster, so results of different runs can be compared.
+ * - Student IDs are 1..students, teacher IDs 1..teachers, classroom IDs
+ * 1..classrooms
+ * - One teacher per 50 students, each teaching about two classes
+ * - Every student is enrolled in two classes on average
+ */
+public class BenchData {
+
+    static final String[] COURSES = { "Computer Science", "Mathematics", "Physics", "Chemistry",
+            "Biology", "History", "Economics", "Engineering", "Literature", "Philosophy" };
+
+    static final long SEED = 42;
+
+    /**
+     * @param students  Number of students
+     * @param classSize Number of students per classroom
+     * @return A filled data store
+     */
+    public static DataStore create(int students, int classSize) {
+        return create(students, classSize, SEED);
+    }
+
+    /**
+     * @param students  Number of students
+     * @param classSize Number of students per classroom
+     * @param seed      Seed for the random generator
+     * @return A filled data store
+     */
+    public static DataStore create(int students, int classSize, long seed) {
+        Random random = new Random(seed);
+        DataStore store = new DataStore();
+        for (int id = 1; id <= students; id++) {
+            store.addStudent(new Student(id, "Student " + id, 16 + random.nextInt(30),
+                    COURSES[random.nextInt(COURSES.length)]));
+        }
+
+        int teachers = Math.max(1, students / 50);
+        for (int id = 1; id <= teachers; id++) {
+            store.addTeacher(new Teacher(id, "Teacher " + id, COURSES[random.nextInt(COURSES.length)]));
+        }
+
+        int size = Math.min(classSize, students);
+        int classrooms = Math.max(1, (int) (2L * students / Math.max(1, size)));
+        for (int id = 1; id <= classrooms; id++) {
+            Classroom classroom = new Classroom(id, COURSES[id % COURSES.length] + " " + id);
+            classroom.setTeacher(store.getTeachers().get(1 + random.nextInt(teachers)));
+            // Random picks may repeat a student; addStudent ignores repeats
+            for (int i = 0; i < size; i++) {
+                classroom.addStudent(store.getStudents().get(1 + random.nextInt(students)));
+            }
+            store.addClassroom(classroom);
+        }
+        return store;
+    }
+
+    /**
+     * @param count Number of IDs
+     * @param max   Largest ID
+     * @param seed  Seed for the random generator
+     * @return Random IDs between 1 and max
+     */
+    public static int[] randomIds(int count, int max, long seed) {
+        Random random = new Random(seed);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1 + random.nextInt(max);
+        }
+        return ids;
+    }
+}
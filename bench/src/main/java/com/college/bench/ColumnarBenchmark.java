@@ -0,0 +1,84 @@
+package com.college.bench;
+
+import com.college.model.Student;
+import com.college.repository.DataStore;
+import com.college.repository.StudentColumns;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BENCHMARK: ColumnarBenchmark
+ * 
+ * Full-roster aggregations over Student objects (the repository) and over
+ * the same students in StudentColumns: the average age per course, and the
+ * number of students of one course.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ColumnarBenchmark {
+
+    @Param({ "100000", "1000000", "5000000" })
+    public int students;
+
+    private DataStore store;
+    private StudentColumns columns;
+
+    @Setup
+    public void setup() {
+        store = BenchData.create(students, 30);
+        columns = store.studentColumns();
+    }
+
+    @Benchmark
+    public Map<String, double[]> averageAgeByCourseObjects() {
+        Map<String, double[]> sums = new HashMap<>();
+        for (Student s : store.getStudents()) {
+            double[] sum = sums.computeIfAbsent(s.getCourse(), course -> new double[2]);
+            sum[0] += s.getAge();
+            sum[1]++;
+        }
+        return sums;
+    }
+
+    @Benchmark
+    public Map<String, Double> averageAgeByCourseColumns() {
+        return columns.averageAgeByCourse();
+    }
+
+    @Benchmark
+    public int countInCourseObjects() {
+        int count = 0;
+        for (Student s : store.getStudents()) {
+            if (s.getCourse().equals("Physics")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int countInCourseColumns() {
+        return columns.countInCourse("Physics");
+    }
+
+    @Benchmark
+    public StudentColumns buildColumns() {
+        return StudentColumns.of(store.snapshot());
+    }
+}
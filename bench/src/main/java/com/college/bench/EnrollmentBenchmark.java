@@ -0,0 +1,87 @@
+package com.college.bench;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.repository.DataStore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BENCHMARK: EnrollmentBenchmark
+ * 
+ * Adding and removing students in classes of different sizes.
+ * 
+ * Each operation removes the longest-enrolled student and enrolls a new one,
+ * so the class always keeps the same size: the enrolled students are a
+ * sliding window over a pool twice the class size.
+ * - classroomRemoveAdd: Classroom.removeStudent + addStudent only
+ * - storeUnenrollEnroll: the same through DataStore, which also updates the
+ * student -> classes index and tells listeners
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrollmentBenchmark {
+
+    @Param({ "30", "1000", "10000" })
+    public int classSize;
+
+    private DataStore store;
+    private Classroom classroom; // Only used directly
+    private Classroom storedClassroom; // Only used through the store
+    private Student[] pool;
+    private int oldest; // Pool index of the longest-enrolled student
+
+    @Setup
+    public void setup() {
+        store = new DataStore();
+        pool = new Student[classSize * 2];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Student(i + 1, "Student " + (i + 1), 20, "CS");
+            store.addStudent(pool[i]);
+        }
+        classroom = new Classroom(1, "Direct");
+        storedClassroom = new Classroom(2, "Stored");
+        store.addClassroom(storedClassroom);
+        for (int i = 0; i < classSize; i++) {
+            classroom.addStudent(pool[i]);
+            store.enroll(storedClassroom, pool[i]);
+        }
+        oldest = 0;
+    }
+
+    private int advance() {
+        int leaving = oldest;
+        oldest = (oldest + 1) % pool.length;
+        return leaving;
+    }
+
+    @Benchmark
+    public boolean classroomRemoveAdd() {
+        int leaving = advance();
+        int joining = (leaving + classSize) % pool.length;
+        classroom.removeStudent(pool[leaving].getId());
+        return classroom.addStudent(pool[joining]);
+    }
+
+    @Benchmark
+    public boolean storeUnenrollEnroll() {
+        int leaving = advance();
+        int joining = (leaving + classSize) % pool.length;
+        store.unenroll(storedClassroom, pool[leaving].getId());
+        return store.enroll(storedClassroom, pool[joining]);
+    }
+}
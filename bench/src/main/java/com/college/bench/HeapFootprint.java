@@ -0,0 +1,144 @@
+package com.college.bench;
+
+import com.college.model.Student;
+import com.college.repository.StudentColumns;
+import com.college.util.IntObjectMap;
+import java.util.HashMap;
+
+/**
+ * TOOL: HeapFootprint
+ * 
+ * Measures how much heap an ID index needs on top of the Student objects it
+ * points to, comparing java.util.HashMap<Integer, Student> with IntObjectMap.
+ * 
+ * The Student objects are created first and kept alive, so the difference in
+ * used heap before and after building the index is the index's own cost
+ * (boxed keys, nodes and tables for HashMap; plain arrays for IntObjectMap).
+ * 
+ * It then measures the students themselves: Student objects with their own
+ * name String (the course is interned by the constructor) against the same
+ * students in StudentColumns. This compares the two layouts; the store keeps
+ * the columns as an extra copy next to the objects, so in the application
+ * their cost adds to that of the objects.
+ * 
+ * Usage (after build.bat):
+ *   javac -cp bin -d bench-bin bench/src/main/java/com/college/bench/HeapFootprint.java
+ *   java -Xmx3g -cp bin;bench-bin com.college.bench.HeapFootprint 1000000 10000000
+ */
+public class HeapFootprint {
+
+    public static void main(String[] args) {
+        String[] sizes = args.length > 0 ? args : new String[] { "1000000", "10000000" };
+        for (String arg : sizes) {
+            int n = Integer.parseInt(arg);
+            Student[] roster = createRoster(n);
+
+            long hashMapBytes = measureHashMap(roster);
+            long intMapBytes = measureIntObjectMap(roster);
+
+            System.out.printf("%,d entries: HashMap<Integer,Student> %,d bytes (%.1f B/entry), "
+                    + "IntObjectMap %,d bytes (%.1f B/entry), ratio %.2fx%n",
+                    n, hashMapBytes, (double) hashMapBytes / n,
+                    intMapBytes, (double) intMapBytes / n,
+                    (double) hashMapBytes / intMapBytes);
+        }
+        for (String arg : sizes) {
+            int n = Integer.parseInt(arg);
+            long objectBytes = measureStudentObjects(n);
+            long columnBytes = measureStudentColumns(n);
+
+            System.out.printf("%,d students: objects %,d bytes (%.1f B/student), "
+                    + "StudentColumns %,d bytes (%.1f B/student), ratio %.2fx%n",
+                    n, objectBytes, (double) objectBytes / n,
+                    columnBytes, (double) columnBytes / n,
+                    (double) objectBytes / columnBytes);
+        }
+    }
+
+    private static Student[] createRoster(int n) {
+        Student[] roster = new Student[n];
+        String name = "Student"; // Shared strings: only the index cost is measured
+        String course = "CS";
+        for (int i = 0; i < n; i++) {
+            // Offset IDs so HashMap cannot use the Integer cache (-128..127)
+            roster[i] = new Student(1000 + i, name, 20, course);
+        }
+        return roster;
+    }
+
+    private static long measureHashMap(Student[] roster) {
+        long before = usedHeap();
+        HashMap<Integer, Student> index = new HashMap<>();
+        for (Student s : roster) {
+            index.put(s.getId(), s);
+        }
+        long after = usedHeap();
+        keepAlive(index.size());
+        return after - before;
+    }
+
+    private static long measureIntObjectMap(Student[] roster) {
+        long before = usedHeap();
+        IntObjectMap<Student> index = new IntObjectMap<>();
+        for (Student s : roster) {
+            index.put(s.getId(), s);
+        }
+        long after = usedHeap();
+        keepAlive(index.size());
+        return after - before;
+    }
+
+    /**
+     * Each student gets a new name and course String, as when parsed from
+     * students.txt
+     */
+    private static long measureStudentObjects(int n) {
+        long before = usedHeap();
+        Student[] roster = new Student[n];
+        for (int i = 0; i < n; i++) {
+            roster[i] = new Student(1000 + i, "Student " + i, 16 + i % 30,
+                    new String(BenchData.COURSES[i % BenchData.COURSES.length]));
+        }
+        long after = usedHeap();
+        keepAlive(roster.length);
+        return after - before;
+    }
+
+    private static long measureStudentColumns(int n) {
+        long before = usedHeap();
+        StudentColumns.Builder builder = new StudentColumns.Builder(n);
+        for (int i = 0; i < n; i++) {
+            builder.add(1000 + i, "Student " + i, 16 + i % 30,
+                    new String(BenchData.COURSES[i % BenchData.COURSES.length]));
+        }
+        StudentColumns columns = builder.build();
+        builder = null; // Only the columns are measured
+        long after = usedHeap();
+        keepAlive(columns.size());
+        return after - before;
+    }
+
+    /**
+     * Used heap after several full collections
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static volatile int sink;
+
+    private static void keepAlive(int value) {
+        sink = value;
+    }
+}
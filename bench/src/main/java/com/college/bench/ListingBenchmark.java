@@ -0,0 +1,71 @@
+package com.college.bench;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.repository.DataStore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BENCHMARK: ListingBenchmark
+ * 
+ * The work behind the "List All" menu options: visiting every record and
+ * building its display text. The text is collected instead of printed, so
+ * the console's speed does not affect the numbers.
+ * 
+ * getDetails() and getInfo() keep their text until the record changes, so
+ * after the first call listStudents and listClassrooms measure the cached
+ * path; run with -prof gc to see the bytes allocated per listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListingBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "5000000" })
+    public int students;
+
+    private DataStore store;
+
+    @Setup
+    public void setup() {
+        store = BenchData.create(students, 30);
+    }
+
+    @Benchmark
+    public void listStudents(Blackhole bh) {
+        for (Student s : store.getStudents()) {
+            bh.consume(s.getDetails());
+        }
+    }
+
+    @Benchmark
+    public void listClassrooms(Blackhole bh) {
+        for (Classroom c : store.getClassrooms()) {
+            bh.consume(c.getInfo());
+        }
+    }
+
+    @Benchmark
+    public long iterateStudents() {
+        long sum = 0;
+        for (Student s : store.getStudents()) {
+            sum += s.getId();
+        }
+        return sum;
+    }
+}
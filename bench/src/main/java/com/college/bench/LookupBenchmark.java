@@ -0,0 +1,76 @@
+package com.college.bench;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.repository.DataStore;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BENCHMARK: LookupBenchmark
+ * 
+ * Finding records by ID, as the find*ById helpers of CollegeManagementSystem
+ * do, plus the "which classes is this student in?" query.
+ * 
+ * The IDs looked up come from a fixed random list (4096 entries, about 10%
+ * of them unknown), so the CPU cannot predict which entry comes next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LookupBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "5000000" })
+    public int students;
+
+    private static final int QUERIES = 4096; // Power of two, so & works as modulo
+
+    private DataStore store;
+    private int[] ids;
+    private int next;
+
+    @Setup
+    public void setup() {
+        store = BenchData.create(students, 30);
+        // IDs up to 10% above the largest one, so some lookups miss
+        ids = BenchData.randomIds(QUERIES, students + students / 10 + 1, 7);
+    }
+
+    private int nextId() {
+        return ids[next++ & (QUERIES - 1)];
+    }
+
+    @Benchmark
+    public Student studentById() {
+        return store.getStudents().get(nextId());
+    }
+
+    @Benchmark
+    public boolean studentExists() {
+        return store.getStudents().contains(nextId());
+    }
+
+    @Benchmark
+    public Classroom classroomById() {
+        return store.getClassrooms().get(nextId());
+    }
+
+    @Benchmark
+    public List<Classroom> classroomsOfStudent() {
+        return store.classroomsOfStudent(nextId());
+    }
+}
@@ -0,0 +1,81 @@
+package com.college.bench;
+
+import com.college.repository.DataStore;
+import com.college.util.FileHandler;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BENCHMARK: PersistenceBenchmark
+ * 
+ * Full FileHandler.loadData and saveData in both storage formats.
+ * 
+ * The files live in a temporary folder (see FileHandler.setDataDirectory)
+ * that is deleted after the run. Every save is a full save: all
+ * repositories are marked dirty first. FileHandler's progress messages are
+ * printed as usual and can be ignored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "5000000" })
+    public int students;
+
+    @Param({ "TEXT", "BINARY" })
+    public FileHandler.Format format;
+
+    private File directory;
+    private DataStore store;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("college-bench").toFile();
+        FileHandler.setDataDirectory(directory);
+        FileHandler.setFormat(format);
+        store = BenchData.create(students, 30);
+        FileHandler.saveData(store);
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public DataStore load() {
+        DataStore loaded = new DataStore();
+        FileHandler.loadData(loaded);
+        return loaded;
+    }
+
+    @Benchmark
+    public boolean save() {
+        store.markDirty();
+        return FileHandler.saveData(store);
+    }
+}
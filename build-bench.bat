@@ -0,0 +1,13 @@
+@echo off
+rem Builds the JMH benchmarks in bench\ (needs Maven) and runs them.
+rem Any arguments are passed to JMH, e.g.: build-bench.bat Lookup -p students=1000000
+pushd "%~dp0bench"
+call mvn -q package
+if %errorlevel% neq 0 (
+    echo Benchmark build failed!
+    popd
+    pause
+    exit /b %errorlevel%
+)
+java -jar target\benchmarks.jar %*
+popd
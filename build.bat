@@ -1,6 +1,6 @@
 @echo off
 if not exist "bin" mkdir bin
-javac -d bin com/college/interfaces/*.java com/college/model/*.java com/college/util/*.java com/college/main/*.java
+javac -d bin com/college/interfaces/*.java com/college/model/*.java com/college/repository/*.java com/college/util/*.java com/college/api/*.java com/college/tools/*.java com/college/report/*.java com/college/main/*.java
 if %errorlevel% neq 0 (
     echo Compilation failed!
     pause
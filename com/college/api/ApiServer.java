@@ -0,0 +1,801 @@
+package com.college.api;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataSnapshot;
+import com.college.repository.DataSnapshot.ClassroomRecord;
+import com.college.repository.DataSnapshot.StudentRecord;
+import com.college.repository.DataSnapshot.TeacherRecord;
+import com.college.repository.DataStore;
+import com.college.repository.Page;
+import com.college.repository.SortedListing;
+import com.college.repository.StoreCounters;
+import com.college.util.InputValidator;
+import com.college.util.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * CLASS: ApiServer
+ * 
+ * An HTTP/JSON interface to the same DataStore the console menus use, so a
+ * registrar portal or another program can read and change the data while
+ * the menus are open. Started with
+ * <pre>
+ *   java -cp bin com.college.main.CollegeManagementSystem --serve 8080
+ * </pre>
+ * It listens on localhost only; --host 0.0.0.0 (or the address of one
+ * interface) opens it to the network. There is no authentication: anyone
+ * who can reach the port can change and delete every record.
+ * 
+ * ENDPOINTS (request and response bodies are JSON)
+ * <pre>
+ *   GET    /students?sort=name&amp;size=20&amp;after=NEXT one page, sorted
+ *   GET    /students?name=jo               search by name
+ *   GET    /students/ID                    one student and their classes
+ *   POST   /students                       {"id":1,"name":"Ann","age":19,"course":"Math"}
+ *   PUT    /students/ID                    any of name, age, course
+ *   DELETE /students/ID                    also removes them from every class
+ *   (the same for /teachers with name and subject, and /classes with name)
+ *   PUT    /classes/ID/teacher             {"teacher":7}
+ *   DELETE /classes/ID/teacher
+ *   POST   /classes/ID/students            {"student":5}   (enroll)
+ *   DELETE /classes/ID/students/STUDENT_ID                 (unenroll)
+ *   GET    /stats                          totals and students per course
+ * </pre>
+ * A page answers "next": a cursor (the last record's ID and sort key) to pass
+ * URL-encoded as after= for the following page; it works even if that record
+ * was deleted in the meantime.
+ * Errors are answered with a status code (400 bad input, 404 not found, 409
+ * already exists, 405 wrong method, 500 a fault of the server, whose details
+ * are only logged, 503 a change that could not be written to disk) and {"error":"..."}.
+ * 
+ * CONCEPT DEMONSTRATED: ONE THREAD PER REQUEST (VIRTUAL THREADS)
+ * - Each request runs on its own thread, so a request waiting for the
+ * journal to reach the disk does not hold up any other request
+ * - On Java 21 and later the threads are virtual threads: they cost a few
+ * hundred bytes instead of a megabyte of stack, so thousands of requests can
+ * wait at the same time. The program is built for Java 8, so the virtual
+ * thread executor is looked up by reflection; on older Java versions a fixed
+ * pool of platform threads is used instead.
+ * 
+ * CONCEPT DEMONSTRATED: SHARED STATE
+ * - Requests run at the same time as each other and as the console menus;
+ * the DataStore's read-write lock keeps them apart (see DataStore)
+ * - GET of a single record reads the store's immutable snapshot instead, so
+ * it takes no lock at all and never waits for a writer
+ * - A change answers only after the journal has it on disk (commit), so an
+ * acknowledged change survives a crash; concurrent requests share one disk
+ * flush (group commit, see Journal). If the journal cannot be written the
+ * request is answered 503: the change was made but is not safe.
+ */
+public class ApiServer {
+
+    // Connections waiting to be accepted
+    private static final int BACKLOG = 1024;
+    // Platform threads used when virtual threads are not available
+    private static final int POOL_THREADS = 64;
+    // Largest request body accepted
+    private static final int MAX_BODY = 64 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int NAME_SEARCH_LIMIT = 50;
+    // Turns off Nagle's algorithm on the JDK server's connections
+    private static final String NO_DELAY = "sun.net.httpserver.nodelay";
+
+    /**
+     * A request that cannot be answered normally, with its HTTP status
+     */
+    private static class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * A response: status code and JSON body (null for no body)
+     */
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final DataStore store;
+    private final BooleanSupplier commit;
+    private HttpServer server;
+    private ExecutorService executor;
+    private boolean virtualThreads;
+
+    /**
+     * @param store  The data to serve
+     * @param commit Makes the changes so far durable; called after every
+     *               request that changed something, before answering.
+     *               Returns false if the changes could not be written.
+     */
+    public ApiServer(DataStore store, BooleanSupplier commit) {
+        this.store = store;
+        this.commit = commit;
+    }
+
+    /**
+     * Starts listening on the loopback interface only, so only programs on
+     * this computer can reach the API
+     * 
+     * @param port TCP port (0 picks a free one)
+     * @throws IOException If the port cannot be opened
+     */
+    public void start(int port) throws IOException {
+        start(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Starts listening. The API has no authentication, so listen on another
+     * interface than loopback only on a network where everyone may change
+     * the data.
+     * 
+     * @param address Interface to listen on (the wildcard address for all)
+     * @param port    TCP port (0 picks a free one)
+     * @throws IOException If the port cannot be opened
+     */
+    public void start(InetAddress address, int port) throws IOException {
+        // The JDK server sends the headers and the body of an answer in two
+        // writes; with Nagle's algorithm on, the body waits for the client to
+        // acknowledge the headers, which clients delay by up to 40 ms. Read
+        // once, when the first server is created.
+        if (System.getProperty(NO_DELAY) == null) {
+            System.setProperty(NO_DELAY, "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(address, port), BACKLOG);
+        server.createContext("/students", this::handle);
+        server.createContext("/teachers", this::handle);
+        server.createContext("/classes", this::handle);
+        server.createContext("/stats", this::handle);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for running ones
+     */
+    public void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    /**
+     * @return The address the server listens on as it is written in a URL
+     *         (an IPv6 address in brackets), for the startup message
+     */
+    public String getHost() {
+        String host = server.getAddress().getAddress().getHostAddress();
+        return host.indexOf(':') >= 0 ? "[" + host + "]" : host;
+    }
+
+    /**
+     * @return The port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return How requests are run, for the startup message
+     */
+    public String describeThreads() {
+        return virtualThreads ? "a virtual thread per request" : "a pool of " + POOL_THREADS + " threads";
+    }
+
+    /**
+     * One virtual thread per task if this Java has them (21+), otherwise a
+     * fixed pool of daemon platform threads
+     */
+    private ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService virtual = (ExecutorService) factory.invoke(null);
+            virtualThreads = true;
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            return Executors.newFixedThreadPool(POOL_THREADS, task -> {
+                Thread thread = new Thread(task, "api-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ==================== REQUEST HANDLING ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = route(exchange);
+        } catch (HttpError e) {
+            response = error(e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            // The details stay in the server's log; they may show internals
+            // that are no business of the client
+            System.err.println("API: " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed:");
+            e.printStackTrace();
+            response = error(500, "internal error");
+        }
+        send(exchange, response);
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = segments(exchange.getRequestURI().getPath());
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String collection = path[0];
+        if (collection.equals("stats") && path.length == 1) {
+            if (method.equals("GET")) {
+                return new Response(200, stats());
+            }
+            throw methodNotAllowed(method);
+        }
+        if (!collection.equals("students") && !collection.equals("teachers") && !collection.equals("classes")) {
+            throw new HttpError(404, "no such endpoint");
+        }
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                return new Response(200, list(collection, query));
+            }
+            if (method.equals("POST")) {
+                return changed(201, create(collection, readBody(exchange)));
+            }
+            throw methodNotAllowed(method);
+        }
+        int id = pathId(path[1]);
+        if (path.length == 2) {
+            switch (method) {
+                case "GET":
+                    return new Response(200, get(collection, id));
+                case "PUT":
+                    return changed(200, update(collection, id, readBody(exchange)));
+                case "DELETE":
+                    delete(collection, id);
+                    return changed(204, null);
+                default:
+                    throw methodNotAllowed(method);
+            }
+        }
+        if (collection.equals("classes") && path[2].equals("teacher") && path.length == 3) {
+            if (method.equals("PUT")) {
+                return changed(200, assignTeacher(id, readBody(exchange)));
+            }
+            if (method.equals("DELETE")) {
+                return changed(200, assignTeacher(id, null));
+            }
+            throw methodNotAllowed(method);
+        }
+        if (collection.equals("classes") && path[2].equals("students")) {
+            if (path.length == 3 && method.equals("POST")) {
+                return changed(201, enroll(id, readBody(exchange)));
+            }
+            if (path.length == 4 && method.equals("DELETE")) {
+                unenroll(id, pathId(path[3]));
+                return changed(204, null);
+            }
+            throw methodNotAllowed(method);
+        }
+        throw new HttpError(404, "no such endpoint");
+    }
+
+    /**
+     * Makes a change durable before it is acknowledged
+     * 
+     * @throws HttpError 503 if it could not be written to disk: the change is
+     *                   made in memory, but would be lost by a crash
+     */
+    private Response changed(int status, String body) {
+        if (!commit.getAsBoolean()) {
+            throw new HttpError(503, "the change could not be written to disk");
+        }
+        return new Response(status, body);
+    }
+
+    // ==================== READ ====================
+
+    private String list(String collection, Map<String, String> query) {
+        String name = query.get("name");
+        switch (collection) {
+            case "students":
+                if (name != null) {
+                    List<Student> matches = store.studentsByName(name, NAME_SEARCH_LIMIT);
+                    return items(matches.isEmpty() ? store.studentsByNameFuzzy(name, NAME_SEARCH_LIMIT) : matches);
+                }
+                return page(store.getStudentListing(), query);
+            case "teachers":
+                if (name != null) {
+                    List<Teacher> matches = store.teachersByName(name, NAME_SEARCH_LIMIT);
+                    return items(matches.isEmpty() ? store.teachersByNameFuzzy(name, NAME_SEARCH_LIMIT) : matches);
+                }
+                return page(store.getTeacherListing(), query);
+            default:
+                if (name != null) {
+                    return items(store.classroomsNamed(name));
+                }
+                return page(store.getClassroomListing(), query);
+        }
+    }
+
+    /**
+     * One page of a listing: {"total":N,"items":[...],"next":cursor or null}
+     */
+    private <T> String page(SortedListing<T> listing, Map<String, String> query) {
+        String order = query.getOrDefault("sort", "id").toLowerCase(Locale.ROOT);
+        int size = query.containsKey("size") ? number(query.get("size"), "size") : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Page<T> page = listing.pageAfter(order, query.get("after"), size);
+        return store.withReadLock(() -> {
+            StringBuilder out = new StringBuilder(64 + page.getItems().size() * 64);
+            out.append("{\"total\":").append(page.getTotal()).append(",\"items\":[");
+            appendAll(out, page.getItems());
+            out.append("],\"next\":");
+            if (page.hasMore()) {
+                Json.appendString(out, listing.cursor(order, page.getLast()));
+            } else {
+                out.append("null");
+            }
+            return out.append('}').toString();
+        });
+    }
+
+    /**
+     * Search results: {"items":[...]}
+     */
+    private String items(List<?> matches) {
+        return store.withReadLock(() -> {
+            StringBuilder out = new StringBuilder("{\"items\":[");
+            appendAll(out, matches);
+            return out.append("]}").toString();
+        });
+    }
+
+    /**
+     * One record with its relationships, read from the store's current
+     * snapshot: no lock, and a consistent view even while others change it
+     */
+    private String get(String collection, int id) {
+        DataSnapshot snapshot = store.snapshot();
+        StringBuilder out = new StringBuilder(128);
+        switch (collection) {
+            case "students": {
+                StudentRecord s = snapshot.student(id);
+                if (s == null) {
+                    throw new HttpError(404, "student " + id + " not found");
+                }
+                out.append("{\"id\":").append(id).append(",\"name\":");
+                Json.appendString(out, s.getName()).append(",\"age\":").append(s.getAge()).append(",\"course\":");
+                Json.appendString(out, s.getCourse()).append(",\"classes\":");
+                return appendIds(out, s.getClassIds()).append('}').toString();
+            }
+            case "teachers": {
+                TeacherRecord t = snapshot.teacher(id);
+                if (t == null) {
+                    throw new HttpError(404, "teacher " + id + " not found");
+                }
+                out.append("{\"id\":").append(id).append(",\"name\":");
+                Json.appendString(out, t.getName()).append(",\"subject\":");
+                Json.appendString(out, t.getSubject()).append(",\"classes\":");
+                return appendIds(out, t.getClassIds()).append('}').toString();
+            }
+            default: {
+                ClassroomRecord c = snapshot.classroom(id);
+                if (c == null) {
+                    throw new HttpError(404, "class " + id + " not found");
+                }
+                out.append("{\"id\":").append(id).append(",\"name\":");
+                Json.appendString(out, c.getClassName()).append(",\"teacher\":");
+                if (!c.hasTeacher()) {
+                    out.append("null");
+                } else {
+                    out.append(c.getTeacherId());
+                }
+                out.append(",\"studentCount\":").append(c.getStudentCount()).append(",\"students\":");
+                return appendIds(out, c.getStudentIds()).append('}').toString();
+            }
+        }
+    }
+
+    /**
+     * The store's running totals: no scan of the data, however large it is
+     */
+    private String stats() {
+        StoreCounters counters = store.getCounters();
+        StringBuilder out = new StringBuilder(256);
+        out.append("{\"students\":").append(counters.getStudentCount())
+                .append(",\"teachers\":").append(counters.getTeacherCount())
+                .append(",\"classes\":").append(counters.getClassroomCount())
+                .append(",\"enrollments\":").append(counters.getEnrollmentCount())
+                .append(",\"emptyClasses\":").append(counters.getEmptyClassroomCount())
+                .append(",\"classesWithoutTeacher\":").append(counters.getUnassignedClassroomCount())
+                .append(",\"studentsPerCourse\":{");
+        boolean first = true;
+        for (Map.Entry<String, Integer> e : counters.getStudentsPerCourse().entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            Json.appendString(out, e.getKey()).append(':').append(e.getValue());
+        }
+        return out.append("}}").toString();
+    }
+
+    // ==================== CHANGE ====================
+
+    private String create(String collection, Map<String, String> body) {
+        int id = number(required(body, "id"), "id");
+        if (!InputValidator.validateId(id)) {
+            throw new IllegalArgumentException("ID must be positive");
+        }
+        String name = name(body, "name");
+        return writeLocked(() -> {
+            StringBuilder out = new StringBuilder(128);
+            switch (collection) {
+                case "students": {
+                    Student s = new Student(id, name, age(required(body, "age")), name(body, "course"));
+                    if (!store.addStudent(s)) {
+                        throw new HttpError(409, "student " + id + " already exists");
+                    }
+                    return appendStudent(out, s).toString();
+                }
+                case "teachers": {
+                    Teacher t = new Teacher(id, name, name(body, "subject"));
+                    if (!store.addTeacher(t)) {
+                        throw new HttpError(409, "teacher " + id + " already exists");
+                    }
+                    return appendTeacher(out, t).toString();
+                }
+                default: {
+                    Classroom c = new Classroom(id, name);
+                    if (!store.addClassroom(c)) {
+                        throw new HttpError(409, "class " + id + " already exists");
+                    }
+                    return appendClassroom(out, c).toString();
+                }
+            }
+        });
+    }
+
+    /**
+     * Changes the fields given in the body; the others keep their values.
+     * All fields are checked before any is changed.
+     */
+    private String update(String collection, int id, Map<String, String> body) {
+        String name = body.get("name") == null ? null : name(body, "name");
+        return writeLocked(() -> {
+            StringBuilder out = new StringBuilder(128);
+            switch (collection) {
+                case "students": {
+                    Student s = student(id);
+                    Integer age = body.get("age") == null ? null : age(body.get("age"));
+                    String course = body.get("course") == null ? null : name(body, "course");
+                    if (name != null) {
+                        s.setName(name);
+                    }
+                    if (age != null) {
+                        s.setAge(age);
+                    }
+                    if (course != null) {
+                        s.setCourse(course);
+                    }
+                    return appendStudent(out, s).toString();
+                }
+                case "teachers": {
+                    Teacher t = teacher(id);
+                    String subject = body.get("subject") == null ? null : name(body, "subject");
+                    if (name != null) {
+                        t.setName(name);
+                    }
+                    if (subject != null) {
+                        t.setSubject(subject);
+                    }
+                    return appendTeacher(out, t).toString();
+                }
+                default: {
+                    Classroom c = classroom(id);
+                    if (name != null) {
+                        c.setClassName(name);
+                    }
+                    return appendClassroom(out, c).toString();
+                }
+            }
+        });
+    }
+
+    private void delete(String collection, int id) {
+        Object removed;
+        switch (collection) {
+            case "students":
+                removed = store.deleteStudent(id);
+                break;
+            case "teachers":
+                removed = store.deleteTeacher(id);
+                break;
+            default:
+                removed = store.deleteClassroom(id);
+        }
+        if (removed == null) {
+            throw new HttpError(404, singular(collection) + " " + id + " not found");
+        }
+    }
+
+    /**
+     * @param body {"teacher":ID}, or null to leave the class without a teacher
+     */
+    private String assignTeacher(int classId, Map<String, String> body) {
+        return writeLocked(() -> {
+            Classroom c = classroom(classId);
+            Teacher t = body == null ? null : teacher(number(required(body, "teacher"), "teacher"));
+            store.assignTeacher(c, t);
+            return appendClassroom(new StringBuilder(128), c).toString();
+        });
+    }
+
+    private String enroll(int classId, Map<String, String> body) {
+        return writeLocked(() -> {
+            Classroom c = classroom(classId);
+            Student s = student(number(required(body, "student"), "student"));
+            if (!store.enroll(c, s)) {
+                throw new HttpError(409, "student " + s.getId() + " is already in class " + classId);
+            }
+            return appendClassroom(new StringBuilder(128), c).toString();
+        });
+    }
+
+    private void unenroll(int classId, int studentId) {
+        writeLocked(() -> {
+            if (!store.unenroll(classroom(classId), studentId)) {
+                throw new HttpError(404, "student " + studentId + " is not in class " + classId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs the lookups, checks and changes of one request as one step
+     */
+    private <R> R writeLocked(Supplier<R> action) {
+        return store.withWriteLock(action);
+    }
+
+    // ==================== JSON OUTPUT ====================
+
+    private static StringBuilder appendStudent(StringBuilder out, Student s) {
+        out.append("{\"id\":").append(s.getId()).append(",\"name\":");
+        Json.appendString(out, s.getName()).append(",\"age\":").append(s.getAge()).append(",\"course\":");
+        return Json.appendString(out, s.getCourse()).append('}');
+    }
+
+    private static StringBuilder appendTeacher(StringBuilder out, Teacher t) {
+        out.append("{\"id\":").append(t.getId()).append(",\"name\":");
+        Json.appendString(out, t.getName()).append(",\"subject\":");
+        return Json.appendString(out, t.getSubject()).append('}');
+    }
+
+    private static StringBuilder appendClassroom(StringBuilder out, Classroom c) {
+        out.append("{\"id\":").append(c.getId()).append(",\"name\":");
+        Json.appendString(out, c.getClassName()).append(",\"teacher\":");
+        if (c.getTeacher() == null) {
+            out.append("null");
+        } else {
+            out.append(c.getTeacher().getId());
+        }
+        return out.append(",\"studentCount\":").append(c.getStudentCount()).append('}');
+    }
+
+    private static void appendAll(StringBuilder out, List<?> items) {
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object item = items.get(i);
+            if (item instanceof Student) {
+                appendStudent(out, (Student) item);
+            } else if (item instanceof Teacher) {
+                appendTeacher(out, (Teacher) item);
+            } else {
+                appendClassroom(out, (Classroom) item);
+            }
+        }
+    }
+
+    private static StringBuilder appendIds(StringBuilder out, int[] ids) {
+        out.append('[');
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(ids[i]);
+        }
+        return out.append(']');
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Json.appendString(new StringBuilder("{\"error\":"), message).append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        try {
+            if (response.body == null) {
+                exchange.sendResponseHeaders(response.status, -1); // No body
+                return;
+            }
+            byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ==================== INPUT ====================
+
+    private static String[] segments(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.split("/+");
+    }
+
+    private static int pathId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "no such endpoint");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> result = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            result.put(decode(key), decode(value));
+        }
+        return result;
+    }
+
+    private static String decode(String text) {
+        try {
+            return URLDecoder.decode(text, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e); // UTF-8 is always supported
+        }
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (bytes.size() + n > MAX_BODY) {
+                    throw new HttpError(413, "request body larger than " + MAX_BODY + " bytes");
+                }
+                bytes.write(buffer, 0, n);
+            }
+        }
+        String text = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        if (text.trim().isEmpty()) {
+            throw new IllegalArgumentException("missing JSON body");
+        }
+        return Json.parseObject(text);
+    }
+
+    private static String required(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("missing " + field);
+        }
+        return value.trim();
+    }
+
+    private static int number(String value, String field) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a number, not '" + value + "'");
+        }
+    }
+
+    private static String name(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (!InputValidator.validateName(value)) {
+            throw new IllegalArgumentException(
+                    field + " cannot be empty or longer than " + InputValidator.MAX_NAME_LENGTH + " characters");
+        }
+        return value.trim();
+    }
+
+    private static int age(String value) {
+        int age = number(value, "age");
+        if (!InputValidator.validateAge(age)) {
+            throw new IllegalArgumentException("age must be between 16 and 100");
+        }
+        return age;
+    }
+
+    private Student student(int id) {
+        Student s = store.getStudents().get(id);
+        if (s == null) {
+            throw new HttpError(404, "student " + id + " not found");
+        }
+        return s;
+    }
+
+    private Teacher teacher(int id) {
+        Teacher t = store.getTeachers().get(id);
+        if (t == null) {
+            throw new HttpError(404, "teacher " + id + " not found");
+        }
+        return t;
+    }
+
+    private Classroom classroom(int id) {
+        Classroom c = store.getClassrooms().get(id);
+        if (c == null) {
+            throw new HttpError(404, "class " + id + " not found");
+        }
+        return c;
+    }
+
+    private static HttpError methodNotAllowed(String method) {
+        return new HttpError(405, method + " is not allowed here");
+    }
+
+    private static String singular(String collection) {
+        return collection.equals("classes") ? "class" : collection.substring(0, collection.length() - 1);
+    }
+}
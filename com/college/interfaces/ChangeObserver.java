@@ -0,0 +1,32 @@
+package com.college.interfaces;
+
+/**
+ * INTERFACE: ChangeObserver
+ * 
+ * CONCEPT DEMONSTRATED: OBSERVER PATTERN
+ * - Model objects (Student, Teacher, Classroom) call this whenever one of their
+ * setters changes a value
+ * - The DataStore observes the objects it holds, so it can keep indexes and
+ * the change journal up to date without the caller doing anything extra
+ */
+public interface ChangeObserver {
+
+    /**
+     * Called before a setter assigns a new value, while the entity still has
+     * its old one. The observer can refuse the change by throwing; nothing has
+     * been changed yet. Every call is followed by one call to changed().
+     * 
+     * @param entity The entity about to change
+     */
+    default void changing(Object entity) {
+    }
+
+    /**
+     * Called after a property of an entity has changed
+     * 
+     * @param entity   The entity that changed
+     * @param property Name of the property, e.g. "name" or "course"
+     * @param oldValue Value before the change
+     */
+    void changed(Object entity, String property, Object oldValue);
+}
@@ -0,0 +1,77 @@
+package com.college.interfaces;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+
+/**
+ * INTERFACE: StoreListener
+ * 
+ * Receives every change made to the DataStore, in the order it happens.
+ * 
+ * CONCEPT DEMONSTRATED: OBSERVER PATTERN
+ * - The DataStore does not need to know who is interested in its changes
+ * (the journal, indexes, counters, ...); each one registers a listener
+ * 
+ * CONCEPT DEMONSTRATED: DEFAULT METHODS
+ * - Every method has an empty default body, so a listener only overrides
+ * the events it cares about
+ */
+public interface StoreListener {
+
+    default void studentAdded(Student student) {
+    }
+
+    /**
+     * @param student  The changed student (already holds the new value)
+     * @param property "name", "age" or "course"
+     * @param oldValue Value before the change
+     */
+    default void studentUpdated(Student student, String property, Object oldValue) {
+    }
+
+    default void studentDeleted(Student student) {
+    }
+
+    default void teacherAdded(Teacher teacher) {
+    }
+
+    /**
+     * @param teacher  The changed teacher (already holds the new value)
+     * @param property "name" or "subject"
+     * @param oldValue Value before the change
+     */
+    default void teacherUpdated(Teacher teacher, String property, Object oldValue) {
+    }
+
+    default void teacherDeleted(Teacher teacher) {
+    }
+
+    default void classroomAdded(Classroom classroom) {
+    }
+
+    /**
+     * @param classroom The changed classroom (already holds the new value)
+     * @param property  "className"
+     * @param oldValue  Value before the change
+     */
+    default void classroomUpdated(Classroom classroom, String property, Object oldValue) {
+    }
+
+    default void classroomDeleted(Classroom classroom) {
+    }
+
+    default void studentEnrolled(Classroom classroom, Student student) {
+    }
+
+    default void studentUnenrolled(Classroom classroom, Student student) {
+    }
+
+    /**
+     * @param classroom The classroom
+     * @param previous  Teacher before the change (may be null)
+     * @param current   Teacher after the change (may be null)
+     */
+    default void teacherAssigned(Classroom classroom, Teacher previous, Teacher current) {
+    }
+}
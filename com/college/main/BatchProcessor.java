@@ -0,0 +1,671 @@
+package com.college.main;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.report.ReportEngine;
+import com.college.repository.DataStore;
+import com.college.repository.Page;
+import com.college.repository.SortedListing;
+import com.college.util.CsvImporter;
+import com.college.util.CsvReader;
+import com.college.util.InputValidator;
+import com.college.util.Json;
+import com.college.util.MalformedRecordException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * CLASS: BatchProcessor
+ * 
+ * Runs a file of commands (add-student, enroll, assign-teacher, ...) without
+ * any prompts, then prints one summary report. Started with
+ * <pre>
+ *   java -cp bin com.college.main.CollegeManagementSystem --batch commands.csv
+ * </pre>
+ * 
+ * CONCEPT DEMONSTRATED: BATCH PROCESSING
+ * - The menus ask for one field at a time and print a message for every
+ * action; that is fine for a person but very slow for 50,000 enrollments
+ * - A batch reads every command from a file, runs the same checks as the
+ * menus, and only counts successes and failures; nothing is printed per
+ * command
+ * - The journal is committed once per block of commands instead of once per
+ * menu action. If a commit fails, the changes of that block are counted as
+ * failed: they were made, but are not on disk.
+ * 
+ * FILE FORMATS
+ * - CSV: one command per line, arguments in the order shown by --batch-help,
+ * e.g. enroll,12,1005 (class 12, student 1005). Text with commas is
+ * quoted like in the data files. Lines starting with # are comments.
+ * - JSON Lines: one object per line with "op" and named arguments, e.g.
+ * {"op":"enroll","class":12,"student":1005}
+ * - The format is chosen by the first character of the file ({ means JSON)
+ * 
+ * Arguments left empty in an update command keep the current value.
+ * The find-... commands are queries: they print their matches (the only
+ * per-command output of a batch). The list-... commands print one sorted
+ * page and the command for the page after it. The report command prints the
+ * enrollment statistics.
+ * A failing command is reported with its line number and the batch carries
+ * on with the next one.
+ * Each change command runs under the store's write lock, so it is atomic for
+ * other users of the same store.
+ */
+class BatchProcessor {
+
+    /**
+     * The commands a batch can contain, with their argument names in CSV order
+     */
+    enum Command {
+        ADD_STUDENT("add-student", "id", "name", "age", "course"),
+        UPDATE_STUDENT("update-student", "id", "name", "age", "course"),
+        DELETE_STUDENT("delete-student", "id"),
+        ADD_TEACHER("add-teacher", "id", "name", "subject"),
+        UPDATE_TEACHER("update-teacher", "id", "name", "subject"),
+        DELETE_TEACHER("delete-teacher", "id"),
+        ADD_CLASS("add-class", "id", "name"),
+        UPDATE_CLASS("update-class", "id", "name"),
+        DELETE_CLASS("delete-class", "id"),
+        ENROLL("enroll", "class", "student"),
+        UNENROLL("unenroll", "class", "student"),
+        ASSIGN_TEACHER("assign-teacher", "class", "teacher"),
+        UNASSIGN_TEACHER("unassign-teacher", "class"),
+        IMPORT_STUDENTS("import-students", "file"),
+        IMPORT_TEACHERS("import-teachers", "file"),
+        EXPORT_STUDENTS("export-students", "file"),
+        EXPORT_TEACHERS("export-teachers", "file"),
+        FIND_STUDENTS_BY_COURSE("find-students-by-course", "course"),
+        FIND_STUDENTS_BY_AGE("find-students-by-age", "min", "max"),
+        FIND_TEACHERS_BY_SUBJECT("find-teachers-by-subject", "subject"),
+        FIND_CLASSES_BY_NAME("find-classes-by-name", "name"),
+        FIND_STUDENTS_BY_NAME("find-students-by-name", "name"),
+        FIND_TEACHERS_BY_NAME("find-teachers-by-name", "name"),
+        LIST_STUDENTS("list-students", "sort", "size", "after"),
+        LIST_TEACHERS("list-teachers", "sort", "size", "after"),
+        LIST_CLASSES("list-classes", "sort", "size", "after"),
+        REPORT("report");
+
+        final String name;
+        final String[] params;
+
+        Command(String name, String... params) {
+            this.name = name;
+            this.params = params;
+        }
+
+        /**
+         * @return true if the command runs whole under the store's write lock;
+         *         queries, imports and exports take the lock themselves
+         */
+        boolean needsWriteLock() {
+            return !(name.startsWith("find-") || name.startsWith("list-") || name.startsWith("import-")
+                    || name.startsWith("export-") || name.equals("report"));
+        }
+
+        /**
+         * @return true if the command changes the data, so it only counts as
+         *         done once the journal has it on disk
+         */
+        boolean changesData() {
+            return !(name.startsWith("find-") || name.startsWith("list-") || name.startsWith("export-")
+                    || name.equals("report"));
+        }
+
+        static Command find(String name) {
+            for (Command c : values()) {
+                if (c.name.equalsIgnoreCase(name)) {
+                    return c;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Commands between two journal commits
+    private static final int COMMIT_INTERVAL = 10000;
+    // Errors listed in the report; the rest are only counted
+    private static final int MAX_REPORTED_ERRORS = 20;
+    // Most results printed by a name search
+    private static final int NAME_SEARCH_LIMIT = 50;
+    // Rows printed by a list-... command without a size
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final DataStore store;
+    private final BooleanSupplier commit;
+    private final int[] succeeded = new int[Command.values().length];
+    // Changes counted in succeeded that the journal has not committed yet
+    private final int[] uncommitted = new int[Command.values().length];
+    private int firstUncommittedLine;
+    private final int[] failed = new int[Command.values().length];
+    private final List<String> errors = new ArrayList<>();
+    private int errorCount;
+    private int listedErrors; // Failed commands covered by the lines in errors
+    private int sinceCommit;
+
+    /**
+     * @param store  The data to change
+     * @param commit Makes the changes so far durable (called every few
+     *               thousand commands and at the end); returns false if
+     *               they could not be written
+     */
+    BatchProcessor(DataStore store, BooleanSupplier commit) {
+        this.store = store;
+        this.commit = commit;
+    }
+
+    /**
+     * Prints the commands and their arguments
+     */
+    static void printHelp() {
+        System.out.println("Batch commands (CSV arguments in this order, JSON uses the names):");
+        for (Command c : Command.values()) {
+            System.out.println("  " + c.name + (c.params.length == 0 ? "" : "," + String.join(",", c.params)));
+        }
+    }
+
+    /**
+     * Runs every command of a file and prints the summary
+     * 
+     * @param path File to read, or "-" for standard input
+     * @return true if every command succeeded
+     * @throws IOException If the file cannot be read
+     */
+    boolean run(String path) throws IOException {
+        long start = System.nanoTime();
+        InputStream in = path.equals("-") ? System.in : new FileInputStream(path);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in), 64 * 1024)) {
+            if (startsWithBrace(reader)) {
+                runJsonLines(reader);
+            } else {
+                runCsv(reader);
+            }
+        } finally {
+            commit();
+        }
+        printReport(System.nanoTime() - start);
+        return errorCount == 0;
+    }
+
+    // ==================== READING ====================
+
+    private void runCsv(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader, 64 * 1024);
+        while (csv.nextRecord()) {
+            int line = csv.getLineNumber();
+            String name;
+            List<String> fields = new ArrayList<>(4);
+            try {
+                name = csv.readString().trim();
+                while (csv.hasMoreFields()) {
+                    fields.add(csv.readString());
+                }
+            } catch (MalformedRecordException e) {
+                fail(null, line, e.getMessage());
+                continue;
+            }
+            if (name.startsWith("#")) {
+                continue; // Comment
+            }
+            execute(name, fields.toArray(new String[0]), line);
+        }
+    }
+
+    private void runJsonLines(BufferedReader reader) throws IOException {
+        String text;
+        int line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.trim().isEmpty()) {
+                continue;
+            }
+            Map<String, String> object;
+            try {
+                object = Json.parseObject(text);
+            } catch (IllegalArgumentException e) {
+                fail(null, line, e.getMessage());
+                continue;
+            }
+            String name = object.get("op");
+            Command command = name == null ? null : Command.find(name);
+            if (command == null) {
+                execute(name, new String[0], line); // Reports the unknown command
+                continue;
+            }
+            String[] args = new String[command.params.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = object.get(command.params[i]);
+            }
+            execute(name, args, line);
+        }
+    }
+
+    /**
+     * Checks whether the first character after any white space is {, then
+     * goes back to the start so line numbers stay right
+     */
+    private static boolean startsWithBrace(BufferedReader reader) throws IOException {
+        reader.mark(4096);
+        try {
+            for (int i = 0; i < 4096; i++) {
+                int c = reader.read();
+                if (c == -1 || !Character.isWhitespace(c)) {
+                    return c == '{';
+                }
+            }
+            return false;
+        } finally {
+            reader.reset();
+        }
+    }
+
+    // ==================== EXECUTING ====================
+
+    private void execute(String name, String[] args, int line) {
+        Command command = name == null ? null : Command.find(name);
+        if (command == null) {
+            fail(null, line, name == null ? "missing command name" : "unknown command '" + name + "'");
+            return;
+        }
+        try {
+            if (command.needsWriteLock()) {
+                // Lookups, checks and changes of one command happen as one
+                // step for anyone else using the store
+                store.withWriteLock(() -> apply(command, args));
+            } else {
+                apply(command, args);
+            }
+            succeeded[command.ordinal()]++;
+            if (command.changesData()) {
+                if (firstUncommittedLine == 0) {
+                    firstUncommittedLine = line;
+                }
+                uncommitted[command.ordinal()]++;
+            }
+        } catch (IllegalArgumentException e) {
+            fail(command, line, e.getMessage());
+        }
+        if (++sinceCommit >= COMMIT_INTERVAL) {
+            commit();
+            sinceCommit = 0;
+        }
+    }
+
+    /**
+     * Commits the journal; if that fails, the changes since the last commit
+     * move from succeeded to failed
+     */
+    private void commit() {
+        if (!commit.getAsBoolean() && firstUncommittedLine > 0) {
+            int lost = 0;
+            for (Command c : Command.values()) {
+                succeeded[c.ordinal()] -= uncommitted[c.ordinal()];
+                failed[c.ordinal()] += uncommitted[c.ordinal()];
+                lost += uncommitted[c.ordinal()];
+            }
+            errorCount += lost;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("  lines " + firstUncommittedLine + " and on: " + lost
+                        + " changes could not be written to disk");
+                listedErrors += lost;
+            }
+        }
+        Arrays.fill(uncommitted, 0);
+        firstUncommittedLine = 0;
+    }
+
+    /**
+     * Runs one command with the same checks as the menus
+     * 
+     * @throws IllegalArgumentException With the reason if the command fails
+     */
+    private void apply(Command command, String[] args) {
+        switch (command) {
+            case ADD_STUDENT: {
+                int id = newId(args, "student", store.getStudents().contains(number(args, 0, "id")));
+                String name = name(args, 1, "name");
+                int age = age(args, 2);
+                String course = name(args, 3, "course");
+                store.addStudent(new Student(id, name, age, course));
+                break;
+            }
+            case UPDATE_STUDENT: {
+                Student s = student(number(args, 0, "id"));
+                // Check every value before changing anything
+                String name = optional(args, 1) == null ? null : name(args, 1, "name");
+                Integer age = optional(args, 2) == null ? null : age(args, 2);
+                String course = optional(args, 3) == null ? null : name(args, 3, "course");
+                if (name != null) {
+                    s.setName(name);
+                }
+                if (age != null) {
+                    s.setAge(age);
+                }
+                if (course != null) {
+                    s.setCourse(course);
+                }
+                break;
+            }
+            case DELETE_STUDENT:
+                if (store.deleteStudent(number(args, 0, "id")) == null) {
+                    throw new IllegalArgumentException("student " + args[0] + " not found");
+                }
+                break;
+            case ADD_TEACHER: {
+                int id = newId(args, "teacher", store.getTeachers().contains(number(args, 0, "id")));
+                store.addTeacher(new Teacher(id, name(args, 1, "name"), name(args, 2, "subject")));
+                break;
+            }
+            case UPDATE_TEACHER: {
+                Teacher t = teacher(number(args, 0, "id"));
+                String name = optional(args, 1) == null ? null : name(args, 1, "name");
+                String subject = optional(args, 2) == null ? null : name(args, 2, "subject");
+                if (name != null) {
+                    t.setName(name);
+                }
+                if (subject != null) {
+                    t.setSubject(subject);
+                }
+                break;
+            }
+            case DELETE_TEACHER:
+                if (store.deleteTeacher(number(args, 0, "id")) == null) {
+                    throw new IllegalArgumentException("teacher " + args[0] + " not found");
+                }
+                break;
+            case ADD_CLASS: {
+                int id = newId(args, "class", store.getClassrooms().contains(number(args, 0, "id")));
+                store.addClassroom(new Classroom(id, name(args, 1, "name")));
+                break;
+            }
+            case UPDATE_CLASS:
+                classroom(number(args, 0, "id")).setClassName(name(args, 1, "name"));
+                break;
+            case DELETE_CLASS:
+                if (store.deleteClassroom(number(args, 0, "id")) == null) {
+                    throw new IllegalArgumentException("class " + args[0] + " not found");
+                }
+                break;
+            case ENROLL: {
+                Classroom c = classroom(number(args, 0, "class"));
+                if (!store.enroll(c, student(number(args, 1, "student")))) {
+                    throw new IllegalArgumentException("student " + args[1] + " is already in class " + args[0]);
+                }
+                break;
+            }
+            case UNENROLL: {
+                Classroom c = classroom(number(args, 0, "class"));
+                if (!store.unenroll(c, number(args, 1, "student"))) {
+                    throw new IllegalArgumentException("student " + args[1] + " is not in class " + args[0]);
+                }
+                break;
+            }
+            case ASSIGN_TEACHER: {
+                Classroom c = classroom(number(args, 0, "class"));
+                store.assignTeacher(c, teacher(number(args, 1, "teacher")));
+                break;
+            }
+            case UNASSIGN_TEACHER:
+                store.assignTeacher(classroom(number(args, 0, "class")), null);
+                break;
+            case IMPORT_STUDENTS:
+            case IMPORT_TEACHERS: {
+                // Prints its own summary; the command fails if any row was rejected
+                File file = new File(name(args, 0, "file"));
+                CsvImporter.Report report;
+                try {
+                    report = command == Command.IMPORT_STUDENTS
+                            ? CsvImporter.importStudents(store, file)
+                            : CsvImporter.importTeachers(store, file);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(e.getMessage());
+                }
+                if (report.getRejected() > 0) {
+                    throw new IllegalArgumentException(report.getRejected() + " rows rejected from " + file);
+                }
+                break;
+            }
+            case EXPORT_STUDENTS:
+            case EXPORT_TEACHERS: {
+                File file = new File(name(args, 0, "file"));
+                try {
+                    if (command == Command.EXPORT_STUDENTS) {
+                        CsvImporter.exportStudents(store, file);
+                    } else {
+                        CsvImporter.exportTeachers(store, file);
+                    }
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("cannot write " + file + ": " + e.getMessage());
+                }
+                break;
+            }
+            case FIND_STUDENTS_BY_COURSE:
+                printMatches(command, store.studentsInCourse(name(args, 0, "course")));
+                break;
+            case FIND_STUDENTS_BY_AGE:
+                printMatches(command, store.studentsAged(number(args, 0, "min"), number(args, 1, "max")));
+                break;
+            case FIND_TEACHERS_BY_SUBJECT:
+                printMatches(command, store.teachersOfSubject(name(args, 0, "subject")));
+                break;
+            case FIND_CLASSES_BY_NAME:
+                printMatches(command, store.classroomsNamed(name(args, 0, "name")));
+                break;
+            case FIND_STUDENTS_BY_NAME: {
+                // Names starting with the query; close matches if there are none
+                String query = name(args, 0, "name");
+                List<Student> matches = store.studentsByName(query, NAME_SEARCH_LIMIT);
+                printMatches(command, matches.isEmpty() ? store.studentsByNameFuzzy(query, NAME_SEARCH_LIMIT) : matches);
+                break;
+            }
+            case FIND_TEACHERS_BY_NAME: {
+                String query = name(args, 0, "name");
+                List<Teacher> matches = store.teachersByName(query, NAME_SEARCH_LIMIT);
+                printMatches(command, matches.isEmpty() ? store.teachersByNameFuzzy(query, NAME_SEARCH_LIMIT) : matches);
+                break;
+            }
+            case LIST_STUDENTS: {
+                printPage(command, args, store.getStudentListing(), ListingPrinter.STUDENTS);
+                break;
+            }
+            case LIST_TEACHERS: {
+                printPage(command, args, store.getTeacherListing(), ListingPrinter.TEACHERS);
+                break;
+            }
+            case LIST_CLASSES: {
+                printPage(command, args, store.getClassroomListing(), ListingPrinter.CLASSES);
+                break;
+            }
+            case REPORT:
+                ReportPrinter.print(store, new ReportEngine());
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported command");
+        }
+    }
+
+    /**
+     * Prints the result of a query command: a count, then one record per line
+     */
+    private static void printMatches(Command command, List<?> matches) {
+        StringBuilder out = new StringBuilder();
+        out.append(command.name).append(": ").append(matches.size()).append(" found")
+                .append(System.lineSeparator());
+        for (Object match : matches) {
+            out.append("  ").append(match).append(System.lineSeparator());
+        }
+        System.out.print(out);
+    }
+
+    /**
+     * Prints one page of a list-... command, then the command that prints the
+     * next page (its cursor holds the ID and sort key of the last record
+     * shown, so it still works if that record is deleted)
+     */
+    private static <T> void printPage(Command command, String[] args, SortedListing<T> listing,
+            ListingPrinter<T> printer) {
+        String order = optional(args, 0) == null ? "id" : optional(args, 0).toLowerCase(Locale.ROOT);
+        int size = optional(args, 1) == null ? DEFAULT_PAGE_SIZE : number(args, 1, "size");
+        Page<T> page = listing.pageAfter(order, optional(args, 2), size);
+        printer.print(printer.newTable(), page, order);
+        if (page.hasMore()) {
+            System.out.println("next: " + command.name + "," + order + "," + size + ","
+                    + csvField(listing.cursor(order, page.getLast())));
+        }
+    }
+
+    /**
+     * @return The value as a CSV field, in double quotes if it contains a
+     *         comma or a quote
+     */
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // ==================== ARGUMENT HELPERS ====================
+
+    /**
+     * @return The argument, or null if it is missing or empty
+     */
+    private static String optional(String[] args, int index) {
+        if (index >= args.length || args[index] == null || args[index].trim().isEmpty()) {
+            return null;
+        }
+        return args[index].trim();
+    }
+
+    private static int number(String[] args, int index, String param) {
+        String value = optional(args, index);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + param);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(param + " must be a number, not '" + value + "'");
+        }
+    }
+
+    private static String name(String[] args, int index, String param) {
+        String value = optional(args, index);
+        if (!InputValidator.validateName(value)) {
+            throw new IllegalArgumentException(
+                    param + " cannot be empty or longer than " + InputValidator.MAX_NAME_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static int age(String[] args, int index) {
+        int age = number(args, index, "age");
+        if (!InputValidator.validateAge(age)) {
+            throw new IllegalArgumentException("age must be between 16 and 100");
+        }
+        return age;
+    }
+
+    /**
+     * Checks the ID of a new record (args[0])
+     */
+    private static int newId(String[] args, String kind, boolean exists) {
+        int id = number(args, 0, "id");
+        if (!InputValidator.validateId(id)) {
+            throw new IllegalArgumentException("ID must be positive");
+        }
+        if (exists) {
+            throw new IllegalArgumentException(kind + " " + id + " already exists");
+        }
+        return id;
+    }
+
+    private Student student(int id) {
+        Student s = store.getStudents().get(id);
+        if (s == null) {
+            throw new IllegalArgumentException("student " + id + " not found");
+        }
+        return s;
+    }
+
+    private Teacher teacher(int id) {
+        Teacher t = store.getTeachers().get(id);
+        if (t == null) {
+            throw new IllegalArgumentException("teacher " + id + " not found");
+        }
+        return t;
+    }
+
+    private Classroom classroom(int id) {
+        Classroom c = store.getClassrooms().get(id);
+        if (c == null) {
+            throw new IllegalArgumentException("class " + id + " not found");
+        }
+        return c;
+    }
+
+    // ==================== REPORT ====================
+
+    private void fail(Command command, int line, String message) {
+        if (command != null) {
+            failed[command.ordinal()]++;
+        }
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("  line " + line + ": " + (command == null ? "" : command.name + ": ") + message);
+            listedErrors++;
+        }
+    }
+
+    private void printReport(long nanos) {
+        int ok = 0;
+        for (int n : succeeded) {
+            ok += n;
+        }
+        int total = ok + errorCount;
+        double seconds = nanos / 1e9;
+        StringBuilder report = new StringBuilder();
+        // The first column fits the longest command name
+        int width = "(invalid lines)".length();
+        for (Command c : Command.values()) {
+            width = Math.max(width, c.name.length());
+        }
+        String row = "%-" + width + "s %,10d %,10d%n";
+        report.append(String.format("%n--- Batch Summary ---%n"));
+        report.append(String.format("%-" + width + "s %10s %10s%n", "Command", "OK", "Failed"));
+        for (Command c : Command.values()) {
+            if (succeeded[c.ordinal()] + failed[c.ordinal()] > 0) {
+                report.append(String.format(row, c.name, succeeded[c.ordinal()], failed[c.ordinal()]));
+            }
+        }
+        int unreadable = errorCount;
+        for (int n : failed) {
+            unreadable -= n;
+        }
+        if (unreadable > 0) {
+            report.append(String.format("%-" + width + "s %10s %,10d%n", "(invalid lines)", "", unreadable));
+        }
+        report.append(String.format("%,d commands (%,d ok, %,d failed) in %.0f ms (%,.0f commands/s)%n",
+                total, ok, errorCount, seconds * 1000, total / Math.max(seconds, 1e-9)));
+        if (!errors.isEmpty()) {
+            report.append("Errors:").append(System.lineSeparator());
+            for (String error : errors) {
+                report.append(error).append(System.lineSeparator());
+            }
+            if (errorCount > listedErrors) {
+                report.append(String.format("  ... and %,d more%n", errorCount - listedErrors));
+            }
+        }
+        System.out.print(report);
+    }
+}
@@ -1,9 +1,24 @@
 package com.college.main;
 
+import com.college.api.ApiServer;
+import com.college.util.ConsoleTable;
+import com.college.util.CsvImporter;
 import com.college.util.FileHandler;
 import com.college.util.InputValidator;
+import com.college.util.Journal;
 import com.college.model.*;
-import java.util.ArrayList; // Import ArrayList collection
+import com.college.report.ReportEngine;
+import com.college.repository.ClassroomRepository;
+import com.college.repository.DataStore;
+import com.college.repository.Page;
+import com.college.repository.SortedListing;
+import com.college.repository.StudentRepository;
+import com.college.repository.TeacherRepository;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
 import java.util.Scanner; // Import Scanner for user input
 
 /**
@@ -24,13 +39,23 @@ import java.util.Scanner; // Import Scanner for user input
 public class CollegeManagementSystem {
 
     // STATIC VARIABLES - belong to the class
-    // These lists store all the data for students, teachers, and classrooms
-    // CONCEPT DEMONSTRATED: COLLECTIONS (ArrayList)
-    // - ArrayList is a dynamic array that can grow/shrink
-    // - We use ArrayList to store multiple objects of the same type
-    private static ArrayList<Student> students = new ArrayList<>();
-    private static ArrayList<Teacher> teachers = new ArrayList<>();
-    private static ArrayList<Classroom> classrooms = new ArrayList<>();
+    // The data store holds all the data for students, teachers, and classrooms
+    // CONCEPT DEMONSTRATED: COLLECTIONS (hash-indexed repositories)
+    // - Each repository keeps records in insertion order for listing
+    // - Lookups, duplicate checks and deletes by ID take constant time
+    // - Changes that link entities (enroll, assign, delete) go through the store
+    // so its student/teacher -> classroom indexes stay up to date
+    private static DataStore store = new DataStore();
+    private static StudentRepository students = store.getStudents();
+    private static TeacherRepository teachers = store.getTeachers();
+    private static ClassroomRepository classrooms = store.getClassrooms();
+
+    // Records every change as it happens, so a crash does not lose the session
+    // (null if the journal file could not be opened)
+    private static Journal journal;
+
+    // Serves the data over HTTP while the menus run (null unless --serve)
+    private static ApiServer api;
 
     // Scanner object for reading user input from console
     // CONCEPT DEMONSTRATED: INPUT/OUTPUT (Scanner)
@@ -38,6 +63,11 @@ public class CollegeManagementSystem {
     // - System.in means input from standard input (keyboard)
     private static Scanner scanner = new Scanner(System.in);
 
+    // Most results shown by a name search
+    private static final int NAME_SEARCH_LIMIT = 50;
+    // Rows per page of a listing unless the user chooses another size
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     /**
      * MAIN METHOD - Entry point of the program
      * 
@@ -46,9 +76,63 @@ public class CollegeManagementSystem {
      * - Uses switch-case for menu selection
      * - Uses if-else for conditional logic
      * 
-     * @param args Command line arguments (not used in this program)
+     * @param args Command line arguments:
+     *             --format text|binary selects the storage format
+     *             --batch FILE runs the commands in FILE (or - for standard
+     *             input) without the menus, see BatchProcessor
+     *             --batch-help lists the batch commands
+     *             --serve PORT also serves the data as an HTTP/JSON API on
+     *             PORT, see ApiServer
+     *             --host HOST with --serve: listen on HOST (e.g. 0.0.0.0 for
+     *             every interface) instead of only on localhost
+     *             --no-console with --serve: only serve, without the menus,
+     *             until the program is stopped (Ctrl+C)
      */
     public static void main(String[] args) {
+        String batchFile = null;
+        int servePort = -1;
+        String serveHost = null;
+        boolean console = true;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--format") && i + 1 < args.length) {
+                FileHandler.setFormat("binary".equalsIgnoreCase(args[++i])
+                        ? FileHandler.Format.BINARY
+                        : FileHandler.Format.TEXT);
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                batchFile = args[++i];
+            } else if (args[i].equals("--batch-help")) {
+                BatchProcessor.printHelp();
+                return;
+            } else if (args[i].equals("--serve") && i + 1 < args.length) {
+                servePort = port(args[++i]);
+                if (servePort < 0) {
+                    System.err.println("--serve needs a port from 1 to 65535, not '" + args[i] + "'");
+                    return;
+                }
+            } else if (args[i].equals("--host") && i + 1 < args.length) {
+                serveHost = args[++i];
+            } else if (args[i].equals("--no-console")) {
+                console = false;
+            }
+        }
+
+        if (batchFile != null) {
+            System.exit(runBatch(batchFile) ? 0 : 1);
+        }
+        InetAddress serveAddress = InetAddress.getLoopbackAddress();
+        if (serveHost != null) {
+            if (servePort < 0) {
+                System.err.println("--host needs --serve PORT");
+                return;
+            }
+            try {
+                serveAddress = InetAddress.getByName(serveHost);
+            } catch (UnknownHostException e) {
+                System.err.println("--host: unknown host '" + serveHost + "'");
+                return;
+            }
+        }
+
         System.out.println("========================================");
         System.out.println("  Welcome to College Management System!");
         System.out.println("========================================");
@@ -58,7 +142,25 @@ public class CollegeManagementSystem {
 
         // Load data from files when program starts
         // CONCEPT DEMONSTRATED: FILE HANDLING
-        FileHandler.loadData(students, teachers, classrooms);
+        FileHandler.loadData(store);
+        journal = FileHandler.openJournal(store);
+        if (servePort >= 0 && !startApi(serveAddress, servePort)) {
+            return;
+        }
+        if (!console) {
+            if (api == null) {
+                System.err.println("--no-console needs --serve PORT");
+                return;
+            }
+            // Serve until the program is stopped; save on the way out
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                api.stop();
+                saveAndCloseJournal();
+                System.out.println("Data saved.");
+            }));
+            System.out.println("Press Ctrl+C to stop.");
+            return; // The server's threads keep the program running
+        }
 
         // Main menu loop - runs until user chooses to exit
         // CONCEPT DEMONSTRATED: LOOPS (while loop)
@@ -69,6 +171,7 @@ public class CollegeManagementSystem {
             System.out.println("2. Manage Teachers");
             System.out.println("3. Manage Classes");
             System.out.println("4. Exit");
+            System.out.println("5. Reports (enrollment statistics)");
             System.out.print("Enter your choice: ");
             System.out.flush(); // Ensure prompt is displayed before reading input
 
@@ -80,24 +183,139 @@ public class CollegeManagementSystem {
             switch (choice) {
                 case 1:
                     manageStudents(); // Go to student management menu
+                    commitChanges();
                     break;
                 case 2:
                     manageTeachers(); // Go to teacher management menu
+                    commitChanges();
                     break;
                 case 3:
                     manageClasses(); // Go to class management menu
+                    commitChanges();
                     break;
                 case 4:
-                    // Save data to files before exiting
-                    FileHandler.saveData(students, teachers, classrooms);
+                    // Stop taking requests, then save data to files before exiting
+                    if (api != null) {
+                        api.stop();
+                    }
+                    saveAndCloseJournal();
                     System.out.println("\nData saved. Thank you for using College Management System!");
                     return; // Exit the program
+                case 5:
+                    ReportPrinter.print(store, new ReportEngine()); // Read-only, nothing to commit
+                    break;
                 default:
                     System.out.println("Invalid choice. Please try again.");
             }
         }
     }
 
+    /**
+     * @param text A port number as typed on the command line
+     * @return The port, or -1 if the text is not a number from 1 to 65535
+     */
+    private static int port(String text) {
+        try {
+            int port = Integer.parseInt(text.trim());
+            return port >= 1 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Loads the data, runs a batch file and saves the result
+     * 
+     * @param path Batch file, or "-" for standard input
+     * @return true if every command in the batch succeeded
+     */
+    private static boolean runBatch(String path) {
+        FileHandler.loadData(store);
+        journal = FileHandler.openJournal(store);
+        boolean ok;
+        try {
+            ok = new BatchProcessor(store, CollegeManagementSystem::commitChanges).run(path);
+        } catch (IOException e) {
+            System.err.println("Error reading batch file: " + e.getMessage());
+            ok = false;
+        }
+        saveAndCloseJournal();
+        return ok;
+    }
+
+    /**
+     * Starts the HTTP/JSON API; its changes are committed the same way as the
+     * menus' changes
+     * 
+     * @param address Interface to listen on
+     * @param port    TCP port to listen on
+     * @return false if the port could not be opened
+     */
+    private static boolean startApi(InetAddress address, int port) {
+        api = new ApiServer(store, CollegeManagementSystem::commitChanges);
+        try {
+            api.start(address, port);
+        } catch (IOException e) {
+            System.err.println("Error starting API on port " + port + ": " + e.getMessage());
+            api = null;
+            saveAndCloseJournal();
+            return false;
+        }
+        System.out.println("API listening on http://" + api.getHost() + ":" + api.getPort() + "/ ("
+                + api.describeThreads() + ")");
+        if (!address.isLoopbackAddress()) {
+            System.out.println("Warning: the API has no authentication and is reachable from the network.");
+        }
+        return true;
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    /**
+     * Makes sure the changes of the last menu action are on disk, and saves
+     * everything in full once the journal has grown large
+     * 
+     * CONCEPT DEMONSTRATED: WRITE-AHEAD LOGGING (see Journal)
+     * 
+     * @return false if the journal could not be written, so the changes are
+     *         only in memory; true otherwise (also without a journal, where
+     *         changes are only ever saved on exit)
+     */
+    private static boolean commitChanges() {
+        if (journal == null) {
+            return true;
+        }
+        try {
+            journal.commit();
+        } catch (IOException e) {
+            System.err.println("Error writing journal: " + e.getMessage());
+            return false;
+        }
+        if (journal.needsCompaction()) {
+            FileHandler.checkpoint(store, journal);
+        }
+        return true;
+    }
+
+    /**
+     * Saves all data in full and then empties and closes the journal. If the
+     * save fails, the journal keeps the changes for the next start.
+     */
+    private static void saveAndCloseJournal() {
+        boolean saved = FileHandler.saveData(store);
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (saved) {
+                journal.reset();
+            }
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing journal: " + e.getMessage());
+        }
+    }
+
     // ==================== STUDENT MANAGEMENT ====================
 
     /**
@@ -115,7 +333,12 @@ public class CollegeManagementSystem {
         System.out.println("2. View Student Details");
         System.out.println("3. Update Student Information");
         System.out.println("4. Delete Student");
-        System.out.println("5. List All Students");
+        System.out.println("5. List Students (sorted, page by page)");
+        System.out.println("6. Import Students from CSV");
+        System.out.println("7. Export Students to CSV");
+        System.out.println("8. Find Students by Course");
+        System.out.println("9. Find Students by Age Range");
+        System.out.println("10. Search Students by Name");
         System.out.print("Enter choice: ");
 
         int choice = readIntInput();
@@ -136,6 +359,21 @@ public class CollegeManagementSystem {
             case 5:
                 listStudents(); // READ operation (list all)
                 break;
+            case 6:
+                importFromCsv(true);
+                break;
+            case 7:
+                exportToCsv(true);
+                break;
+            case 8:
+                findStudentsByCourse();
+                break;
+            case 9:
+                findStudentsByAge();
+                break;
+            case 10:
+                searchByName(true);
+                break;
             default:
                 System.out.println("Invalid choice.");
         }
@@ -156,8 +394,9 @@ public class CollegeManagementSystem {
         System.out.print("Enter Student ID: ");
         int id = readIntInput();
 
-        // Check if ID already exists (prevent duplicates)
-        if (findStudentById(id) != null) {
+        // Check if ID already exists (prevent duplicates) before asking for the
+        // rest; the add below checks again, in case someone else adds it meanwhile
+        if (students.contains(id)) {
             System.out.println("Error: Student with this ID already exists!");
             return;
         }
@@ -166,7 +405,8 @@ public class CollegeManagementSystem {
         String name = scanner.nextLine().trim();
         // Validate name using InputValidator
         if (!InputValidator.validateName(name)) {
-            System.out.println("Error: Invalid name. Name cannot be empty.");
+            System.out.println("Error: Invalid name. Name cannot be empty or longer than "
+                    + InputValidator.MAX_NAME_LENGTH + " characters.");
             return;
         }
 
@@ -182,14 +422,21 @@ public class CollegeManagementSystem {
         String course = scanner.nextLine().trim();
         // Validate course using InputValidator
         if (!InputValidator.validateName(course)) {
-            System.out.println("Error: Invalid course. Course cannot be empty.");
+            System.out.println("Error: Invalid course. Course cannot be empty or longer than "
+                    + InputValidator.MAX_NAME_LENGTH + " characters.");
             return;
         }
 
         // Create new Student object and add to list
         // CONCEPT: OBJECT CREATION - new keyword creates an object
-        students.add(new Student(id, name, age, course));
-        System.out.println("Student added successfully!");
+        // The store checks for a duplicate ID and adds in one step, so an
+        // API request adding the same ID at the same time cannot slip in
+        // between a separate check and the add
+        if (store.addStudent(new Student(id, name, age, course))) {
+            System.out.println("Student added successfully!");
+        } else {
+            System.out.println("Error: Student with this ID already exists!");
+        }
     }
 
     /**
@@ -203,6 +450,7 @@ public class CollegeManagementSystem {
             System.out.println("\n--- Student Details ---");
             // toString() method is called automatically
             System.out.println(s);
+            printClassList("Enrolled in", store.classroomsOfStudent(id));
         } else {
             System.out.println("Student not found.");
         }
@@ -213,6 +461,8 @@ public class CollegeManagementSystem {
      * 
      * CONCEPT DEMONSTRATED: SETTER METHODS
      * - Uses setter methods to modify object attributes
+     * - Each setter runs under the store's write lock, so other users of the
+     * store never read a half-applied change
      */
     private static void updateStudent() {
         System.out.print("Enter Student ID to update: ");
@@ -223,7 +473,7 @@ public class CollegeManagementSystem {
             System.out.print("Enter New Name (press Enter to keep current): ");
             String newName = scanner.nextLine().trim();
             if (!newName.isEmpty() && InputValidator.validateName(newName)) {
-                s.setName(newName); // Use setter method
+                store.withWriteLock(() -> s.setName(newName)); // Use setter method
             } else if (!newName.isEmpty()) {
                 System.out.println("Invalid name. Keeping current name.");
             }
@@ -234,7 +484,7 @@ public class CollegeManagementSystem {
                 try {
                     int newAge = Integer.parseInt(ageInput);
                     if (InputValidator.validateAge(newAge)) {
-                        s.setAge(newAge); // Use setter method
+                        store.withWriteLock(() -> s.setAge(newAge)); // Use setter method
                     } else {
                         System.out.println("Invalid age. Keeping current age.");
                     }
@@ -246,7 +496,7 @@ public class CollegeManagementSystem {
             System.out.print("Enter New Course (press Enter to keep current): ");
             String newCourse = scanner.nextLine().trim();
             if (!newCourse.isEmpty() && InputValidator.validateName(newCourse)) {
-                s.setCourse(newCourse); // Use setter method
+                store.withWriteLock(() -> s.setCourse(newCourse)); // Use setter method
             } else if (!newCourse.isEmpty()) {
                 System.out.println("Invalid course. Keeping current course.");
             }
@@ -260,36 +510,34 @@ public class CollegeManagementSystem {
     /**
      * DELETE OPERATION: Delete a student record
      * 
-     * CONCEPT DEMONSTRATED: COLLECTIONS
-     * - Uses removeIf() method to remove object from ArrayList
+     * CONCEPT DEMONSTRATED: CASCADING DELETE
+     * - The store also removes the student from every class they were in
      */
     private static void deleteStudent() {
         System.out.print("Enter Student ID to delete: ");
         int delId = readIntInput();
-        // removeIf returns true if something was removed
-        boolean removed = students.removeIf(student -> student.getId() == delId);
+        int classCount = store.classroomsOfStudent(delId).size();
+        // deleteStudent returns the deleted student, or null if nothing was removed
+        boolean removed = store.deleteStudent(delId) != null;
         if (removed) {
-            System.out.println("Student deleted successfully.");
+            System.out.println("Student deleted successfully (removed from " + classCount + " classes).");
         } else {
             System.out.println("Student not found.");
         }
     }
 
     /**
-     * READ OPERATION: List all students
+     * READ OPERATION: List students, sorted, one page at a time
      * 
-     * CONCEPT DEMONSTRATED: ENHANCED FOR LOOP
-     * - for-each loop iterates through ArrayList
+     * CONCEPT DEMONSTRATED: PAGINATION
+     * - Only one page is printed at a time, so a large roster does not flood
+     * the console; the next page is shown on request
      */
     private static void listStudents() {
         if (students.isEmpty()) {
             System.out.println("No students found.");
         } else {
-            System.out.println("\n--- List of Students ---");
-            // Enhanced for loop - iterates through each student
-            for (Student student : students) {
-                System.out.println(student); // toString() called automatically
-            }
+            browse(store.getStudentListing(), ListingPrinter.STUDENTS);
         }
     }
 
@@ -307,7 +555,11 @@ public class CollegeManagementSystem {
         System.out.println("2. View Teacher Details");
         System.out.println("3. Update Teacher Information");
         System.out.println("4. Delete Teacher");
-        System.out.println("5. List All Teachers");
+        System.out.println("5. List Teachers (sorted, page by page)");
+        System.out.println("6. Import Teachers from CSV");
+        System.out.println("7. Export Teachers to CSV");
+        System.out.println("8. Find Teachers by Subject");
+        System.out.println("9. Search Teachers by Name");
         System.out.print("Enter choice: ");
 
         int choice = readIntInput();
@@ -328,6 +580,18 @@ public class CollegeManagementSystem {
             case 5:
                 listTeachers();
                 break;
+            case 6:
+                importFromCsv(false);
+                break;
+            case 7:
+                exportToCsv(false);
+                break;
+            case 8:
+                findTeachersBySubject();
+                break;
+            case 9:
+                searchByName(false);
+                break;
             default:
                 System.out.println("Invalid choice.");
         }
@@ -340,7 +604,7 @@ public class CollegeManagementSystem {
         System.out.print("Enter Teacher ID: ");
         int id = readIntInput();
 
-        if (findTeacherById(id) != null) {
+        if (teachers.contains(id)) {
             System.out.println("Error: Teacher with this ID already exists!");
             return;
         }
@@ -348,19 +612,24 @@ public class CollegeManagementSystem {
         System.out.print("Enter Name: ");
         String name = scanner.nextLine().trim();
         if (!InputValidator.validateName(name)) {
-            System.out.println("Error: Invalid name. Name cannot be empty.");
+            System.out.println("Error: Invalid name. Name cannot be empty or longer than "
+                    + InputValidator.MAX_NAME_LENGTH + " characters.");
             return;
         }
 
         System.out.print("Enter Subject: ");
         String subject = scanner.nextLine().trim();
         if (!InputValidator.validateName(subject)) {
-            System.out.println("Error: Invalid subject. Subject cannot be empty.");
+            System.out.println("Error: Invalid subject. Subject cannot be empty or longer than "
+                    + InputValidator.MAX_NAME_LENGTH + " characters.");
             return;
         }
 
-        teachers.add(new Teacher(id, name, subject));
-        System.out.println("Teacher added successfully!");
+        if (store.addTeacher(new Teacher(id, name, subject))) {
+            System.out.println("Teacher added successfully!");
+        } else {
+            System.out.println("Error: Teacher with this ID already exists!");
+        }
     }
 
     /**
@@ -373,6 +642,7 @@ public class CollegeManagementSystem {
         if (t != null) {
             System.out.println("\n--- Teacher Details ---");
             System.out.println(t);
+            printClassList("Teaching", store.classroomsOfTeacher(id));
         } else {
             System.out.println("Teacher not found.");
         }
@@ -390,7 +660,7 @@ public class CollegeManagementSystem {
             System.out.print("Enter New Name (press Enter to keep current): ");
             String newName = scanner.nextLine().trim();
             if (!newName.isEmpty() && InputValidator.validateName(newName)) {
-                t.setName(newName);
+                store.withWriteLock(() -> t.setName(newName));
             } else if (!newName.isEmpty()) {
                 System.out.println("Invalid name. Keeping current name.");
             }
@@ -398,7 +668,7 @@ public class CollegeManagementSystem {
             System.out.print("Enter New Subject (press Enter to keep current): ");
             String newSubject = scanner.nextLine().trim();
             if (!newSubject.isEmpty() && InputValidator.validateName(newSubject)) {
-                t.setSubject(newSubject);
+                store.withWriteLock(() -> t.setSubject(newSubject));
             } else if (!newSubject.isEmpty()) {
                 System.out.println("Invalid subject. Keeping current subject.");
             }
@@ -411,29 +681,28 @@ public class CollegeManagementSystem {
 
     /**
      * DELETE OPERATION: Delete a teacher record
+     * (the teacher is also un-assigned from every class they taught)
      */
     private static void deleteTeacher() {
         System.out.print("Enter Teacher ID to delete: ");
         int delId = readIntInput();
-        boolean removed = teachers.removeIf(teacher -> teacher.getId() == delId);
+        int classCount = store.classroomsOfTeacher(delId).size();
+        boolean removed = store.deleteTeacher(delId) != null;
         if (removed) {
-            System.out.println("Teacher deleted successfully.");
+            System.out.println("Teacher deleted successfully (un-assigned from " + classCount + " classes).");
         } else {
             System.out.println("Teacher not found.");
         }
     }
 
     /**
-     * READ OPERATION: List all teachers
+     * READ OPERATION: List teachers, sorted, one page at a time
      */
     private static void listTeachers() {
         if (teachers.isEmpty()) {
             System.out.println("No teachers found.");
         } else {
-            System.out.println("\n--- List of Teachers ---");
-            for (Teacher teacher : teachers) {
-                System.out.println(teacher);
-            }
+            browse(store.getTeacherListing(), ListingPrinter.TEACHERS);
         }
     }
 
@@ -454,7 +723,8 @@ public class CollegeManagementSystem {
         System.out.println("5. Assign Teacher to Class");
         System.out.println("6. Add Student to Class");
         System.out.println("7. Remove Student from Class");
-        System.out.println("8. List All Classes");
+        System.out.println("8. List Classes (sorted, page by page)");
+        System.out.println("9. Find Classes by Name");
         System.out.print("Enter choice: ");
 
         int choice = readIntInput();
@@ -484,6 +754,9 @@ public class CollegeManagementSystem {
             case 8:
                 listClasses();
                 break;
+            case 9:
+                findClassesByName();
+                break;
             default:
                 System.out.println("Invalid choice.");
         }
@@ -496,7 +769,7 @@ public class CollegeManagementSystem {
         System.out.print("Enter Class ID: ");
         int id = readIntInput();
 
-        if (findClassroomById(id) != null) {
+        if (classrooms.contains(id)) {
             System.out.println("Error: Class with this ID already exists!");
             return;
         }
@@ -504,12 +777,16 @@ public class CollegeManagementSystem {
         System.out.print("Enter Class Name (e.g. Math 101): ");
         String name = scanner.nextLine().trim();
         if (!InputValidator.validateName(name)) {
-            System.out.println("Error: Invalid class name. Class name cannot be empty.");
+            System.out.println("Error: Invalid class name. Class name cannot be empty or longer than "
+                    + InputValidator.MAX_NAME_LENGTH + " characters.");
             return;
         }
 
-        classrooms.add(new Classroom(id, name));
-        System.out.println("Class created successfully!");
+        if (store.addClassroom(new Classroom(id, name))) {
+            System.out.println("Class created successfully!");
+        } else {
+            System.out.println("Error: Class with this ID already exists!");
+        }
     }
 
     /**
@@ -520,17 +797,21 @@ public class CollegeManagementSystem {
         int id = readIntInput();
         Classroom c = findClassroomById(id);
         if (c != null) {
-            System.out.println("\n--- Class Details ---");
-            System.out.println(c);
-            if (c.getTeacher() != null) {
-                System.out.println("Assigned Teacher: " + c.getTeacher());
-            }
-            if (!c.getStudents().isEmpty()) {
-                System.out.println("Students in this class:");
-                for (Student s : c.getStudents()) {
-                    System.out.println("  - " + s);
+            // The roster is live; the read lock keeps an API request from
+            // enrolling or unenrolling while it is printed
+            store.withReadLock(() -> {
+                System.out.println("\n--- Class Details ---");
+                System.out.println(c);
+                if (c.getTeacher() != null) {
+                    System.out.println("Assigned Teacher: " + c.getTeacher());
                 }
-            }
+                if (!c.getStudents().isEmpty()) {
+                    System.out.println("Students in this class:");
+                    for (Student s : c.getStudents()) {
+                        System.out.println("  - " + s);
+                    }
+                }
+            });
         } else {
             System.out.println("Class not found.");
         }
@@ -548,7 +829,7 @@ public class CollegeManagementSystem {
             System.out.print("Enter New Class Name (press Enter to keep current): ");
             String newName = scanner.nextLine().trim();
             if (!newName.isEmpty() && InputValidator.validateName(newName)) {
-                c.setClassName(newName);
+                store.withWriteLock(() -> c.setClassName(newName));
                 System.out.println("Class name updated successfully!");
             } else if (!newName.isEmpty()) {
                 System.out.println("Invalid class name. Keeping current name.");
@@ -566,7 +847,7 @@ public class CollegeManagementSystem {
     private static void deleteClass() {
         System.out.print("Enter Class ID to delete: ");
         int delId = readIntInput();
-        boolean removed = classrooms.removeIf(cl -> cl.getId() == delId);
+        boolean removed = store.deleteClassroom(delId) != null;
         if (removed) {
             System.out.println("Class deleted successfully.");
         } else {
@@ -586,8 +867,13 @@ public class CollegeManagementSystem {
             int teacherId = readIntInput();
             Teacher teacher = findTeacherById(teacherId);
             if (teacher != null) {
-                classroom.setTeacher(teacher);
-                System.out.println("Teacher assigned to class successfully!");
+                try {
+                    store.assignTeacher(classroom, teacher);
+                    System.out.println("Teacher assigned to class successfully!");
+                } catch (IllegalArgumentException e) {
+                    // Deleted by another user since it was looked up
+                    System.out.println("Error: " + e.getMessage() + ".");
+                }
             } else {
                 System.out.println("Teacher not found.");
             }
@@ -608,19 +894,16 @@ public class CollegeManagementSystem {
             int sId = readIntInput();
             Student s = findStudentById(sId);
             if (s != null) {
-                // Check if student is already in the class
-                boolean alreadyInClass = false;
-                for (Student student : cl.getStudents()) {
-                    if (student.getId() == sId) {
-                        alreadyInClass = true;
-                        break;
+                // addStudent refuses students that are already in the class
+                try {
+                    if (store.enroll(cl, s)) {
+                        System.out.println("Student added to class successfully!");
+                    } else {
+                        System.out.println("Student is already in this class.");
                     }
-                }
-                if (alreadyInClass) {
-                    System.out.println("Student is already in this class.");
-                } else {
-                    cl.addStudent(s);
-                    System.out.println("Student added to class successfully!");
+                } catch (IllegalArgumentException e) {
+                    // Deleted by another user since it was looked up
+                    System.out.println("Error: " + e.getMessage() + ".");
                 }
             } else {
                 System.out.println("Student not found.");
@@ -640,29 +923,248 @@ public class CollegeManagementSystem {
         if (cl != null) {
             System.out.print("Enter Student ID to remove: ");
             int sId = readIntInput();
-            cl.removeStudent(sId);
-            System.out.println("Student removed from class successfully!");
+            if (store.unenroll(cl, sId)) {
+                System.out.println("Student removed from class successfully!");
+            } else {
+                System.out.println("Student is not in this class.");
+            }
         } else {
             System.out.println("Class not found.");
         }
     }
 
     /**
-     * READ OPERATION: List all classes
+     * READ OPERATION: List classes, sorted, one page at a time
      */
     private static void listClasses() {
         if (classrooms.isEmpty()) {
             System.out.println("No classes found.");
         } else {
-            System.out.println("\n--- List of Classes ---");
-            for (Classroom room : classrooms) {
-                System.out.println(room);
+            browse(store.getClassroomListing(), ListingPrinter.CLASSES);
+        }
+    }
+
+    /**
+     * Asks for a sort order and a page size, then shows one page at a time
+     * until the user stops or the listing ends
+     * 
+     * CONCEPT DEMONSTRATED: KEYSET PAGINATION
+     * - The last record of a page is the cursor for the next one, so every
+     * page costs about the same, however far into the listing it is
+     * 
+     * @param listing The records to list
+     * @param printer How to print them
+     */
+    private static <T> void browse(SortedListing<T> listing, ListingPrinter<T> printer) {
+        List<String> orders = listing.getOrders();
+        StringBuilder prompt = new StringBuilder("Sort by:");
+        for (int i = 0; i < orders.size(); i++) {
+            prompt.append("  ").append(i + 1).append(". ").append(orders.get(i));
+        }
+        System.out.println(prompt);
+        System.out.print("Enter choice: ");
+        int choice = readIntInput();
+        if (choice < 1 || choice > orders.size()) {
+            System.out.println("Invalid choice, sorting by " + orders.get(0) + ".");
+            choice = 1;
+        }
+        String order = orders.get(choice - 1);
+        int pageSize = readPageSize();
+
+        ConsoleTable table = printer.newTable(); // One row buffer for every page
+        T after = null;
+        while (true) {
+            Page<T> page = listing.page(order, after, pageSize);
+            printer.print(table, page, order);
+            if (!page.hasMore()) {
+                break;
+            }
+            System.out.print("Enter = next page, q = back to menu: ");
+            System.out.flush();
+            if (!scanner.hasNextLine() || scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
+            }
+            after = page.getLast();
+        }
+    }
+
+    /**
+     * Asks for the number of rows per page; Enter or an invalid answer keeps
+     * the default
+     */
+    private static int readPageSize() {
+        System.out.print("Rows per page (Enter for " + DEFAULT_PAGE_SIZE + "): ");
+        System.out.flush();
+        String input = scanner.hasNextLine() ? scanner.nextLine().trim() : "";
+        if (input.isEmpty()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            int size = Integer.parseInt(input);
+            if (size > 0) {
+                return size;
             }
+        } catch (NumberFormatException e) {
+            // Fall through to the default
+        }
+        System.out.println("Invalid page size, using " + DEFAULT_PAGE_SIZE + ".");
+        return DEFAULT_PAGE_SIZE;
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Lists the students of one course
+     * 
+     * CONCEPT DEMONSTRATED: SECONDARY INDEX
+     * - The store looks the course up in its course index instead of
+     * checking every student
+     */
+    private static void findStudentsByCourse() {
+        System.out.print("Enter Course: ");
+        String course = scanner.nextLine().trim();
+        printMatches("students in " + course, store.studentsInCourse(course));
+    }
+
+    /**
+     * Lists the students whose age is in a range
+     */
+    private static void findStudentsByAge() {
+        System.out.print("Enter Minimum Age: ");
+        int minAge = readIntInput();
+        System.out.print("Enter Maximum Age: ");
+        int maxAge = readIntInput();
+        printMatches("students aged " + minAge + " to " + maxAge, store.studentsAged(minAge, maxAge));
+    }
+
+    /**
+     * Lists the teachers of one subject
+     */
+    private static void findTeachersBySubject() {
+        System.out.print("Enter Subject: ");
+        String subject = scanner.nextLine().trim();
+        printMatches("teachers of " + subject, store.teachersOfSubject(subject));
+    }
+
+    /**
+     * Lists the classes with a given name
+     */
+    private static void findClassesByName() {
+        System.out.print("Enter Class Name: ");
+        String name = scanner.nextLine().trim();
+        printMatches("classes named " + name, store.classroomsNamed(name));
+    }
+
+    /**
+     * Searches students or teachers by name. Names starting with the typed
+     * text are shown first; if there are none, close matches (typos) are shown.
+     * 
+     * @param searchStudents true for students, false for teachers
+     */
+    private static void searchByName(boolean searchStudents) {
+        System.out.print("Enter name (or the start of it): ");
+        String query = scanner.nextLine().trim();
+        List<? extends Person> matches = searchStudents
+                ? store.studentsByName(query, NAME_SEARCH_LIMIT)
+                : store.teachersByName(query, NAME_SEARCH_LIMIT);
+        String kind = searchStudents ? "students" : "teachers";
+        if (matches.isEmpty()) {
+            matches = searchStudents
+                    ? store.studentsByNameFuzzy(query, NAME_SEARCH_LIMIT)
+                    : store.teachersByNameFuzzy(query, NAME_SEARCH_LIMIT);
+            if (!matches.isEmpty()) {
+                System.out.println("No exact matches. Did you mean:");
+            }
+        }
+        printMatches(kind + " matching " + query, matches);
+        if (matches.size() == NAME_SEARCH_LIMIT) {
+            System.out.println("(showing the first " + NAME_SEARCH_LIMIT + "; type more of the name to narrow it down)");
+        }
+    }
+
+    /**
+     * Prints the results of a query, one per line
+     * 
+     * @param label   What was searched for
+     * @param matches The matching records
+     */
+    private static void printMatches(String label, List<?> matches) {
+        if (matches.isEmpty()) {
+            System.out.println("No " + label + " found.");
+            return;
+        }
+        System.out.println("\n--- " + matches.size() + " " + label + " ---");
+        for (Object match : matches) {
+            System.out.println(match);
+        }
+    }
+
+    // ==================== IMPORT / EXPORT ====================
+
+    /**
+     * Imports students or teachers from a CSV file. Every row is validated
+     * before any is added; rejected rows are listed.
+     * 
+     * @param studentsFile true for students, false for teachers
+     */
+    private static void importFromCsv(boolean studentsFile) {
+        System.out.print(studentsFile
+                ? "Enter CSV file to import (id,name,age,course): "
+                : "Enter CSV file to import (id,name,subject): ");
+        String path = scanner.nextLine().trim();
+        try {
+            if (studentsFile) {
+                CsvImporter.importStudents(store, new File(path));
+            } else {
+                CsvImporter.importTeachers(store, new File(path));
+            }
+        } catch (IOException e) {
+            System.out.println("Error importing file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exports all students or teachers to a CSV file
+     * 
+     * @param studentsFile true for students, false for teachers
+     */
+    private static void exportToCsv(boolean studentsFile) {
+        System.out.print("Enter CSV file to export to: ");
+        String path = scanner.nextLine().trim();
+        try {
+            int count = studentsFile
+                    ? CsvImporter.exportStudents(store, new File(path))
+                    : CsvImporter.exportTeachers(store, new File(path));
+            System.out.println("Exported " + count + (studentsFile ? " students" : " teachers") + " to " + path);
+        } catch (IOException e) {
+            System.out.println("Error exporting file: " + e.getMessage());
         }
     }
 
     // ==================== HELPER METHODS ====================
 
+    /**
+     * Prints the names of a list of classes on one line
+     * 
+     * @param label   Text shown before the list
+     * @param classes Classes to print
+     */
+    private static void printClassList(String label, List<Classroom> classes) {
+        if (classes.isEmpty()) {
+            System.out.println(label + ": no classes");
+            return;
+        }
+        StringBuilder line = new StringBuilder(label).append(": ");
+        for (int i = 0; i < classes.size(); i++) {
+            if (i > 0) {
+                line.append(", ");
+            }
+            Classroom c = classes.get(i);
+            line.append(c.getClassName()).append(" (ID=").append(c.getId()).append(')');
+        }
+        System.out.println(line);
+    }
+
     /**
      * Helper method to safely read integer input
      * 
@@ -697,18 +1199,14 @@ public class CollegeManagementSystem {
     /**
      * Helper method to find a student by ID
      * 
-     * CONCEPT DEMONSTRATED: LINEAR SEARCH
-     * - Searches through ArrayList to find matching ID
+     * CONCEPT DEMONSTRATED: HASHING
+     * - Looks the ID up in the repository's hash index (no list scan)
      * 
      * @param id The student ID to search for
      * @return Student object if found, null otherwise
      */
     private static Student findStudentById(int id) {
-        for (Student s : students) {
-            if (s.getId() == id)
-                return s;
-        }
-        return null;
+        return students.get(id);
     }
 
     /**
@@ -718,11 +1216,7 @@ public class CollegeManagementSystem {
      * @return Teacher object if found, null otherwise
      */
     private static Teacher findTeacherById(int id) {
-        for (Teacher t : teachers) {
-            if (t.getId() == id)
-                return t;
-        }
-        return null;
+        return teachers.get(id);
     }
 
     /**
@@ -732,10 +1226,6 @@ public class CollegeManagementSystem {
      * @return Classroom object if found, null otherwise
      */
     private static Classroom findClassroomById(int id) {
-        for (Classroom c : classrooms) {
-            if (c.getId() == id)
-                return c;
-        }
-        return null;
+        return classrooms.get(id);
     }
 }
@@ -0,0 +1,78 @@
+package com.college.main;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.Page;
+import com.college.util.ConsoleTable;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * CLASS: ListingPrinter
+ * 
+ * Prints one page of a sorted listing as a table. Used by the list menu
+ * options and by the list-... batch commands.
+ * 
+ * Each kind of record has one printer, which knows the column titles and
+ * widths and how to put a record's fields into the cells of a row.
+ * 
+ * @param <T> Type of the printed records
+ */
+final class ListingPrinter<T> {
+
+    static final ListingPrinter<Student> STUDENTS = new ListingPrinter<>("Students",
+            new String[] { "ID", "Name", "Age", "Course" }, new int[] { 8, 30, 4, 0 },
+            (table, s) -> table.cell(s.getId()).cell(s.getName()).cell(s.getAge()).cell(s.getCourse()));
+
+    static final ListingPrinter<Teacher> TEACHERS = new ListingPrinter<>("Teachers",
+            new String[] { "ID", "Name", "Subject" }, new int[] { 8, 30, 0 },
+            (table, t) -> table.cell(t.getId()).cell(t.getName()).cell(t.getSubject()));
+
+    static final ListingPrinter<Classroom> CLASSES = new ListingPrinter<>("Classes",
+            new String[] { "ID", "Name", "Teacher", "Students" }, new int[] { 8, 24, 30, 0 },
+            (table, c) -> table.cell(c.getId()).cell(c.getClassName())
+                    .cell(c.getTeacher() == null ? null : c.getTeacher().getName())
+                    .cell(c.getStudentCount()));
+
+    private final String kind;
+    private final String[] titles;
+    private final int[] widths;
+    private final BiConsumer<ConsoleTable, T> cells;
+
+    private ListingPrinter(String kind, String[] titles, int[] widths, BiConsumer<ConsoleTable, T> cells) {
+        this.kind = kind;
+        this.titles = titles;
+        this.widths = widths;
+        this.cells = cells;
+    }
+
+    /**
+     * @return A table with this printer's columns; reuse it for every page
+     */
+    ConsoleTable newTable() {
+        return new ConsoleTable(widths);
+    }
+
+    /**
+     * Prints a heading ("Students 1-20 of 500 (by name)") and the page
+     * 
+     * @param table Table from newTable()
+     * @param page  The page to print
+     * @param order Name of the sort order, shown in the heading
+     */
+    void print(ConsoleTable table, Page<T> page, String order) {
+        if (page.isEmpty()) {
+            System.out.println("No more " + kind.toLowerCase(Locale.ROOT) + ".");
+            return;
+        }
+        System.out.printf("%n--- %s %,d-%,d of %,d (by %s) ---%n", kind, page.getFirst() + 1,
+                page.getFirst() + page.getItems().size(), page.getTotal(), order);
+        table.header(titles);
+        for (T item : page.getItems()) {
+            cells.accept(table, item);
+            table.endRow();
+        }
+        table.flush();
+    }
+}
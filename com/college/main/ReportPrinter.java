@@ -0,0 +1,168 @@
+package com.college.main;
+
+import com.college.report.EnrollmentReport;
+import com.college.report.EnrollmentReport.ClassSize;
+import com.college.report.EnrollmentReport.TeacherLoad;
+import com.college.report.ReportEngine;
+import com.college.repository.DataSnapshot;
+import com.college.repository.DataStore;
+import com.college.repository.StoreCounters;
+import com.college.util.ConsoleTable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CLASS: ReportPrinter
+ * 
+ * Prints the enrollment report as tables. Used by the Reports menu option
+ * and by the report batch command.
+ * 
+ * The report is computed in parallel and then once more by the sequential
+ * reference; both timings are shown, together with whether the two results
+ * are identical.
+ */
+final class ReportPrinter {
+
+    // Teachers listed as the busiest
+    private static final int BUSIEST_TEACHERS = 10;
+    // Empty classes listed by ID; the rest are only counted
+    private static final int EMPTY_CLASSES_LISTED = 20;
+    // Length of the longest bar of the age histogram
+    private static final int BAR_WIDTH = 40;
+
+    private ReportPrinter() {
+    }
+
+    /**
+     * Computes the report of the store's current data and prints it
+     * 
+     * @param store  The data
+     * @param engine Computes the report
+     */
+    static void print(DataStore store, ReportEngine engine) {
+        DataSnapshot snapshot = store.snapshot();
+        EnrollmentReport report = engine.parallel(store, snapshot);
+        EnrollmentReport reference = engine.sequential(snapshot);
+
+        System.out.printf(Locale.ROOT, "%n--- Enrollment Report: %,d students, %,d teachers, %,d classes, "
+                + "%,d enrollments ---%n", report.getStudentCount(), report.getTeacherCount(),
+                report.getClassCount(), report.getEnrollmentCount());
+        printCourses(report);
+        printAges(report);
+        printTeachers(report);
+        printClasses(report);
+
+        System.out.println("\nTimings");
+        System.out.println("  Parallel (fork/join, parallelism " + engine.getParallelism() + "): "
+                + report.getTimings());
+        System.out.println("  Sequential reference: " + reference.getTimings());
+        System.out.println("  Results identical: " + (report.equals(reference) ? "yes" : "NO"));
+        printCounters(store);
+    }
+
+    /**
+     * Reads the store's running counters and checks them against a full
+     * recomputation
+     */
+    private static void printCounters(DataStore store) {
+        long start = System.nanoTime();
+        StoreCounters counters = store.getCounters();
+        int students = counters.getStudentCount();
+        int courses = counters.getStudentsPerCourse().size();
+        int enrollments = counters.getEnrollmentCount();
+        long read = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<String> differences = store.checkCounters();
+        long check = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "  Running counters (%,d students in %d courses, %,d enrollments): "
+                + "read in %d us, recomputed in %d ms%n", students, courses, enrollments, read / 1000,
+                check / 1000000);
+        if (differences.isEmpty()) {
+            System.out.println("  Counters match the recomputation: yes");
+        } else {
+            System.out.println("  Counters match the recomputation: NO, " + differences.size() + " differences:");
+            for (String difference : differences.subList(0, Math.min(10, differences.size()))) {
+                System.out.println("    " + difference);
+            }
+        }
+    }
+
+    private static void printCourses(EnrollmentReport report) {
+        System.out.println("\nStudents per course");
+        ConsoleTable table = new ConsoleTable(30, 10, 0);
+        table.header("Course", "Students", "Share");
+        for (Map.Entry<String, Integer> e : report.getStudentsPerCourse().entrySet()) {
+            table.cell(e.getKey()).cell(e.getValue())
+                    .cell(String.format(Locale.ROOT, "%.1f%%", 100.0 * e.getValue() / report.getStudentCount()))
+                    .endRow();
+        }
+        table.flush();
+    }
+
+    private static void printAges(EnrollmentReport report) {
+        System.out.println("\nStudents by age");
+        int[] histogram = report.getAgeHistogram();
+        int most = 0;
+        for (int count : histogram) {
+            most = Math.max(most, count);
+        }
+        ConsoleTable table = new ConsoleTable(4, 10, 0);
+        table.header("Age", "Students", "");
+        StringBuilder bar = new StringBuilder(BAR_WIDTH);
+        for (int age = 0; age < histogram.length; age++) {
+            if (histogram[age] == 0) {
+                continue;
+            }
+            bar.setLength(0);
+            for (int i = (int) ((long) histogram[age] * BAR_WIDTH / most); i > 0; i--) {
+                bar.append('#');
+            }
+            table.cell(age).cell(histogram[age]).cell(bar.toString()).endRow();
+        }
+        table.flush();
+    }
+
+    private static void printTeachers(EnrollmentReport report) {
+        List<TeacherLoad> busiest = new ArrayList<>(report.getTeacherLoads());
+        busiest.sort(Comparator.comparingInt(TeacherLoad::getStudents).reversed()
+                .thenComparingInt(TeacherLoad::getTeacherId));
+        int idle = 0;
+        for (TeacherLoad load : busiest) {
+            if (load.getClasses() == 0) {
+                idle++;
+            }
+        }
+        System.out.printf(Locale.ROOT, "%nBusiest teachers (%,d teachers have no class)%n", idle);
+        ConsoleTable table = new ConsoleTable(8, 30, 8, 0);
+        table.header("ID", "Name", "Classes", "Students");
+        for (TeacherLoad load : busiest.subList(0, Math.min(BUSIEST_TEACHERS, busiest.size()))) {
+            table.cell(load.getTeacherId()).cell(load.getName()).cell(load.getClasses()).cell(load.getStudents())
+                    .endRow();
+        }
+        table.flush();
+    }
+
+    private static void printClasses(EnrollmentReport report) {
+        System.out.println("\nLargest classes");
+        ConsoleTable table = new ConsoleTable(8, 30, 0);
+        table.header("ID", "Name", "Students");
+        for (ClassSize c : report.getLargestClasses()) {
+            table.cell(c.getClassId()).cell(c.getName()).cell(c.getStudents()).endRow();
+        }
+        table.flush();
+
+        List<ClassSize> empty = report.getEmptyClasses();
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT, "%nEmpty classes: %,d", empty.size()));
+        for (int i = 0; i < Math.min(EMPTY_CLASSES_LISTED, empty.size()); i++) {
+            line.append(i == 0 ? " (IDs " : ", ").append(empty.get(i).getClassId());
+        }
+        if (!empty.isEmpty()) {
+            line.append(empty.size() > EMPTY_CLASSES_LISTED ? ", ...)" : ")");
+        }
+        System.out.println(line);
+    }
+}
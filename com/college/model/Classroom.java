@@ -1,7 +1,10 @@
 package com.college.model;
 
+import com.college.interfaces.ChangeObserver;
 import com.college.interfaces.Manageable;
-import java.util.ArrayList; // Import ArrayList collection
+import com.college.util.IntObjectMap;
+import com.college.util.StringDictionary;
+import java.util.Collection;
 
 /**
  * CLASS: Classroom
@@ -12,32 +15,67 @@ import java.util.ArrayList; // Import ArrayList collection
  * Manageable
  * 
  * CONCEPT DEMONSTRATED: COLLECTIONS
- * - Uses ArrayList to store multiple Student objects
- * - ArrayList is a dynamic array that can grow/shrink as needed
+ * - Enrolled students are kept in an IntObjectMap keyed by student ID
+ * - Checking, adding and removing a student takes constant time, even for
+ * lecture halls with thousands of students
+ * - Students are still listed in the order they were enrolled
+ * 
+ * CONCEPT DEMONSTRATED: DICTIONARY ENCODING
+ * - The class name is stored as its code in CLASS_NAMES, so classes with the
+ * same name share one String
+ * 
+ * CONCEPT DEMONSTRATED: MEMOIZATION (RENDER CACHE)
+ * - getInfo() keeps the text it builds and returns it again until the class
+ * changes: setClassName, setTeacher, addStudent and removeStudent clear it
+ * - The text shows the teacher's name, which can change without the class
+ * knowing. The cache remembers which name String it was built with and is
+ * rebuilt when the teacher's name is a different String; comparing two
+ * references is enough, because setName stores the new String.
+ * - The text and that name are kept together in one immutable Info object,
+ * published through one field, so a reader never pairs the name of one
+ * render with the text of another
  */
 public class Classroom implements Manageable {
 
+    /**
+     * The text made by getInfo() and the teacher's name it shows
+     */
+    private static final class Info {
+        final String text;
+        final String teacherName;
+
+        Info(String text, String teacherName) {
+            this.text = text;
+            this.teacherName = teacherName;
+        }
+    }
+
+    /** Every class name in use, shared by all classrooms */
+    public static final StringDictionary CLASS_NAMES = new StringDictionary();
+
     // Fields
     // CONCEPT: ENCAPSULATION - private fields
     private int id; // Unique identifier for the classroom
-    private String className; // Name of the class (e.g., "Math 101")
+    private int className; // Code of the name of the class (e.g., "Math 101") in CLASS_NAMES
     private Teacher teacher; // The teacher assigned to this class
-    private ArrayList<Student> students; // List of students in this class
+    private IntObjectMap<Student> students; // Enrolled students, keyed by student ID
+    private ChangeObserver observer; // Told when the class name changes
+    private Info info; // Made by the last getInfo(); null after a change
 
     /**
      * CONSTRUCTOR
      * 
      * CONCEPT DEMONSTRATED: CONSTRUCTORS
      * - Initializes all fields when creating a new Classroom object
-     * - students ArrayList is initialized as empty
+     * - students map is initialized as empty
      * 
      * @param id        Classroom ID
      * @param className Name of the class
      */
     public Classroom(int id, String className) {
         this.id = id;
-        this.className = className;
-        this.students = new ArrayList<>(); // Initialize empty list
+        this.className = CLASS_NAMES.encode(className);
+        this.students = new IntObjectMap<>(); // Initialize empty enrollment
         this.teacher = null; // No teacher assigned initially
     }
 
@@ -50,31 +88,61 @@ public class Classroom implements Manageable {
      */
     public void setTeacher(Teacher teacher) {
         this.teacher = teacher;
+        info = null;
     }
 
     /**
      * Adds a student to this classroom
      * 
      * CONCEPT DEMONSTRATED: COLLECTIONS
-     * - Uses ArrayList's add() method to add a student to the list
+     * - Uses the map's putIfAbsent() so a student can only be enrolled once
      * 
      * @param student The student to add
+     * @return true if added, false if the student was already in the class
      */
-    public void addStudent(Student student) {
-        students.add(student);
+    public boolean addStudent(Student student) {
+        if (!students.putIfAbsent(student.getId(), student)) {
+            return false;
+        }
+        info = null; // The count has changed
+        return true;
     }
 
     /**
      * Removes a student from this classroom
      * 
-     * CONCEPT DEMONSTRATED: COLLECTIONS & LAMBDA EXPRESSIONS
-     * - Uses removeIf() method with a lambda expression
-     * - Lambda: s -> s.getId() == studentId (checks if student ID matches)
+     * CONCEPT DEMONSTRATED: COLLECTIONS
+     * - Removes the student by ID in constant time (no list scan or shifting)
      * 
      * @param studentId The ID of the student to remove
+     * @return true if removed, false if the student was not in the class
      */
-    public void removeStudent(int studentId) {
-        students.removeIf(s -> s.getId() == studentId);
+    public boolean removeStudent(int studentId) {
+        if (students.remove(studentId) == null) {
+            return false;
+        }
+        info = null; // The count has changed
+        return true;
+    }
+
+    /**
+     * Checks whether a student is enrolled in this classroom
+     * 
+     * @param studentId The student ID to look for
+     * @return true if the student is in the class
+     */
+    public boolean hasStudent(int studentId) {
+        return students.containsKey(studentId);
+    }
+
+    /**
+     * Finds an enrolled student by ID
+     * 
+     * @param studentId The student ID to look for
+     * @return The student, or null if not in the class
+     */
+    public Student getStudent(int studentId) {
+        return students.get(studentId);
     }
 
     // GETTERS AND SETTERS
@@ -95,6 +163,16 @@ public class Classroom implements Manageable {
      * @return The class name
      */
     public String getClassName() {
+        return CLASS_NAMES.decode(className);
+    }
+
+    /**
+     * Getter for the class name code: classes have the same name exactly when
+     * their codes are equal
+     * 
+     * @return Code of the class name in CLASS_NAMES
+     */
+    public int getClassNameCode() {
         return className;
     }
 
@@ -104,7 +182,30 @@ public class Classroom implements Manageable {
      * @param className The new class name
      */
     public void setClassName(String className) {
-        this.className = className;
+        String old = getClassName();
+        int code = CLASS_NAMES.encode(className);
+        if (code == this.className) {
+            return;
+        }
+        if (observer != null) {
+            observer.changing(this); // Before the new name is visible
+        }
+        this.className = code;
+        info = null;
+        if (observer != null) {
+            observer.changed(this, "className", old);
+        }
+    }
+
+    /**
+     * Registers the object that is told when the class name changes (the
+     * DataStore does this when the classroom is added). Teacher and student
+     * changes go through the DataStore itself.
+     * 
+     * @param observer The observer, or null to stop notifying
+     */
+    public void setObserver(ChangeObserver observer) {
+        this.observer = observer;
     }
 
     /**
@@ -119,10 +220,20 @@ public class Classroom implements Manageable {
     /**
      * Getter for students list
      * 
-     * @return The list of students in this classroom
+     * The view is live: iterate it under DataStore.withReadLock, or read the
+     * class from DataStore.snapshot() to iterate without a lock.
+     * 
+     * @return Read-only view of the enrolled students, in enrollment order
+     */
+    public Collection<Student> getStudents() {
+        return students.values();
+    }
+
+    /**
+     * @return Number of students enrolled in this classroom
      */
-    public ArrayList<Student> getStudents() {
-        return students;
+    public int getStudentCount() {
+        return students.size();
     }
 
     /**
@@ -132,13 +243,21 @@ public class Classroom implements Manageable {
      * - This method is required because Classroom implements Manageable interface
      * - Must provide the body for this method
      * 
+     * The text is built once and reused until the class or its teacher's
+     * name changes.
+     * 
      * @return String containing classroom information
      */
     @Override
     public String getInfo() {
         String teacherName = (teacher != null) ? teacher.getName() : "None";
-        return "Classroom [ID=" + id + ", Name=" + className + ", Teacher=" + teacherName
-                + ", Students Count=" + students.size() + "]";
+        Info cached = info;
+        if (cached == null || cached.teacherName != teacherName) {
+            cached = new Info("Classroom [ID=" + id + ", Name=" + getClassName() + ", Teacher=" + teacherName
+                    + ", Students Count=" + students.size() + "]", teacherName);
+            info = cached;
+        }
+        return cached.text;
     }
 
     /**
@@ -1,5 +1,8 @@
 package com.college.model;
 
+import com.college.interfaces.ChangeObserver;
+import java.util.Objects;
+
 /**
  * ABSTRACT CLASS: Person
  * 
@@ -16,6 +19,14 @@ package com.college.model;
  * - Abstract classes cannot be instantiated (you can't do: new Person())
  * - They can have abstract methods (methods without implementation)
  * - Subclasses must implement all abstract methods
+ * 
+ * CONCEPT DEMONSTRATED: MEMOIZATION (RENDER CACHE)
+ * - getDetails() builds its text once and keeps it; printing the same
+ * person again (a listing, a search, a view) returns the same String
+ * without concatenating anything
+ * - Every setter that changes a value clears the kept text, so the next
+ * getDetails() builds it again from the new values
+ * - The text is only kept for people that were actually printed
  */
 public abstract class Person {
 
@@ -23,6 +34,8 @@ public abstract class Person {
     // CONCEPT: ENCAPSULATION - using protected access modifier
     protected int id; // Unique identifier for the person
     protected String name; // Name of the person
+    private ChangeObserver observer; // Told about every change made by a setter
+    private String details; // Text made by the last getDetails(); null after a change
 
     /**
      * CONSTRUCTOR
@@ -60,6 +73,7 @@ public abstract class Person {
      */
     public void setId(int id) {
         this.id = id;
+        details = null;
     }
 
     /**
@@ -77,7 +91,69 @@ public abstract class Person {
      * @param name The new name value
      */
     public void setName(String name) {
+        String old = this.name;
+        if (Objects.equals(old, name)) {
+            return;
+        }
+        fireChanging();
         this.name = name;
+        fireChanged("name", old);
+    }
+
+    /**
+     * Registers the object that is told about changes to this person (the
+     * DataStore does this when the person is added)
+     * 
+     * CONCEPT DEMONSTRATED: OBSERVER PATTERN
+     * 
+     * @param observer The observer, or null to stop notifying
+     */
+    public void setObserver(ChangeObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Tells the observer (if any) that a property is about to change. Called
+     * by the setters of Person and its subclasses before the new value is
+     * set, and only if it differs from the old one; the DataStore takes its
+     * write lock here, so no reader sees the new value before the indexes.
+     * Must be followed by fireChanged().
+     */
+    protected void fireChanging() {
+        if (observer != null) {
+            observer.changing(this);
+        }
+    }
+
+    /**
+     * Clears the cached details and tells the observer (if any) that a
+     * property has changed. Called by the setters of Person and its
+     * subclasses, after the new value is set.
+     * 
+     * @param property Name of the property
+     * @param oldValue Value before the change
+     */
+    protected void fireChanged(String property, Object oldValue) {
+        details = null;
+        if (observer != null) {
+            observer.changed(this, property, oldValue);
+        }
+    }
+
+    /**
+     * Returns the person's details, e.g. "Student [ID=1, Name=Ann, ...]".
+     * The text is made by formatDetails() on the first call and reused until
+     * a setter changes the person.
+     * 
+     * @return A string containing the person's details
+     */
+    public String getDetails() {
+        String text = details;
+        if (text == null) {
+            text = formatDetails();
+            details = text;
+        }
+        return text;
     }
 
     /**
@@ -86,13 +162,13 @@ public abstract class Person {
      * CONCEPT DEMONSTRATED: ABSTRACT METHODS
      * - This method has no body (no implementation)
      * - Any class that extends Person MUST implement this method
-     * - This ensures all Person subclasses have a way to get their details
+     * - This ensures all Person subclasses have a way to show their details
      * 
      * CONCEPT DEMONSTRATED: POLYMORPHISM
      * - Different subclasses will implement this differently
      * - Student will return student details, Teacher will return teacher details
      * 
-     * @return A string containing the person's details
+     * @return A new string containing the person's details
      */
-    public abstract String getDetails();
+    protected abstract String formatDetails();
 }
@@ -1,5 +1,7 @@
 package com.college.model;
 
+import com.college.util.StringDictionary;
+
 /**
  * CLASS: Student
  * 
@@ -9,15 +11,22 @@ package com.college.model;
  * - Student can use all public/protected methods from Person
  * 
  * CONCEPT DEMONSTRATED: METHOD OVERRIDING
- * - Student overrides the abstract getDetails() method from Person
+ * - Student overrides the abstract formatDetails() method from Person
  * - Student also overrides toString() method from Object class
+ * 
+ * CONCEPT DEMONSTRATED: DICTIONARY ENCODING
+ * - The course is stored as its code in COURSES, shared by all students, so
+ * thousands of students of one course share a single String
  */
 public class Student extends Person {
 
+    /** Every course name in use, shared by all students */
+    public static final StringDictionary COURSES = new StringDictionary();
+
     // Additional fields specific to Student
     // CONCEPT: ENCAPSULATION - private fields cannot be accessed directly
     private int age; // Age of the student
-    private String course; // Course or Class name (REQUIREMENT: Each student must have a course/class)
+    private int course; // Code of the course or class name in COURSES (REQUIREMENT: Each student must have a course/class)
 
     /**
      * CONSTRUCTOR
@@ -35,7 +44,7 @@ public class Student extends Person {
     public Student(int id, String name, int age, String course) {
         super(id, name); // Call parent class constructor
         this.age = age;
-        this.course = course;
+        this.course = COURSES.encode(course);
     }
 
     // GETTERS AND SETTERS
@@ -56,7 +65,13 @@ public class Student extends Person {
      * @param age The new age value
      */
     public void setAge(int age) {
+        int old = this.age;
+        if (old == age) {
+            return;
+        }
+        fireChanging();
         this.age = age;
+        fireChanged("age", old);
     }
 
     /**
@@ -65,6 +80,16 @@ public class Student extends Person {
      * @return The student's course/class
      */
     public String getCourse() {
+        return COURSES.decode(course);
+    }
+
+    /**
+     * Getter for the course code: students have the same course exactly when
+     * their codes are equal
+     * 
+     * @return Code of the student's course in COURSES
+     */
+    public int getCourseCode() {
         return course;
     }
 
@@ -74,26 +99,33 @@ public class Student extends Person {
      * @param course The new course value
      */
     public void setCourse(String course) {
-        this.course = course;
+        String old = getCourse();
+        int code = COURSES.encode(course);
+        if (code == this.course) {
+            return;
+        }
+        fireChanging();
+        this.course = code;
+        fireChanged("course", old);
     }
 
     /**
      * METHOD OVERRIDING
      * 
      * CONCEPT DEMONSTRATED: METHOD OVERRIDING
-     * - This method overrides the abstract getDetails() method from Person class
+     * - This method overrides the abstract formatDetails() method from Person class
      * - @Override annotation ensures we're actually overriding a parent method
      * - Each subclass (Student, Teacher) provides its own implementation
      * 
      * CONCEPT DEMONSTRATED: POLYMORPHISM
-     * - When we call getDetails() on a Student object, this version runs
-     * - When we call getDetails() on a Teacher object, Teacher's version runs
+     * - When getDetails() is called on a Student object, this version runs
+     * - When getDetails() is called on a Teacher object, Teacher's version runs
      * 
      * @return String containing student details
      */
     @Override
-    public String getDetails() {
-        return "Student [ID=" + id + ", Name=" + name + ", Age=" + age + ", Course=" + course + "]";
+    protected String formatDetails() {
+        return "Student [ID=" + id + ", Name=" + name + ", Age=" + age + ", Course=" + getCourse() + "]";
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.college.model;
 
+import com.college.util.StringDictionary;
+
 /**
  * CLASS: Teacher
  * 
@@ -9,14 +11,20 @@ package com.college.model;
  * - Both Student and Teacher share common Person attributes
  * 
  * CONCEPT DEMONSTRATED: METHOD OVERRIDING
- * - Teacher overrides the abstract getDetails() method from Person
+ * - Teacher overrides the abstract formatDetails() method from Person
  * - Teacher also overrides toString() method from Object class
+ * 
+ * CONCEPT DEMONSTRATED: DICTIONARY ENCODING
+ * - The subject is stored as its code in SUBJECTS, shared by all teachers
  */
 public class Teacher extends Person {
 
+    /** Every subject name in use, shared by all teachers */
+    public static final StringDictionary SUBJECTS = new StringDictionary();
+
     // Additional field specific to Teacher
     // CONCEPT: ENCAPSULATION - private field
-    private String subject; // The subject the teacher teaches
+    private int subject; // Code of the subject the teacher teaches, in SUBJECTS
 
     /**
      * CONSTRUCTOR
@@ -32,7 +40,7 @@ public class Teacher extends Person {
      */
     public Teacher(int id, String name, String subject) {
         super(id, name); // Call parent class constructor
-        this.subject = subject;
+        this.subject = SUBJECTS.encode(subject);
     }
 
     // GETTERS AND SETTERS
@@ -44,6 +52,16 @@ public class Teacher extends Person {
      * @return The subject taught by the teacher
      */
     public String getSubject() {
+        return SUBJECTS.decode(subject);
+    }
+
+    /**
+     * Getter for the subject code: teachers have the same subject exactly
+     * when their codes are equal
+     * 
+     * @return Code of the subject in SUBJECTS
+     */
+    public int getSubjectCode() {
         return subject;
     }
 
@@ -53,25 +71,32 @@ public class Teacher extends Person {
      * @param subject The new subject value
      */
     public void setSubject(String subject) {
-        this.subject = subject;
+        String old = getSubject();
+        int code = SUBJECTS.encode(subject);
+        if (code == this.subject) {
+            return;
+        }
+        fireChanging();
+        this.subject = code;
+        fireChanged("subject", old);
     }
 
     /**
      * METHOD OVERRIDING
      * 
      * CONCEPT DEMONSTRATED: METHOD OVERRIDING
-     * - This method overrides the abstract getDetails() method from Person class
+     * - This method overrides the abstract formatDetails() method from Person class
      * - Teacher provides its own implementation different from Student
      * 
      * CONCEPT DEMONSTRATED: POLYMORPHISM
-     * - Same method name (getDetails) but different behavior for Student vs Teacher
+     * - Same method name (formatDetails) but different behavior for Student vs Teacher
      * - This is called runtime polymorphism
      * 
      * @return String containing teacher details
      */
     @Override
-    public String getDetails() {
-        return "Teacher [ID=" + id + ", Name=" + name + ", Subject=" + subject + "]";
+    protected String formatDetails() {
+        return "Teacher [ID=" + id + ", Name=" + name + ", Subject=" + getSubject() + "]";
     }
 
     /**
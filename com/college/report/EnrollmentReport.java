@@ -0,0 +1,231 @@
+package com.college.report;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+
+/**
+ * CLASS: EnrollmentReport
+ * 
+ * Statistics over all the data of one snapshot: students per course, an age
+ * histogram, the load of every teacher, and the largest and the empty
+ * classes. Made by ReportEngine; immutable.
+ * 
+ * Two reports are equal when all their figures are equal, whichever way they
+ * were computed (the timings are not compared).
+ */
+public final class EnrollmentReport {
+
+    /**
+     * How much one teacher teaches
+     */
+    public static final class TeacherLoad {
+        private final int teacherId;
+        private final String name;
+        private final int classes;
+        private final int students;
+
+        TeacherLoad(int teacherId, String name, int classes, int students) {
+            this.teacherId = teacherId;
+            this.name = name;
+            this.classes = classes;
+            this.students = students;
+        }
+
+        public int getTeacherId() {
+            return teacherId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Number of classes the teacher is assigned to
+         */
+        public int getClasses() {
+            return classes;
+        }
+
+        /**
+         * @return Total number of students in those classes (a student in two
+         *         of them counts twice)
+         */
+        public int getStudents() {
+            return students;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TeacherLoad)) {
+                return false;
+            }
+            TeacherLoad other = (TeacherLoad) o;
+            return teacherId == other.teacherId && classes == other.classes && students == other.students
+                    && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(teacherId, name, classes, students);
+        }
+    }
+
+    /**
+     * A class and its number of students
+     */
+    public static final class ClassSize {
+        private final int classId;
+        private final String name;
+        private final int students;
+
+        ClassSize(int classId, String name, int students) {
+            this.classId = classId;
+            this.name = name;
+            this.students = students;
+        }
+
+        public int getClassId() {
+            return classId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getStudents() {
+            return students;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ClassSize)) {
+                return false;
+            }
+            ClassSize other = (ClassSize) o;
+            return classId == other.classId && students == other.students && Objects.equals(name, other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classId, name, students);
+        }
+    }
+
+    private final long version;
+    private final int studentCount;
+    private final int enrollmentCount;
+    private final SortedMap<String, Integer> studentsPerCourse;
+    private final int[] ageHistogram;
+    private final List<TeacherLoad> teacherLoads;
+    private final List<ClassSize> largestClasses;
+    private final List<ClassSize> emptyClasses;
+    private final int classCount;
+    private final String timings;
+
+    EnrollmentReport(long version, int studentCount, SortedMap<String, Integer> studentsPerCourse,
+            int[] ageHistogram, List<TeacherLoad> teacherLoads, int classCount, int enrollmentCount,
+            List<ClassSize> largestClasses, List<ClassSize> emptyClasses, String timings) {
+        this.version = version;
+        this.studentCount = studentCount;
+        this.studentsPerCourse = Collections.unmodifiableSortedMap(studentsPerCourse);
+        this.ageHistogram = ageHistogram;
+        this.teacherLoads = Collections.unmodifiableList(teacherLoads);
+        this.classCount = classCount;
+        this.enrollmentCount = enrollmentCount;
+        this.largestClasses = Collections.unmodifiableList(largestClasses);
+        this.emptyClasses = Collections.unmodifiableList(emptyClasses);
+        this.timings = timings;
+    }
+
+    /**
+     * @return Version of the snapshot the report was computed from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public int getTeacherCount() {
+        return teacherLoads.size();
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * @return Sum of all class sizes
+     */
+    public int getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    /**
+     * @return Number of students per course, sorted by course
+     */
+    public SortedMap<String, Integer> getStudentsPerCourse() {
+        return studentsPerCourse;
+    }
+
+    /**
+     * @return Number of students of each age: index = age, up to the oldest
+     *         student's age (a copy)
+     */
+    public int[] getAgeHistogram() {
+        return ageHistogram.clone();
+    }
+
+    /**
+     * @return The load of every teacher, in teacher ID order
+     */
+    public List<TeacherLoad> getTeacherLoads() {
+        return teacherLoads;
+    }
+
+    /**
+     * @return The classes with the most students, largest first (equal sizes
+     *         by class ID)
+     */
+    public List<ClassSize> getLargestClasses() {
+        return largestClasses;
+    }
+
+    /**
+     * @return The classes without students, in class ID order
+     */
+    public List<ClassSize> getEmptyClasses() {
+        return emptyClasses;
+    }
+
+    /**
+     * @return How long each part took, e.g. "students 12 ms, teachers 3 ms,
+     *         ..."
+     */
+    public String getTimings() {
+        return timings;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof EnrollmentReport)) {
+            return false;
+        }
+        EnrollmentReport other = (EnrollmentReport) o;
+        return version == other.version && studentCount == other.studentCount && classCount == other.classCount
+                && enrollmentCount == other.enrollmentCount && studentsPerCourse.equals(other.studentsPerCourse)
+                && Arrays.equals(ageHistogram, other.ageHistogram) && teacherLoads.equals(other.teacherLoads)
+                && largestClasses.equals(other.largestClasses) && emptyClasses.equals(other.emptyClasses);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, studentCount, classCount, enrollmentCount, studentsPerCourse,
+                Arrays.hashCode(ageHistogram), teacherLoads, largestClasses, emptyClasses);
+    }
+}
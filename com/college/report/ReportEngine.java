@@ -0,0 +1,333 @@
+package com.college.report;
+
+import com.college.model.Student;
+import com.college.repository.DataSnapshot;
+import com.college.repository.DataSnapshot.ClassroomRecord;
+import com.college.repository.DataSnapshot.StudentRecord;
+import com.college.repository.DataSnapshot.TeacherRecord;
+import com.college.repository.DataStore;
+import com.college.repository.StudentColumns;
+import com.college.report.EnrollmentReport.ClassSize;
+import com.college.report.EnrollmentReport.TeacherLoad;
+import com.college.util.StageTimings;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * CLASS: ReportEngine
+ * 
+ * Computes an EnrollmentReport over all the data, either in parallel or
+ * sequentially. Both read one DataSnapshot, so the data cannot change while
+ * a report is computed and no lock is held.
+ * 
+ * CONCEPT DEMONSTRATED: FORK/JOIN PARALLELISM
+ * - Students are counted per course and per age by a RecursiveTask over the
+ * rows of StudentColumns: a task with many rows splits itself in two, forks
+ * one half and computes the other, until a part is small enough to count in
+ * a plain loop
+ * - Teachers and classes are processed with parallel streams, which split the
+ * list and run the parts on the same kind of ForkJoinPool
+ * - Idle worker threads steal forked parts from busy ones, so all cores stay
+ * busy even when the parts take different times
+ * 
+ * CONCEPT DEMONSTRATED: REDUCTION
+ * - Every part computes its own partial result (its own count arrays, its own
+ * top-10 list) and never writes to shared state, so no lock is needed
+ * - Partial results are combined two at a time (count arrays are added, two
+ * top lists are merged), and combining gives the same answer in any order.
+ * That is why the parallel report equals the sequential one exactly.
+ * 
+ * CONCEPT DEMONSTRATED: SEQUENTIAL REFERENCE
+ * - sequential() computes the same report in the most direct way: one loop
+ * over the Student records with a TreeMap, a full sort of all classes, and so
+ * on. It shares no code with the parallel path, so comparing the two checks
+ * the parallel one.
+ */
+public final class ReportEngine {
+
+    /** Number of largest classes in a report unless given */
+    public static final int DEFAULT_TOP = 10;
+
+    // Rows counted by one fork/join task without splitting further
+    private static final int LEAF_ROWS = 16 * 1024;
+
+    // Largest first; equal sizes by class ID
+    private static final Comparator<ClassroomRecord> LARGEST_FIRST = Comparator
+            .comparingInt(ClassroomRecord::getStudentCount).reversed()
+            .thenComparingInt(ClassroomRecord::getId);
+
+    private final ForkJoinPool pool;
+    private final int top;
+
+    /**
+     * An engine that uses the common ForkJoinPool and reports the 10 largest
+     * classes
+     */
+    public ReportEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TOP);
+    }
+
+    /**
+     * @param pool Pool to run the parallel parts in
+     * @param top  Number of largest classes to report
+     */
+    public ReportEngine(ForkJoinPool pool, int top) {
+        if (top < 0) {
+            throw new IllegalArgumentException("top must not be negative: " + top);
+        }
+        this.pool = pool;
+        this.top = top;
+    }
+
+    /**
+     * @return Number of threads the parallel parts run on
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // ==================== PARALLEL ====================
+
+    /**
+     * Computes the report in parallel
+     * 
+     * @param store    The store (provides the student columns)
+     * @param snapshot A snapshot of the store, usually store.snapshot()
+     * @return The report
+     */
+    public EnrollmentReport parallel(DataStore store, DataSnapshot snapshot) {
+        StageTimings timings = new StageTimings();
+        long start = System.nanoTime();
+
+        long t = System.nanoTime();
+        StudentColumns columns = store.studentColumns(snapshot);
+        timings.record("columns", System.nanoTime() - t);
+
+        t = System.nanoTime();
+        int[][] counts = pool.invoke(new StudentCount(columns, 0, columns.size(), columns.courseCount()));
+        SortedMap<String, Integer> perCourse = new TreeMap<>();
+        for (int code = 0; code < counts[0].length; code++) {
+            if (counts[0][code] > 0) {
+                perCourse.put(Student.COURSES.decode(code), counts[0][code]);
+            }
+        }
+        int[] histogram = trimmed(counts[1]);
+        timings.record("students", System.nanoTime() - t);
+
+        t = System.nanoTime();
+        List<TeacherRecord> teachers = toList(snapshot.getTeachers());
+        List<TeacherLoad> loads = pool.submit(() -> teachers.parallelStream()
+                .map(teacher -> loadOf(snapshot, teacher))
+                .collect(Collectors.toList())).join();
+        timings.record("teachers", System.nanoTime() - t);
+
+        t = System.nanoTime();
+        List<ClassroomRecord> classes = toList(snapshot.getClassrooms());
+        int enrollments = pool.submit(() -> classes.parallelStream()
+                .mapToInt(ClassroomRecord::getStudentCount).sum()).join();
+        List<ClassSize> largest = pool.submit(() -> classes.parallelStream()
+                .collect(Collector.of(() -> new TopClasses(top), TopClasses::add, TopClasses::merge,
+                        TopClasses::toList))).join();
+        List<ClassSize> empty = pool.submit(() -> classes.parallelStream()
+                .filter(c -> c.getStudentCount() == 0)
+                .map(ReportEngine::sizeOf)
+                .collect(Collectors.toList())).join();
+        timings.record("classes", System.nanoTime() - t);
+
+        timings.record("total", System.nanoTime() - start);
+        return new EnrollmentReport(snapshot.getVersion(), columns.size(), perCourse, histogram, loads,
+                classes.size(), enrollments, largest, empty, timings.toString());
+    }
+
+    /**
+     * Counts the students per course code ([0]) and per age ([1]) of a range
+     * of rows
+     */
+    private static final class StudentCount extends RecursiveTask<int[][]> {
+        private static final long serialVersionUID = 1L;
+
+        private final StudentColumns columns;
+        private final int from;
+        private final int to;
+        private final int courseCount;
+
+        StudentCount(StudentColumns columns, int from, int to, int courseCount) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.courseCount = courseCount;
+        }
+
+        @Override
+        protected int[][] compute() {
+            if (to - from <= LEAF_ROWS) {
+                int[] perCourse = new int[courseCount];
+                int[] perAge = new int[128];
+                for (int row = from; row < to; row++) {
+                    perCourse[columns.courseCode(row)]++;
+                    int age = columns.age(row);
+                    if (age >= perAge.length) {
+                        perAge = Arrays.copyOf(perAge, Math.max(age + 1, perAge.length * 2));
+                    }
+                    perAge[age]++;
+                }
+                return new int[][] { perCourse, perAge };
+            }
+            int middle = (from + to) >>> 1;
+            StudentCount left = new StudentCount(columns, from, middle, courseCount);
+            left.fork();
+            int[][] right = new StudentCount(columns, middle, to, courseCount).compute();
+            int[][] result = left.join();
+            return new int[][] { add(result[0], right[0]), add(result[1], right[1]) };
+        }
+
+        private static int[] add(int[] a, int[] b) {
+            int[] sum = a.length >= b.length ? a : b;
+            int[] other = sum == a ? b : a;
+            for (int i = 0; i < other.length; i++) {
+                sum[i] += other[i];
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * The n largest classes seen so far, kept in a heap whose top is the
+     * smallest of them
+     */
+    private static final class TopClasses {
+        private final int n;
+        private final PriorityQueue<ClassroomRecord> heap;
+
+        TopClasses(int n) {
+            this.n = n;
+            this.heap = new PriorityQueue<>(Math.max(1, n + 1), LARGEST_FIRST.reversed());
+        }
+
+        void add(ClassroomRecord c) {
+            heap.offer(c);
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+
+        TopClasses merge(TopClasses other) {
+            for (ClassroomRecord c : other.heap) {
+                add(c);
+            }
+            return this;
+        }
+
+        List<ClassSize> toList() {
+            List<ClassroomRecord> sorted = new ArrayList<>(heap);
+            sorted.sort(LARGEST_FIRST);
+            List<ClassSize> result = new ArrayList<>(sorted.size());
+            for (ClassroomRecord c : sorted) {
+                result.add(sizeOf(c));
+            }
+            return result;
+        }
+    }
+
+    // ==================== SEQUENTIAL REFERENCE ====================
+
+    /**
+     * Computes the report with plain loops on the calling thread
+     * 
+     * @param snapshot The data
+     * @return The report
+     */
+    public EnrollmentReport sequential(DataSnapshot snapshot) {
+        StageTimings timings = new StageTimings();
+        long start = System.nanoTime();
+
+        long t = System.nanoTime();
+        SortedMap<String, Integer> perCourse = new TreeMap<>();
+        int[] perAge = new int[0];
+        int students = 0;
+        for (StudentRecord s : snapshot.getStudents()) {
+            perCourse.merge(s.getCourse(), 1, Integer::sum);
+            if (s.getAge() >= perAge.length) {
+                perAge = Arrays.copyOf(perAge, s.getAge() + 1);
+            }
+            perAge[s.getAge()]++;
+            students++;
+        }
+        timings.record("students", System.nanoTime() - t);
+
+        t = System.nanoTime();
+        List<TeacherLoad> loads = new ArrayList<>();
+        for (TeacherRecord teacher : snapshot.getTeachers()) {
+            loads.add(loadOf(snapshot, teacher));
+        }
+        timings.record("teachers", System.nanoTime() - t);
+
+        t = System.nanoTime();
+        List<ClassroomRecord> all = new ArrayList<>();
+        List<ClassSize> empty = new ArrayList<>();
+        int enrollments = 0;
+        for (ClassroomRecord c : snapshot.getClassrooms()) {
+            all.add(c);
+            enrollments += c.getStudentCount();
+            if (c.getStudentCount() == 0) {
+                empty.add(sizeOf(c));
+            }
+        }
+        all.sort(LARGEST_FIRST);
+        List<ClassSize> largest = new ArrayList<>();
+        for (ClassroomRecord c : all.subList(0, Math.min(top, all.size()))) {
+            largest.add(sizeOf(c));
+        }
+        timings.record("classes", System.nanoTime() - t);
+
+        timings.record("total", System.nanoTime() - start);
+        return new EnrollmentReport(snapshot.getVersion(), students, perCourse, perAge, loads, all.size(),
+                enrollments, largest, empty, timings.toString());
+    }
+
+    // ==================== HELPERS ====================
+
+    private static TeacherLoad loadOf(DataSnapshot snapshot, TeacherRecord teacher) {
+        int[] classIds = teacher.getClassIds();
+        int students = 0;
+        for (int id : classIds) {
+            ClassroomRecord c = snapshot.classroom(id);
+            if (c != null) {
+                students += c.getStudentCount();
+            }
+        }
+        return new TeacherLoad(teacher.getId(), teacher.getName(), classIds.length, students);
+    }
+
+    private static ClassSize sizeOf(ClassroomRecord c) {
+        return new ClassSize(c.getId(), c.getClassName(), c.getStudentCount());
+    }
+
+    private static <T> List<T> toList(Iterable<T> items) {
+        List<T> list = new ArrayList<>();
+        for (T item : items) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    /**
+     * @return The histogram without the zeros after the oldest age
+     */
+    private static int[] trimmed(int[] histogram) {
+        int length = histogram.length;
+        while (length > 0 && histogram[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(histogram, length);
+    }
+}
@@ -0,0 +1,209 @@
+package com.college.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * CLASS: ChunkedSortedList
+ * 
+ * A sorted list that stays sorted while elements are added and removed, for
+ * the orders of a SortedListing.
+ * 
+ * CONCEPT DEMONSTRATED: CHUNKED SORTED LIST
+ * - One sorted array would need every element after the insert position
+ * moved for each insert (O(n)); sorting again after each change is
+ * O(n log n)
+ * - Here the elements are kept in order in chunks of at most MAX_CHUNK
+ * elements. An insert or removal binary-searches the chunks by their last
+ * element, then the chunk itself, and only moves elements inside that one
+ * chunk: O(log n + MAX_CHUNK)
+ * - A full chunk is split in two; an empty chunk is dropped
+ * - The position of an element in the whole list is the sum of the sizes of
+ * the chunks before it (n / MAX_CHUNK additions of ints)
+ * 
+ * Not thread-safe: the SortedListing changes it under the store's write lock
+ * and reads it under the read lock.
+ * 
+ * @param <T> Type of the elements
+ */
+final class ChunkedSortedList<T> {
+
+    private static final int MAX_CHUNK = 1024;
+
+    private final Comparator<? super T> order;
+    private Object[][] chunks;
+    private int[] sizes;
+    private int chunkCount;
+    private int size;
+
+    /**
+     * @param sorted Elements already sorted by order (not kept)
+     * @param order  Order of the elements; no two elements compare equal
+     */
+    ChunkedSortedList(T[] sorted, Comparator<? super T> order) {
+        this.order = order;
+        // Chunks start half full, so inserts split them only after a while
+        int perChunk = MAX_CHUNK / 2;
+        int count = Math.max(1, (sorted.length + perChunk - 1) / perChunk);
+        chunks = new Object[count + 16][];
+        sizes = new int[count + 16];
+        for (int i = 0; i < count; i++) {
+            int from = i * perChunk;
+            int n = Math.min(perChunk, sorted.length - from);
+            chunks[i] = new Object[MAX_CHUNK];
+            System.arraycopy(sorted, from, chunks[i], 0, n);
+            sizes[i] = n;
+        }
+        chunkCount = count;
+        size = sorted.length;
+    }
+
+    /**
+     * @return Number of elements
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Inserts an element at its place in the order
+     * 
+     * @param item An element that is not in the list
+     */
+    void add(T item) {
+        long at = locate(e -> order.compare(e, item) > 0);
+        int chunk = (int) (at >>> 32);
+        int offset = (int) at;
+        if (sizes[chunk] == MAX_CHUNK) {
+            split(chunk);
+            if (offset > sizes[chunk]) {
+                offset -= sizes[chunk];
+                chunk++;
+            }
+        }
+        Object[] elements = chunks[chunk];
+        System.arraycopy(elements, offset, elements, offset + 1, sizes[chunk] - offset);
+        elements[offset] = item;
+        sizes[chunk]++;
+        size++;
+    }
+
+    /**
+     * Removes an element. Its sort key must be the one it had when it was
+     * added, so it can be found.
+     * 
+     * @param item The element
+     * @return true if it was found and removed
+     */
+    boolean remove(T item) {
+        long at = locate(e -> order.compare(e, item) >= 0);
+        int chunk = (int) (at >>> 32);
+        int offset = (int) at;
+        Object[] elements = chunks[chunk];
+        if (offset == sizes[chunk] || elements[offset] != item) {
+            return false;
+        }
+        System.arraycopy(elements, offset + 1, elements, offset, sizes[chunk] - offset - 1);
+        elements[--sizes[chunk]] = null;
+        size--;
+        if (sizes[chunk] == 0 && chunkCount > 1) {
+            System.arraycopy(chunks, chunk + 1, chunks, chunk, chunkCount - chunk - 1);
+            System.arraycopy(sizes, chunk + 1, sizes, chunk, chunkCount - chunk - 1);
+            chunks[--chunkCount] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the elements that follow a cursor
+     * 
+     * @param after    true for the elements that sort after the cursor: false
+     *                 for a first part of the list, true for the rest
+     * @param pageSize Maximum number of elements to return
+     * @return The first pageSize elements for which after is true
+     */
+    Page<T> page(Predicate<? super T> after, int pageSize) {
+        long at = locate(after);
+        int chunk = (int) (at >>> 32);
+        int offset = (int) at;
+        int first = offset;
+        for (int i = 0; i < chunk; i++) {
+            first += sizes[i];
+        }
+        List<T> items = new ArrayList<>(Math.min(pageSize, size - first));
+        while (items.size() < pageSize && chunk < chunkCount) {
+            if (offset == sizes[chunk]) {
+                chunk++;
+                offset = 0;
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            T item = (T) chunks[chunk][offset++];
+            items.add(item);
+        }
+        return new Page<>(items, first, size);
+    }
+
+    /**
+     * Binary search, first over the chunks by their last element, then in the
+     * chunk found, for the first element for which after is true
+     * 
+     * @return Chunk index in the high 32 bits, offset in the chunk in the low
+     *         32 bits (the end of the last chunk if there is no such element)
+     */
+    private long locate(Predicate<? super T> after) {
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sizes[mid] > 0 && after.test(element(mid, sizes[mid] - 1))) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        if (low == chunkCount) {
+            return ((long) (chunkCount - 1) << 32) | sizes[chunkCount - 1];
+        }
+        int chunk = low;
+        low = 0;
+        high = sizes[chunk];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (after.test(element(chunk, mid))) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return ((long) chunk << 32) | low;
+    }
+
+    /**
+     * Moves the upper half of a full chunk into a new chunk right after it
+     */
+    private void split(int chunk) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            sizes = Arrays.copyOf(sizes, chunkCount * 2);
+        }
+        System.arraycopy(chunks, chunk + 1, chunks, chunk + 2, chunkCount - chunk - 1);
+        System.arraycopy(sizes, chunk + 1, sizes, chunk + 2, chunkCount - chunk - 1);
+        int half = MAX_CHUNK / 2;
+        Object[] upper = new Object[MAX_CHUNK];
+        System.arraycopy(chunks[chunk], half, upper, 0, MAX_CHUNK - half);
+        Arrays.fill(chunks[chunk], half, MAX_CHUNK, null);
+        chunks[chunk + 1] = upper;
+        sizes[chunk + 1] = MAX_CHUNK - half;
+        sizes[chunk] = half;
+        chunkCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(int chunk, int offset) {
+        return (T) chunks[chunk][offset];
+    }
+}
@@ -0,0 +1,19 @@
+package com.college.repository;
+
+import com.college.model.Classroom;
+
+/**
+ * CLASS: ClassroomRepository
+ * 
+ * Stores all classrooms in memory, indexed by classroom ID.
+ * 
+ * CONCEPT DEMONSTRATED: INHERITANCE
+ * - Extends the generic Repository class and only supplies the ID accessor
+ */
+public class ClassroomRepository extends Repository<Classroom> {
+
+    @Override
+    protected int idOf(Classroom classroom) {
+        return classroom.getId();
+    }
+}
@@ -0,0 +1,411 @@
+package com.college.repository;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.util.PersistentIntMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * CLASS: DataSnapshot
+ * 
+ * A frozen, consistent copy of all the data of a DataStore at one moment:
+ * every student, teacher and classroom and who is in which class. Get the
+ * latest one with DataStore.snapshot().
+ * 
+ * CONCEPT DEMONSTRATED: IMMUTABILITY
+ * - A snapshot and everything in it is immutable: the records below have only
+ * final fields and the collections are PersistentIntMaps and private arrays
+ * - So a snapshot can be read by any number of threads at the same time,
+ * iterated as slowly as needed and kept as long as needed, without a lock
+ * and without ever seeing a ConcurrentModificationException or a half-done
+ * change; later changes to the store create new snapshots instead
+ * 
+ * CONCEPT DEMONSTRATED: VERSIONING (MULTI-VERSION CONCURRENCY)
+ * - Every change to the store publishes a new snapshot with a higher version
+ * number; a reader keeps using the version it has
+ * - Consecutive versions share almost all of their memory (see
+ * PersistentIntMap): a change only copies the few trie nodes and records it
+ * touches
+ * 
+ * Relationships are stored on both sides as sorted ID arrays (a student's
+ * classes, a class's students, a teacher's classes); look the IDs up in the
+ * same snapshot.
+ * 
+ * Courses, subjects and class names are kept as their codes in the shared
+ * dictionaries (Student.COURSES, Teacher.SUBJECTS, Classroom.CLASS_NAMES), so
+ * a record is as small as the entity it copies.
+ */
+public final class DataSnapshot {
+
+    /**
+     * A student as they were when the snapshot was taken
+     */
+    public static final class StudentRecord {
+        private final int id;
+        private final String name;
+        private final int age;
+        private final int course;
+        private final int[] classIds;
+
+        StudentRecord(Student s, int[] classIds) {
+            this.id = s.getId();
+            this.name = s.getName();
+            this.age = s.getAge();
+            this.course = s.getCourseCode();
+            this.classIds = classIds;
+        }
+
+        private StudentRecord(StudentRecord old, int[] classIds) {
+            this.id = old.id;
+            this.name = old.name;
+            this.age = old.age;
+            this.course = old.course;
+            this.classIds = classIds;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public String getCourse() {
+            return Student.COURSES.decode(course);
+        }
+
+        /**
+         * @return Code of the course in Student.COURSES
+         */
+        public int getCourseCode() {
+            return course;
+        }
+
+        /**
+         * @return IDs of the classes the student is in, ascending (a copy)
+         */
+        public int[] getClassIds() {
+            return classIds.clone();
+        }
+
+        int[] getClassIdsShared() {
+            return classIds;
+        }
+
+        StudentRecord withClassIds(int[] ids) {
+            return new StudentRecord(this, ids);
+        }
+    }
+
+    /**
+     * A teacher as they were when the snapshot was taken
+     */
+    public static final class TeacherRecord {
+        private final int id;
+        private final String name;
+        private final int subject;
+        private final int[] classIds;
+
+        TeacherRecord(Teacher t, int[] classIds) {
+            this.id = t.getId();
+            this.name = t.getName();
+            this.subject = t.getSubjectCode();
+            this.classIds = classIds;
+        }
+
+        private TeacherRecord(TeacherRecord old, int[] classIds) {
+            this.id = old.id;
+            this.name = old.name;
+            this.subject = old.subject;
+            this.classIds = classIds;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSubject() {
+            return Teacher.SUBJECTS.decode(subject);
+        }
+
+        /**
+         * @return Code of the subject in Teacher.SUBJECTS
+         */
+        public int getSubjectCode() {
+            return subject;
+        }
+
+        /**
+         * @return IDs of the classes the teacher is assigned to, ascending
+         *         (a copy)
+         */
+        public int[] getClassIds() {
+            return classIds.clone();
+        }
+
+        int[] getClassIdsShared() {
+            return classIds;
+        }
+
+        TeacherRecord withClassIds(int[] ids) {
+            return new TeacherRecord(this, ids);
+        }
+    }
+
+    /**
+     * A classroom as it was when the snapshot was taken
+     */
+    public static final class ClassroomRecord {
+        private final int id;
+        private final int name;
+        // Any int is a valid teacher ID, so "no teacher" is a separate flag
+        private final boolean hasTeacher;
+        private final int teacherId;
+        private final int[] studentIds;
+
+        private ClassroomRecord(int id, int name, boolean hasTeacher, int teacherId, int[] studentIds) {
+            this.id = id;
+            this.name = name;
+            this.hasTeacher = hasTeacher;
+            this.teacherId = hasTeacher ? teacherId : 0;
+            this.studentIds = studentIds;
+        }
+
+        ClassroomRecord(Classroom c, int[] studentIds) {
+            this(c.getId(), c.getClassNameCode(), c.getTeacher() != null,
+                    c.getTeacher() == null ? 0 : c.getTeacher().getId(), studentIds);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getClassName() {
+            return Classroom.CLASS_NAMES.decode(name);
+        }
+
+        /**
+         * @return Code of the class name in Classroom.CLASS_NAMES
+         */
+        public int getClassNameCode() {
+            return name;
+        }
+
+        /**
+         * @return true if a teacher is assigned to the class
+         */
+        public boolean hasTeacher() {
+            return hasTeacher;
+        }
+
+        /**
+         * @return ID of the assigned teacher
+         * @throws IllegalStateException If the class has no teacher (see
+         *                               hasTeacher())
+         */
+        public int getTeacherId() {
+            if (!hasTeacher) {
+                throw new IllegalStateException("class " + id + " has no teacher");
+            }
+            return teacherId;
+        }
+
+        public int getStudentCount() {
+            return studentIds.length;
+        }
+
+        /**
+         * @param studentId A student ID
+         * @return true if the student is in this class (binary search)
+         */
+        public boolean hasStudent(int studentId) {
+            return Arrays.binarySearch(studentIds, studentId) >= 0;
+        }
+
+        /**
+         * @return IDs of the enrolled students, ascending (a copy)
+         */
+        public int[] getStudentIds() {
+            return studentIds.clone();
+        }
+
+        /**
+         * Calls the action with each enrolled student's ID, ascending, without
+         * copying the IDs
+         * 
+         * @param action Receives each ID
+         */
+        public void forEachStudentId(IntConsumer action) {
+            for (int studentId : studentIds) {
+                action.accept(studentId);
+            }
+        }
+
+        int[] getStudentIdsShared() {
+            return studentIds;
+        }
+
+        /**
+         * @param teacherId ID of the new teacher, or null for none
+         */
+        ClassroomRecord withTeacher(Integer teacherId) {
+            return new ClassroomRecord(id, name, teacherId != null, teacherId == null ? 0 : teacherId, studentIds);
+        }
+
+        ClassroomRecord withClassNameCode(int nameCode) {
+            return new ClassroomRecord(id, nameCode, hasTeacher, teacherId, studentIds);
+        }
+
+        ClassroomRecord withStudentIds(int[] ids) {
+            return new ClassroomRecord(id, name, hasTeacher, teacherId, ids);
+        }
+    }
+
+    static final DataSnapshot EMPTY = new DataSnapshot(0, PersistentIntMap.empty(), PersistentIntMap.empty(),
+            PersistentIntMap.empty());
+
+    private final long version;
+    private final PersistentIntMap<StudentRecord> students;
+    private final PersistentIntMap<TeacherRecord> teachers;
+    private final PersistentIntMap<ClassroomRecord> classrooms;
+
+    DataSnapshot(long version, PersistentIntMap<StudentRecord> students, PersistentIntMap<TeacherRecord> teachers,
+            PersistentIntMap<ClassroomRecord> classrooms) {
+        this.version = version;
+        this.students = students;
+        this.teachers = teachers;
+        this.classrooms = classrooms;
+    }
+
+    /**
+     * @return Number of the version; a later snapshot has a higher number
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param id Student ID
+     * @return The student, or null if there was none with that ID
+     */
+    public StudentRecord student(int id) {
+        return students.get(id);
+    }
+
+    /**
+     * @param id Teacher ID
+     * @return The teacher, or null if there was none with that ID
+     */
+    public TeacherRecord teacher(int id) {
+        return teachers.get(id);
+    }
+
+    /**
+     * @param id Classroom ID
+     * @return The classroom, or null if there was none with that ID
+     */
+    public ClassroomRecord classroom(int id) {
+        return classrooms.get(id);
+    }
+
+    /**
+     * @return All students, iterated in ID order
+     */
+    public PersistentIntMap<StudentRecord> getStudents() {
+        return students;
+    }
+
+    /**
+     * @return All teachers, iterated in ID order
+     */
+    public PersistentIntMap<TeacherRecord> getTeachers() {
+        return teachers;
+    }
+
+    /**
+     * @return All classrooms, iterated in ID order
+     */
+    public PersistentIntMap<ClassroomRecord> getClassrooms() {
+        return classrooms;
+    }
+
+    /**
+     * @param classroom A classroom of this snapshot
+     * @return Its students, in ID order
+     */
+    public List<StudentRecord> studentsOf(ClassroomRecord classroom) {
+        List<StudentRecord> result = new ArrayList<>(classroom.studentIds.length);
+        for (int id : classroom.studentIds) {
+            StudentRecord s = students.get(id);
+            if (s != null) {
+                result.add(s);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param ids Classroom IDs, e.g. from StudentRecord.getClassIds()
+     * @return The classrooms, in the order of the IDs
+     */
+    public List<ClassroomRecord> classrooms(int[] ids) {
+        List<ClassroomRecord> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            ClassroomRecord c = classrooms.get(id);
+            if (c != null) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    // ---- Sorted ID arrays, copied on change (shared by DataStore) ----
+
+    static final int[] NO_IDS = new int[0];
+
+    /**
+     * @return ids with id inserted in order (ids itself if already present)
+     */
+    static int[] withId(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        int[] result = new int[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    /**
+     * @return ids without id (ids itself if not present)
+     */
+    static int[] withoutId(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return NO_IDS;
+        }
+        int[] result = new int[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+}
@@ -0,0 +1,1258 @@
+package com.college.repository;
+
+import com.college.interfaces.ChangeObserver;
+import com.college.interfaces.StoreListener;
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataSnapshot.ClassroomRecord;
+import com.college.repository.DataSnapshot.StudentRecord;
+import com.college.repository.DataSnapshot.TeacherRecord;
+import com.college.util.PersistentIntMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * CLASS: DataStore
+ * 
+ * The in-memory database of the application: the three repositories plus the
+ * reverse indexes that link people to the classrooms they belong to.
+ * 
+ * CONCEPT DEMONSTRATED: ENCAPSULATION
+ * - Any change that touches more than one entity (enrolling a student,
+ * assigning a teacher, deleting a student who is in classes) goes through
+ * this class, so the classrooms and the reverse indexes never disagree
+ * - The repositories are exposed for lookups and listing
+ * 
+ * CONCEPT DEMONSTRATED: SECONDARY INDEXES
+ * - Students are also indexed by course and age, teachers by subject and
+ * classrooms by name (see SecondaryIndex), so "all students of Physics" does
+ * not need a scan of every student
+ * - Text values are indexed in lower case, so searches ignore case
+ * - Student and teacher names have a NameIndex for search by the start of a
+ * name or with typos; it is built on the first name search and kept up to
+ * date from then on
+ * - A setter that changes an indexed value (setCourse, setAge, setSubject,
+ * setClassName, setName) is reported to the store, which moves the entity in
+ * the index
+ * - Each repository also has a SortedListing for paged listings sorted by a
+ * chosen field
+ * 
+ * CONCEPT DEMONSTRATED: CASCADING DELETE
+ * - Deleting a student also removes them from every class they were in
+ * - Deleting a teacher un-assigns them from every class they taught
+ * - Both only visit the classes that person is in, found via the reverse index
+ * 
+ * CONCEPT DEMONSTRATED: THREAD SAFETY (READ-WRITE LOCK)
+ * - Several users (or a background job) can share one store: every method
+ * takes one ReentrantReadWriteLock, shared with the repositories
+ * - Queries and lookups take the read lock, so any number of them run at the
+ * same time; changes take the write lock and run alone
+ * - A change that touches several entities (enrolling a student, deleting a
+ * student from every class) holds the write lock from start to end, so
+ * nobody ever sees it half done
+ * - A setter of a stored entity takes the write lock too, before it assigns
+ * the new value (ChangeObserver.changing); to make several setters one
+ * change, call them inside withWriteLock. Iterating over a repository needs
+ * withReadLock, since the iterator cannot hold the lock.
+ * 
+ * CONCEPT DEMONSTRATED: IMMUTABLE SNAPSHOTS
+ * - snapshot() returns a frozen copy of all the data (see DataSnapshot) in
+ * O(1); it can be read and iterated without any lock, for as long as needed
+ * - Every change also updates the next snapshot, copying only the records it
+ * touches; when the outermost write lock is released, the new version is
+ * published with one volatile write, so readers see all of a change (e.g. a
+ * delete with its unenrollments) or none of it
+ * - getCounters() holds running totals (students per course, classes per
+ * teacher, ...) that every change adjusts in O(1), so a dashboard does not
+ * scan anything; checkCounters() compares them with a full recomputation
+ * - studentColumns() copies a snapshot's students into columns (see
+ * StudentColumns) for reports that scan every student; the copy is cached
+ * and kept in addition to the Student objects
+ * 
+ * CONCEPT DEMONSTRATED: OBSERVER PATTERN
+ * - Every change is announced to the registered StoreListeners (for example
+ * the change journal), in the order it happens
+ * - The store observes the students, teachers and classrooms it holds, so a
+ * change made through a setter (e.g. student.setCourse(...)) is announced too
+ * - Deleting a student or teacher is announced step by step: first each
+ * unenrollment or teacher removal, then the delete itself
+ */
+public class DataStore {
+
+    // Guards every entity, repository and index of this store; shared with
+    // the repositories so their own methods take it too
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StudentRepository students = new StudentRepository();
+    private final TeacherRepository teachers = new TeacherRepository();
+    private final ClassroomRepository classrooms = new ClassroomRepository();
+
+    // student ID -> classrooms the student is enrolled in
+    private final ReverseIndex studentClassrooms = new ReverseIndex();
+    // teacher ID -> classrooms the teacher is assigned to
+    private final ReverseIndex teacherClassrooms = new ReverseIndex();
+
+    // Secondary indexes for queries by value (text keys are lower case)
+    private final SecondaryIndex<String> studentsByCourse = new SecondaryIndex<>();
+    private final SecondaryIndex<Integer> studentsByAge = new SecondaryIndex<>();
+    private final SecondaryIndex<String> teachersBySubject = new SecondaryIndex<>();
+    private final SecondaryIndex<String> classroomsByName = new SecondaryIndex<>();
+    // Name indexes are built on the first name search (null until then), so
+    // loading is not slowed down for sessions that never search by name
+    private volatile NameIndex studentNames;
+    private volatile NameIndex teacherNames;
+    private final Object nameIndexBuild = new Object();
+
+    // Running totals, adjusted by every change
+    private final StoreCounters counters = new StoreCounters(lock);
+
+    // Sorted, paged listings (each order is sorted on first use)
+    private final SortedListing<Student> studentListing = new SortedListing<>(students)
+            .addIdOrder("id")
+            .addTextOrder("name", Student::getName)
+            .addNumberOrder("age", Student::getAge)
+            .addTextOrder("course", Student::getCourse);
+    private final SortedListing<Teacher> teacherListing = new SortedListing<>(teachers)
+            .addIdOrder("id")
+            .addTextOrder("name", Teacher::getName)
+            .addTextOrder("subject", Teacher::getSubject);
+    private final SortedListing<Classroom> classroomListing = new SortedListing<>(classrooms)
+            .addIdOrder("id")
+            .addTextOrder("name", Classroom::getClassName)
+            .addNumberOrder("size", Classroom::getStudentCount);
+
+    // The next snapshot, changed together with the repositories under the
+    // write lock and published when the outermost write lock is released
+    private PersistentIntMap.Builder<StudentRecord> nextStudents = new PersistentIntMap.Builder<>();
+    private PersistentIntMap.Builder<TeacherRecord> nextTeachers = new PersistentIntMap.Builder<>();
+    private PersistentIntMap.Builder<ClassroomRecord> nextClassrooms = new PersistentIntMap.Builder<>();
+    private boolean snapshotChanged;
+    private volatile DataSnapshot snapshot = DataSnapshot.EMPTY;
+    // Columns of the students of a recent snapshot (see studentColumns())
+    private volatile StudentColumns studentColumns;
+
+    // The lock as handed out by getLock() and used by the repositories:
+    // releasing its write lock publishes the snapshot, as unlockWrite() does
+    private final ReadWriteLock publishingLock = new ReadWriteLock() {
+        private final Lock writeLock = new Lock() {
+            @Override
+            public void lock() {
+                lock.writeLock().lock();
+            }
+
+            @Override
+            public void lockInterruptibly() throws InterruptedException {
+                lock.writeLock().lockInterruptibly();
+            }
+
+            @Override
+            public boolean tryLock() {
+                return lock.writeLock().tryLock();
+            }
+
+            @Override
+            public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+                return lock.writeLock().tryLock(time, unit);
+            }
+
+            @Override
+            public void unlock() {
+                unlockWrite();
+            }
+
+            @Override
+            public Condition newCondition() {
+                return lock.writeLock().newCondition();
+            }
+        };
+
+        @Override
+        public Lock readLock() {
+            return lock.readLock();
+        }
+
+        @Override
+        public Lock writeLock() {
+            return writeLock;
+        }
+    };
+
+    private final List<StoreListener> listeners = new CopyOnWriteArrayList<>();
+    private final ChangeObserver entityObserver = new ChangeObserver() {
+        @Override
+        public void changing(Object entity) {
+            entityChanging(entity);
+        }
+
+        @Override
+        public void changed(Object entity, String property, Object oldValue) {
+            entityChanged(entity, property, oldValue);
+        }
+    };
+
+    /**
+     * Creates an empty store
+     */
+    public DataStore() {
+        students.setLock(publishingLock);
+        teachers.setLock(publishingLock);
+        classrooms.setLock(publishingLock);
+    }
+
+    // ==================== LOCKING ====================
+
+    /**
+     * @return The lock guarding this store, for code that has to hold it
+     *         around work that throws checked exceptions (e.g. saving)
+     */
+    public ReadWriteLock getLock() {
+        return publishingLock;
+    }
+
+    /**
+     * Runs an action while holding the read lock: no change can happen while
+     * it runs, but other readers run at the same time. Use it to iterate over
+     * a repository or to read several entities consistently.
+     * 
+     * @param action What to run
+     */
+    public void withReadLock(Runnable action) {
+        lock.readLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the read lock and returns its result
+     * 
+     * @param action What to run
+     * @return The action's result
+     */
+    public <R> R withReadLock(Supplier<R> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the write lock: nobody else reads or
+     * changes the store until it finishes, so several changes (e.g. setters
+     * of one student) are seen by others all at once or not at all.
+     * 
+     * @param action What to run
+     */
+    public void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Runs an action while holding the write lock and returns its result
+     * 
+     * @param action What to run
+     * @return The action's result
+     */
+    public <R> R withWriteLock(Supplier<R> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Releases the write lock, first publishing the changes made under it
+     * as a new snapshot if this is the outermost hold
+     */
+    private void unlockWrite() {
+        if (snapshotChanged && lock.getWriteHoldCount() == 1) {
+            snapshot = new DataSnapshot(snapshot.getVersion() + 1, nextStudents.build(), nextTeachers.build(),
+                    nextClassrooms.build());
+            snapshotChanged = false;
+        }
+        lock.writeLock().unlock();
+    }
+
+    // ==================== SNAPSHOTS ====================
+
+    /**
+     * Returns the latest published version of all the data. Takes no lock and
+     * copies nothing; the snapshot never changes, so it can be read without a
+     * lock while other threads change the store.
+     * 
+     * @return The current snapshot
+     */
+    public DataSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the students of the current snapshot as columns, for reports
+     * that scan every student. They are made on the first call after a change
+     * and reused until the next change. Takes no lock.
+     * 
+     * @return The students, in ID order
+     */
+    public StudentColumns studentColumns() {
+        return studentColumns(snapshot);
+    }
+
+    /**
+     * Returns the students of a given snapshot as columns, reusing the last
+     * ones made if they belong to the same version
+     * 
+     * @param of A snapshot of this store
+     * @return Its students, in ID order
+     */
+    public StudentColumns studentColumns(DataSnapshot of) {
+        StudentColumns columns = studentColumns;
+        if (columns == null || columns.getVersion() != of.getVersion()) {
+            // Two threads may both build them; either result is correct
+            columns = StudentColumns.of(of);
+            if (studentColumns == null || of.getVersion() > studentColumns.getVersion()) {
+                studentColumns = columns;
+            }
+        }
+        return columns;
+    }
+
+    // ==================== COUNTERS ====================
+
+    /**
+     * @return Totals kept up to date by every change (students per course,
+     *         classes per teacher, ...), answered in O(1)
+     */
+    public StoreCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Recomputes the counters from the current snapshot and compares them
+     * with the running ones. Only copies the counters under the read lock;
+     * the recomputation runs without a lock.
+     * 
+     * @return One line per figure that differs (empty if all agree)
+     */
+    public List<String> checkCounters() {
+        DataSnapshot current;
+        StoreCounters counted;
+        lock.readLock().lock();
+        try {
+            // No change is in progress, so the snapshot matches the counters
+            current = snapshot;
+            counted = counters.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counted.differences(StoreCounters.of(current));
+    }
+
+    // The record... methods keep the next snapshot in step with a change;
+    // they are called with the write lock held
+
+    private void recordStudent(Student s) {
+        StudentRecord old = nextStudents.get(s.getId());
+        int[] classIds = old != null ? old.getClassIdsShared() : sortedIds(studentClassrooms.classroomsOf(s.getId()));
+        nextStudents.put(s.getId(), new StudentRecord(s, classIds));
+        snapshotChanged = true;
+    }
+
+    private void recordTeacher(Teacher t) {
+        TeacherRecord old = nextTeachers.get(t.getId());
+        int[] classIds = old != null ? old.getClassIdsShared() : sortedIds(teacherClassrooms.classroomsOf(t.getId()));
+        nextTeachers.put(t.getId(), new TeacherRecord(t, classIds));
+        snapshotChanged = true;
+    }
+
+    /**
+     * A classroom was added: records it with its students and teacher, and
+     * adds it to their records
+     */
+    private void recordNewClassroom(Classroom c) {
+        int[] studentIds = new int[c.getStudentCount()];
+        int count = 0;
+        for (Student s : c.getStudents()) {
+            studentIds[count++] = s.getId();
+            recordEnrollment(c.getId(), s.getId(), true);
+        }
+        nextClassrooms.put(c.getId(), new ClassroomRecord(c, sortedIds(studentIds)));
+        if (c.getTeacher() != null) {
+            recordTeaching(c.getTeacher().getId(), c.getId(), true);
+        }
+        snapshotChanged = true;
+    }
+
+    private void recordClassroomName(Classroom c) {
+        ClassroomRecord old = nextClassrooms.get(c.getId());
+        nextClassrooms.put(c.getId(), old.withClassNameCode(c.getClassNameCode()));
+        snapshotChanged = true;
+    }
+
+    /**
+     * Adds or removes an enrollment on both sides (the classroom side only if
+     * the classroom is already recorded)
+     */
+    private void recordEnrollment(int classroomId, int studentId, boolean enrolled) {
+        ClassroomRecord c = nextClassrooms.get(classroomId);
+        if (c != null) {
+            int[] ids = c.getStudentIdsShared();
+            nextClassrooms.put(classroomId, c.withStudentIds(
+                    enrolled ? DataSnapshot.withId(ids, studentId) : DataSnapshot.withoutId(ids, studentId)));
+        }
+        StudentRecord s = nextStudents.get(studentId);
+        if (s != null) {
+            int[] ids = s.getClassIdsShared();
+            nextStudents.put(studentId, s.withClassIds(
+                    enrolled ? DataSnapshot.withId(ids, classroomId) : DataSnapshot.withoutId(ids, classroomId)));
+        }
+        snapshotChanged = true;
+    }
+
+    /**
+     * Adds or removes a classroom from a teacher's record
+     */
+    private void recordTeaching(int teacherId, int classroomId, boolean teaches) {
+        TeacherRecord t = nextTeachers.get(teacherId);
+        if (t != null) {
+            int[] ids = t.getClassIdsShared();
+            nextTeachers.put(teacherId, t.withClassIds(
+                    teaches ? DataSnapshot.withId(ids, classroomId) : DataSnapshot.withoutId(ids, classroomId)));
+        }
+        snapshotChanged = true;
+    }
+
+    private void recordAssignment(Classroom c, Teacher previous, Teacher current) {
+        if (previous != null) {
+            recordTeaching(previous.getId(), c.getId(), false);
+        }
+        if (current != null) {
+            recordTeaching(current.getId(), c.getId(), true);
+        }
+        nextClassrooms.put(c.getId(), nextClassrooms.get(c.getId())
+                .withTeacher(current == null ? null : current.getId()));
+    }
+
+    private void recordDeletedClassroom(Classroom c) {
+        ClassroomRecord old = nextClassrooms.get(c.getId());
+        nextClassrooms.remove(c.getId());
+        if (old != null) {
+            old.forEachStudentId(studentId -> recordEnrollment(c.getId(), studentId, false));
+            if (old.hasTeacher()) {
+                recordTeaching(old.getTeacherId(), c.getId(), false);
+            }
+        }
+        snapshotChanged = true;
+    }
+
+    private static int[] sortedIds(int[] ids) {
+        if (ids.length == 0) {
+            return DataSnapshot.NO_IDS;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // ==================== LISTENERS ====================
+
+    /**
+     * Registers a listener that is told about every later change
+     * 
+     * @param listener The listener
+     */
+    public void addListener(StoreListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener The listener to stop notifying
+     */
+    public void removeListener(StoreListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Takes the write lock before a setter of a stored entity assigns its new
+     * value, so readers never see the value before the indexes have it.
+     * entityChanged() releases the lock again.
+     */
+    private void entityChanging(Object entity) {
+        if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+            // Taking the write lock here would wait for this thread's own
+            // read lock forever; the entity is still unchanged
+            throw new IllegalStateException("a stored entity was changed inside withReadLock");
+        }
+        lock.writeLock().lock();
+        // Out of the sorted listings while its sort keys are still the old ones
+        listingOf(entity).changing(entity);
+    }
+
+    /**
+     * Forwards a setter change of a stored entity to the indexes and the
+     * listeners, then releases the lock taken by entityChanging()
+     */
+    private void entityChanged(Object entity, String property, Object oldValue) {
+        try {
+            listingOf(entity).changed(entity);
+            updateIndexes(entity, property, oldValue);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * @return The sorted listing of the repository holding the entity
+     */
+    @SuppressWarnings("unchecked")
+    private SortedListing<Object> listingOf(Object entity) {
+        SortedListing<?> listing = entity instanceof Student ? studentListing
+                : entity instanceof Teacher ? teacherListing : classroomListing;
+        return (SortedListing<Object>) listing;
+    }
+
+    private void updateIndexes(Object entity, String property, Object oldValue) {
+        if (entity instanceof Student) {
+            Student s = (Student) entity;
+            students.markDirty();
+            recordStudent(s);
+            if (property.equals("name")) {
+                if (studentNames != null) {
+                    studentNames.rename((String) oldValue, s.getName(), s.getId());
+                }
+            } else if (property.equals("course")) {
+                studentsByCourse.move(key((String) oldValue), key(s.getCourse()), s.getId());
+                counters.courseChanged(Student.COURSES.codeOf((String) oldValue), s.getCourseCode());
+            } else if (property.equals("age")) {
+                studentsByAge.move((Integer) oldValue, s.getAge(), s.getId());
+            }
+        } else if (entity instanceof Teacher) {
+            Teacher t = (Teacher) entity;
+            teachers.markDirty();
+            recordTeacher(t);
+            if (property.equals("name")) {
+                if (teacherNames != null) {
+                    teacherNames.rename((String) oldValue, t.getName(), t.getId());
+                }
+            } else if (property.equals("subject")) {
+                teachersBySubject.move(key((String) oldValue), key(t.getSubject()), t.getId());
+            }
+        } else if (entity instanceof Classroom) {
+            Classroom c = (Classroom) entity;
+            classrooms.markDirty();
+            recordClassroomName(c);
+            if (property.equals("className")) {
+                classroomsByName.move(key((String) oldValue), key(c.getClassName()), c.getId());
+            }
+        }
+        for (StoreListener l : listeners) {
+            if (entity instanceof Student) {
+                l.studentUpdated((Student) entity, property, oldValue);
+            } else if (entity instanceof Teacher) {
+                l.teacherUpdated((Teacher) entity, property, oldValue);
+            } else if (entity instanceof Classroom) {
+                l.classroomUpdated((Classroom) entity, property, oldValue);
+            }
+        }
+    }
+
+    // ==================== REPOSITORIES ====================
+
+    /**
+     * @return Students one page at a time, sorted by id, name, age or course
+     */
+    public SortedListing<Student> getStudentListing() {
+        return studentListing;
+    }
+
+    /**
+     * @return Teachers one page at a time, sorted by id, name or subject
+     */
+    public SortedListing<Teacher> getTeacherListing() {
+        return teacherListing;
+    }
+
+    /**
+     * @return Classrooms one page at a time, sorted by id, name or size
+     *         (number of students)
+     */
+    public SortedListing<Classroom> getClassroomListing() {
+        return classroomListing;
+    }
+
+    /**
+     * @return Repository of all students
+     */
+    public StudentRepository getStudents() {
+        return students;
+    }
+
+    /**
+     * @return Repository of all teachers
+     */
+    public TeacherRepository getTeachers() {
+        return teachers;
+    }
+
+    /**
+     * @return Repository of all classrooms
+     */
+    public ClassroomRepository getClassrooms() {
+        return classrooms;
+    }
+
+    // ==================== CREATE ====================
+
+    /**
+     * @param student Student to add
+     * @return true if added, false if the ID is already taken
+     */
+    public boolean addStudent(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (!students.addHeld(student)) {
+                return false;
+            }
+            studentListing.added(student);
+            studentsByCourse.add(key(student.getCourse()), student.getId());
+            studentsByAge.add(student.getAge(), student.getId());
+            if (studentNames != null) {
+                studentNames.add(student.getName(), student.getId());
+            }
+            recordStudent(student);
+            counters.studentAdded(student);
+            student.setObserver(entityObserver);
+            for (StoreListener l : listeners) {
+                l.studentAdded(student);
+            }
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * @param teacher Teacher to add
+     * @return true if added, false if the ID is already taken
+     */
+    public boolean addTeacher(Teacher teacher) {
+        lock.writeLock().lock();
+        try {
+            if (!teachers.addHeld(teacher)) {
+                return false;
+            }
+            teacherListing.added(teacher);
+            teachersBySubject.add(key(teacher.getSubject()), teacher.getId());
+            if (teacherNames != null) {
+                teacherNames.add(teacher.getName(), teacher.getId());
+            }
+            recordTeacher(teacher);
+            counters.teacherAdded(teacher);
+            teacher.setObserver(entityObserver);
+            for (StoreListener l : listeners) {
+                l.teacherAdded(teacher);
+            }
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Adds a classroom. Any teacher or students it already holds are recorded
+     * in the reverse indexes.
+     * 
+     * @param classroom Classroom to add
+     * @return true if added, false if the ID is already taken
+     */
+    public boolean addClassroom(Classroom classroom) {
+        lock.writeLock().lock();
+        try {
+            if (!classrooms.addHeld(classroom)) {
+                return false;
+            }
+            classroomListing.added(classroom);
+            if (classroom.getTeacher() != null) {
+                teacherClassrooms.add(classroom.getTeacher().getId(), classroom.getId());
+            }
+            for (Student s : classroom.getStudents()) {
+                studentClassrooms.add(s.getId(), classroom.getId());
+            }
+            classroomsByName.add(key(classroom.getClassName()), classroom.getId());
+            recordNewClassroom(classroom);
+            counters.classroomAdded(classroom);
+            classroom.setObserver(entityObserver);
+            for (StoreListener l : listeners) {
+                l.classroomAdded(classroom);
+            }
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // ==================== RELATIONSHIPS ====================
+
+    /**
+     * Enrolls a student in a classroom
+     * 
+     * @param classroom The classroom
+     * @param student   The student to enroll
+     * @return true if enrolled, false if the student was already in the class
+     * @throws IllegalArgumentException If the student or classroom has been
+     *                                  deleted
+     */
+    public boolean enroll(Classroom classroom, Student student) {
+        lock.writeLock().lock();
+        try {
+            checkStored(classroom);
+            checkStored(student);
+            if (classroom.getStudent(student.getId()) != null) {
+                return false;
+            }
+            classroomListing.changing(classroom); // Its size is a sort key
+            classroom.addStudent(student);
+            classroomListing.changed(classroom);
+            studentClassrooms.add(student.getId(), classroom.getId());
+            classrooms.markDirty();
+            recordEnrollment(classroom.getId(), student.getId(), true);
+            counters.enrolled(classroom);
+            for (StoreListener l : listeners) {
+                l.studentEnrolled(classroom, student);
+            }
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Removes a student from a classroom
+     * 
+     * @param classroom The classroom
+     * @param studentId ID of the student to remove
+     * @return true if removed, false if the student was not in the class
+     */
+    public boolean unenroll(Classroom classroom, int studentId) {
+        lock.writeLock().lock();
+        try {
+            Student student = classroom.getStudent(studentId);
+            if (student == null) {
+                return false;
+            }
+            classroomListing.changing(classroom);
+            classroom.removeStudent(studentId);
+            classroomListing.changed(classroom);
+            studentClassrooms.remove(studentId, classroom.getId());
+            classrooms.markDirty();
+            recordEnrollment(classroom.getId(), studentId, false);
+            counters.unenrolled(classroom);
+            for (StoreListener l : listeners) {
+                l.studentUnenrolled(classroom, student);
+            }
+            return true;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Assigns a teacher to a classroom, replacing any previous teacher
+     * 
+     * @param classroom The classroom
+     * @param teacher   The teacher to assign, or null to leave the class
+     *                  without a teacher
+     * @throws IllegalArgumentException If the teacher or classroom has been
+     *                                  deleted
+     */
+    public void assignTeacher(Classroom classroom, Teacher teacher) {
+        lock.writeLock().lock();
+        try {
+            checkStored(classroom);
+            if (teacher != null) {
+                checkStored(teacher);
+            }
+            Teacher previous = classroom.getTeacher();
+            if (previous != null) {
+                teacherClassrooms.remove(previous.getId(), classroom.getId());
+            }
+            classroom.setTeacher(teacher);
+            if (teacher != null) {
+                teacherClassrooms.add(teacher.getId(), classroom.getId());
+            }
+            if (previous != teacher) {
+                classrooms.markDirty();
+                recordAssignment(classroom, previous, teacher);
+                counters.teacherAssigned(classroom, previous, teacher);
+                for (StoreListener l : listeners) {
+                    l.teacherAssigned(classroom, previous, teacher);
+                }
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // ==================== DELETE ====================
+
+    /**
+     * Deletes a student and removes them from every class they are in
+     * 
+     * @param id Student ID
+     * @return The deleted student, or null if not found
+     */
+    public Student deleteStudent(int id) {
+        lock.writeLock().lock();
+        try {
+            Student removed = students.getHeld(id);
+            if (removed != null) {
+                for (int classroomId : studentClassrooms.classroomsOf(id)) {
+                    Classroom classroom = classrooms.getHeld(classroomId);
+                    if (classroom != null) {
+                        unenroll(classroom, id);
+                    }
+                }
+                studentClassrooms.removeAll(id);
+                students.removeHeld(id);
+                studentListing.removed(removed);
+                studentsByCourse.remove(key(removed.getCourse()), id);
+                studentsByAge.remove(removed.getAge(), id);
+                if (studentNames != null) {
+                    studentNames.remove(removed.getName(), id);
+                }
+                nextStudents.remove(id);
+                snapshotChanged = true;
+                counters.studentDeleted(removed);
+                removed.setObserver(null);
+                for (StoreListener l : listeners) {
+                    l.studentDeleted(removed);
+                }
+            }
+            return removed;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Deletes a teacher and un-assigns them from every class they teach
+     * 
+     * @param id Teacher ID
+     * @return The deleted teacher, or null if not found
+     */
+    public Teacher deleteTeacher(int id) {
+        lock.writeLock().lock();
+        try {
+            Teacher removed = teachers.getHeld(id);
+            if (removed != null) {
+                for (int classroomId : teacherClassrooms.classroomsOf(id)) {
+                    Classroom classroom = classrooms.getHeld(classroomId);
+                    if (classroom != null) {
+                        assignTeacher(classroom, null);
+                    }
+                }
+                teacherClassrooms.removeAll(id);
+                teachers.removeHeld(id);
+                teacherListing.removed(removed);
+                teachersBySubject.remove(key(removed.getSubject()), id);
+                if (teacherNames != null) {
+                    teacherNames.remove(removed.getName(), id);
+                }
+                nextTeachers.remove(id);
+                snapshotChanged = true;
+                counters.teacherDeleted(removed);
+                removed.setObserver(null);
+                for (StoreListener l : listeners) {
+                    l.teacherDeleted(removed);
+                }
+            }
+            return removed;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Deletes a classroom and drops it from the reverse indexes
+     * 
+     * @param id Classroom ID
+     * @return The deleted classroom, or null if not found
+     */
+    public Classroom deleteClassroom(int id) {
+        lock.writeLock().lock();
+        try {
+            Classroom removed = classrooms.removeHeld(id);
+            if (removed != null) {
+                classroomListing.removed(removed);
+                if (removed.getTeacher() != null) {
+                    teacherClassrooms.remove(removed.getTeacher().getId(), id);
+                }
+                for (Student s : removed.getStudents()) {
+                    studentClassrooms.remove(s.getId(), id);
+                }
+                classroomsByName.remove(key(removed.getClassName()), id);
+                recordDeletedClassroom(removed);
+                counters.classroomDeleted(removed);
+                removed.setObserver(null);
+                for (StoreListener l : listeners) {
+                    l.classroomDeleted(removed);
+                }
+            }
+            return removed;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Removes all data. Listeners are not told about each entity; clear() is
+     * only used to reset the store before loading it again.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (Student s : students) {
+                s.setObserver(null);
+            }
+            for (Teacher t : teachers) {
+                t.setObserver(null);
+            }
+            for (Classroom c : classrooms) {
+                c.setObserver(null);
+            }
+            students.clearHeld();
+            teachers.clearHeld();
+            classrooms.clearHeld();
+            studentListing.cleared();
+            teacherListing.cleared();
+            classroomListing.cleared();
+            studentClassrooms.clear();
+            teacherClassrooms.clear();
+            studentsByCourse.clear();
+            studentsByAge.clear();
+            teachersBySubject.clear();
+            classroomsByName.clear();
+            studentNames = null;
+            teacherNames = null;
+            nextStudents = new PersistentIntMap.Builder<>();
+            nextTeachers = new PersistentIntMap.Builder<>();
+            nextClassrooms = new PersistentIntMap.Builder<>();
+            snapshotChanged = true;
+            counters.clear();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // ==================== SAVE STATE ====================
+
+    /**
+     * @return true if anything changed since the data was last saved or loaded
+     */
+    public boolean isDirty() {
+        return students.isDirty() || teachers.isDirty() || classrooms.isDirty();
+    }
+
+    /**
+     * Records that every repository changed, so the next save writes all of
+     * them (e.g. to measure a full save)
+     */
+    public void markDirty() {
+        lock.writeLock().lock();
+        try {
+            students.markDirty();
+            teachers.markDirty();
+            classrooms.markDirty();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Records that all repositories now match the saved files
+     */
+    public void markClean() {
+        students.markClean();
+        teachers.markClean();
+        classrooms.markClean();
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Finds the classes a student is enrolled in
+     * 
+     * @param studentId Student ID
+     * @return Classrooms sorted by ID (empty if none)
+     */
+    public List<Classroom> classroomsOfStudent(int studentId) {
+        lock.readLock().lock();
+        try {
+            return resolve(studentClassrooms.classroomsOf(studentId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the classes a teacher is assigned to
+     * 
+     * @param teacherId Teacher ID
+     * @return Classrooms sorted by ID (empty if none)
+     */
+    public List<Classroom> classroomsOfTeacher(int teacherId) {
+        lock.readLock().lock();
+        try {
+            return resolve(teacherClassrooms.classroomsOf(teacherId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the students of a course (ignoring case)
+     * 
+     * @param course Course name
+     * @return Students sorted by ID (empty if none)
+     */
+    public List<Student> studentsInCourse(String course) {
+        lock.readLock().lock();
+        try {
+            return resolve(studentsByCourse.idsOf(key(course)), students);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the students in an age range
+     * 
+     * @param minAge Lowest age (inclusive)
+     * @param maxAge Highest age (inclusive)
+     * @return Students sorted by ID (empty if none)
+     */
+    public List<Student> studentsAged(int minAge, int maxAge) {
+        lock.readLock().lock();
+        try {
+            return resolve(studentsByAge.idsInRange(minAge, maxAge), students);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the teachers of a subject (ignoring case)
+     * 
+     * @param subject Subject name
+     * @return Teachers sorted by ID (empty if none)
+     */
+    public List<Teacher> teachersOfSubject(String subject) {
+        lock.readLock().lock();
+        try {
+            return resolve(teachersBySubject.idsOf(key(subject)), teachers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the classrooms with a name (ignoring case)
+     * 
+     * @param className Class name, e.g. "Math 101"
+     * @return Classrooms sorted by ID (empty if none)
+     */
+    public List<Classroom> classroomsNamed(String className) {
+        lock.readLock().lock();
+        try {
+            return resolve(classroomsByName.idsOf(key(className)), classrooms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds students by the start of their name words, e.g. "jo sm" finds
+     * John Smith (ignoring case)
+     * 
+     * @param query Start of one or more name words
+     * @param limit Maximum number of results
+     * @return Matching students, grouped by matched word in alphabetical order
+     */
+    public List<Student> studentsByName(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return resolveInOrder(studentNames().prefixMatches(query, limit, this::studentName), students);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds students whose name is close to the query, allowing typos
+     * 
+     * @param query One or more name words, possibly misspelled
+     * @param limit Maximum number of results
+     * @return Matching students, closest matches first
+     */
+    public List<Student> studentsByNameFuzzy(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return resolveInOrder(studentNames().fuzzyMatches(query, limit, this::studentName), students);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds teachers by the start of their name words (ignoring case)
+     * 
+     * @param query Start of one or more name words
+     * @param limit Maximum number of results
+     * @return Matching teachers, grouped by matched word in alphabetical order
+     */
+    public List<Teacher> teachersByName(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return resolveInOrder(teacherNames().prefixMatches(query, limit, this::teacherName), teachers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds teachers whose name is close to the query, allowing typos
+     * 
+     * @param query One or more name words, possibly misspelled
+     * @param limit Maximum number of results
+     * @return Matching teachers, closest matches first
+     */
+    public List<Teacher> teachersByNameFuzzy(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return resolveInOrder(teacherNames().fuzzyMatches(query, limit, this::teacherName), teachers);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The student name index, built from all students on first use
+     */
+    private NameIndex studentNames() {
+        NameIndex index = studentNames;
+        if (index == null) {
+            // Callers hold the read lock, so no writer runs meanwhile; the
+            // monitor stops two readers from building it at the same time
+            synchronized (nameIndexBuild) {
+                index = studentNames;
+                if (index == null) {
+                    index = new NameIndex();
+                    for (Student s : students) {
+                        index.add(s.getName(), s.getId());
+                    }
+                    studentNames = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return The teacher name index, built from all teachers on first use
+     */
+    private NameIndex teacherNames() {
+        NameIndex index = teacherNames;
+        if (index == null) {
+            synchronized (nameIndexBuild) {
+                index = teacherNames;
+                if (index == null) {
+                    index = new NameIndex();
+                    for (Teacher t : teachers) {
+                        index.add(t.getName(), t.getId());
+                    }
+                    teacherNames = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private String studentName(int id) {
+        Student s = students.getHeld(id);
+        return s == null ? null : s.getName();
+    }
+
+    private String teacherName(int id) {
+        Teacher t = teachers.getHeld(id);
+        return t == null ? null : t.getName();
+    }
+
+    /**
+     * Refuses an entity that is not (or no longer) in this store, e.g. one
+     * looked up by a user just before another user deleted it
+     */
+    private void checkStored(Student student) {
+        if (students.getHeld(student.getId()) != student) {
+            throw new IllegalArgumentException("student " + student.getId() + " no longer exists");
+        }
+    }
+
+    private void checkStored(Teacher teacher) {
+        if (teachers.getHeld(teacher.getId()) != teacher) {
+            throw new IllegalArgumentException("teacher " + teacher.getId() + " no longer exists");
+        }
+    }
+
+    private void checkStored(Classroom classroom) {
+        if (classrooms.getHeld(classroom.getId()) != classroom) {
+            throw new IllegalArgumentException("class " + classroom.getId() + " no longer exists");
+        }
+    }
+
+    private List<Classroom> resolve(int[] classroomIds) {
+        return resolve(classroomIds, classrooms);
+    }
+
+    private static <T> List<T> resolve(int[] ids, Repository<T> repository) {
+        Arrays.sort(ids);
+        return resolveInOrder(ids, repository);
+    }
+
+    private static <T> List<T> resolveInOrder(int[] ids, Repository<T> repository) {
+        List<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            T item = repository.getHeld(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Index key of a text value: trimmed and lower case, so searches ignore
+     * case and surrounding spaces
+     */
+    private static String key(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
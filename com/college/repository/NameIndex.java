@@ -0,0 +1,488 @@
+package com.college.repository;
+
+import com.college.util.IntHashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * CLASS: NameIndex
+ * 
+ * Finds people by name: by the start of a name ("jo" finds John Smith and
+ * Mary Jones) or despite a typo ("jonh" finds John).
+ * 
+ * CONCEPT DEMONSTRATED: PREFIX SEARCH IN A SORTED MAP
+ * - Every name is split into lower-case words ("Smith, Jane" -> smith, jane)
+ * and each word maps to the IDs of the people whose name contains it
+ * - The words are kept sorted (TreeMap), so all words starting with "jo" sit
+ * next to each other, between "jo" and "jo" followed by the highest char:
+ * one subMap call finds them without looking at any other word
+ * 
+ * CONCEPT DEMONSTRATED: TRIGRAM INDEX (FUZZY SEARCH)
+ * - Each word is also cut into overlapping 3-letter pieces (trigrams):
+ * "john" -> "  j", " jo", "joh", "ohn", "hn "
+ * - A word with a typo still shares most of its trigrams with the intended
+ * word, so only words sharing enough trigrams with the query are compared
+ * letter by letter (edit distance), not the whole vocabulary
+ * - One edit changes at most four trigrams (swapping two neighbouring
+ * letters changes four; an insertion, deletion or substitution at most
+ * three), which gives the minimum number of shared trigrams a candidate needs
+ * 
+ * Both indexes work on distinct words, not on people, so they stay small even
+ * for millions of names; many people share the same first or last name.
+ * The DataStore keeps the index up to date on add, delete and setName.
+ */
+public class NameIndex {
+
+    private static final int[] NONE = new int[0];
+    // Most trigrams one edit can change: swapping two neighbouring letters
+    // changes four, e.g. "lucas" -> "lcuas"
+    private static final int TRIGRAMS_PER_EDIT = 4;
+    // Counting the matches of a query word stops here ("many")
+    private static final int COUNT_CAP = 1 << 16;
+
+    /**
+     * A distinct word and the people whose name contains it
+     */
+    private static class Word {
+        final String text;
+        final int number; // Position in wordsByNumber, used by the trigram index
+        final IntHashSet ids = new IntHashSet(4);
+
+        Word(String text, int number) {
+            this.text = text;
+            this.number = number;
+        }
+    }
+
+    // word -> entry, for adding and removing names
+    private final Map<String, Word> words = new HashMap<>();
+    // The same entries sorted by word, for prefix ranges (only changes when a
+    // word appears for the first time or disappears)
+    private final TreeMap<String, Word> sortedWords = new TreeMap<>();
+    // word number -> entry (null once the word has disappeared)
+    private final List<Word> wordsByNumber = new ArrayList<>();
+    // Numbers of disappeared words, reused for new words
+    private int[] freeNumbers = new int[16];
+    private int freeCount;
+    // trigram -> numbers of the words containing it
+    private final Map<String, IntHashSet> wordsByTrigram = new HashMap<>();
+
+    /**
+     * Adds a person's name to the index
+     * 
+     * @param name The name
+     * @param id   The person's ID
+     */
+    public void add(String name, int id) {
+        for (String text : words(name)) {
+            Word word = words.get(text);
+            if (word == null) {
+                if (freeCount > 0) {
+                    word = new Word(text, freeNumbers[--freeCount]);
+                    wordsByNumber.set(word.number, word);
+                } else {
+                    word = new Word(text, wordsByNumber.size());
+                    wordsByNumber.add(word);
+                }
+                words.put(text, word);
+                sortedWords.put(text, word);
+                for (String trigram : trigrams(text)) {
+                    IntHashSet numbers = wordsByTrigram.get(trigram);
+                    if (numbers == null) {
+                        numbers = new IntHashSet(4);
+                        wordsByTrigram.put(trigram, numbers);
+                    }
+                    numbers.add(word.number);
+                }
+            }
+            word.ids.add(id);
+        }
+    }
+
+    /**
+     * Removes a person's name from the index
+     * 
+     * @param name The name the person was indexed under
+     * @param id   The person's ID
+     */
+    public void remove(String name, int id) {
+        for (String text : words(name)) {
+            Word word = words.get(text);
+            if (word == null) {
+                continue;
+            }
+            word.ids.remove(id);
+            if (word.ids.isEmpty()) {
+                // Last person with this word: forget the word completely
+                words.remove(text);
+                sortedWords.remove(text);
+                wordsByNumber.set(word.number, null);
+                if (freeCount == freeNumbers.length) {
+                    freeNumbers = Arrays.copyOf(freeNumbers, freeCount * 2);
+                }
+                freeNumbers[freeCount++] = word.number;
+                for (String trigram : trigrams(text)) {
+                    IntHashSet numbers = wordsByTrigram.get(trigram);
+                    if (numbers != null) {
+                        numbers.remove(word.number);
+                        if (numbers.isEmpty()) {
+                            wordsByTrigram.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-indexes a person whose name changed
+     * 
+     * @param oldName Previous name
+     * @param newName Current name
+     * @param id      The person's ID
+     */
+    public void rename(String oldName, String newName, int id) {
+        remove(oldName, id);
+        add(newName, id);
+    }
+
+    /**
+     * Finds people whose name has a word starting with each word of the query,
+     * e.g. "jo sm" finds John Smith
+     * 
+     * @param query Start of one or more name words
+     * @param limit Maximum number of IDs to return
+     * @param names Looks up the current name of an ID (used to check the
+     *              other query words when the query has more than one)
+     * @return Matching IDs, grouped by matched word in alphabetical order
+     */
+    public int[] prefixMatches(String query, int limit, IntFunction<String> names) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return NONE;
+        }
+        // Start from the query word with the fewest matching people; the other
+        // words are checked against each candidate's name
+        int bestIndex = 0;
+        if (queryWords.size() > 1) {
+            int bestCount = Integer.MAX_VALUE;
+            for (int i = 0; i < queryWords.size(); i++) {
+                int count = 0;
+                for (Word word : prefixRange(queryWords.get(i))) {
+                    count += word.ids.size();
+                    if (count >= bestCount || count >= COUNT_CAP) {
+                        break;
+                    }
+                }
+                if (count < bestCount) {
+                    bestCount = count;
+                    bestIndex = i;
+                }
+            }
+        }
+        List<String> otherWords = new ArrayList<>(queryWords);
+        String driver = otherWords.remove(bestIndex);
+
+        Collector result = new Collector(limit);
+        for (Word word : prefixRange(driver)) {
+            boolean more = word.ids.forEachWhile(id -> {
+                if (otherWords.isEmpty() || startsAll(words(names.apply(id)), otherWords)) {
+                    result.add(id);
+                }
+                return !result.full();
+            });
+            if (!more) {
+                break;
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Finds people whose name words are close to the words of the query,
+     * allowing about one typo per four letters
+     * 
+     * @param query One or more name words, possibly misspelled
+     * @param limit Maximum number of IDs to return
+     * @param names Looks up the current name of an ID (used to check the
+     *              other query words when the query has more than one)
+     * @return Matching IDs, closest matches first
+     */
+    public int[] fuzzyMatches(String query, int limit, IntFunction<String> names) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return NONE;
+        }
+        String first = queryWords.get(0);
+        List<String> otherWords = queryWords.subList(1, queryWords.size());
+
+        // Words similar to the first query word, closest first
+        List<Word> similar = similarWords(first);
+
+        Collector result = new Collector(limit);
+        for (Word word : similar) {
+            boolean more = word.ids.forEachWhile(id -> {
+                if (otherWords.isEmpty() || closeToAll(words(names.apply(id)), otherWords)) {
+                    result.add(id);
+                }
+                return !result.full();
+            });
+            if (!more) {
+                break;
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        words.clear();
+        sortedWords.clear();
+        wordsByNumber.clear();
+        wordsByTrigram.clear();
+        freeCount = 0;
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    private Collection<Word> prefixRange(String prefix) {
+        // Every word starting with prefix sorts between prefix and prefix + the
+        // highest char
+        return sortedWords.subMap(prefix, prefix + Character.MAX_VALUE).values();
+    }
+
+    /**
+     * Finds indexed words within the allowed edit distance of a query word
+     * 
+     * @return The words, closest first (alphabetical for equal distance)
+     */
+    private List<Word> similarWords(String queryWord) {
+        int maxDistance = maxDistance(queryWord);
+        List<String> queryTrigrams = trigrams(queryWord);
+
+        // Count the trigrams each indexed word shares with the query, in an
+        // array indexed by word number
+        SharedTrigrams counts = new SharedTrigrams(wordsByNumber.size());
+        IntConsumer count = counts::add;
+        for (String trigram : queryTrigrams) {
+            IntHashSet numbers = wordsByTrigram.get(trigram);
+            if (numbers != null) {
+                numbers.forEach(count);
+            }
+        }
+
+        // A word has length + 1 trigrams, and one edit changes at most four
+        // of them (a swap of two neighbouring letters), so a close word must
+        // share most of the longer word's trigrams; only those words are
+        // compared letter by letter
+        List<List<Word>> byDistance = new ArrayList<>();
+        for (int i = 0; i < counts.touchedCount; i++) {
+            int number = counts.touched[i];
+            Word word = wordsByNumber.get(number);
+            int longer = Math.max(word.text.length(), queryWord.length());
+            if (counts.shared[number] < longer + 1 - TRIGRAMS_PER_EDIT * maxDistance
+                    || Math.abs(word.text.length() - queryWord.length()) > maxDistance) {
+                continue;
+            }
+            int distance = editDistance(queryWord, word.text, maxDistance);
+            if (distance <= maxDistance) {
+                while (byDistance.size() <= distance) {
+                    byDistance.add(new ArrayList<Word>());
+                }
+                byDistance.get(distance).add(word);
+            }
+        }
+        List<Word> result = new ArrayList<>();
+        for (List<Word> group : byDistance) {
+            group.sort((a, b) -> a.text.compareTo(b.text));
+            result.addAll(group);
+        }
+        return result;
+    }
+
+    /**
+     * Number of query trigrams each indexed word contains, and the words
+     * that contain any
+     */
+    private static final class SharedTrigrams {
+        final int[] shared; // word number -> trigrams shared with the query
+        int[] touched = new int[64]; // numbers of the words with shared > 0
+        int touchedCount;
+
+        SharedTrigrams(int words) {
+            shared = new int[words];
+        }
+
+        void add(int number) {
+            if (shared[number]++ == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = number;
+            }
+        }
+    }
+
+    private static boolean startsAll(List<String> nameWords, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : nameWords) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean closeToAll(List<String> nameWords, List<String> queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String word : nameWords) {
+                if (editDistance(queryWord, word, maxDistance(queryWord)) <= maxDistance(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Allowed typos: none for 1-2 letters, one up to 5 letters, then two
+     */
+    private static int maxDistance(String word) {
+        return word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Number of single-letter insertions, deletions, substitutions and swaps
+     * of two neighbouring letters needed to turn a into b
+     * (optimal string alignment distance)
+     * 
+     * @param limit Stop early once every path is longer than this
+     * @return The distance, or limit + 1 if it is larger than limit
+     */
+    static int editDistance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, previous2[j - 2] + 1); // Swapped letters
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], limit + 1);
+    }
+
+    /**
+     * Splits a name into distinct lower-case words; letters, digits and
+     * apostrophes belong to a word, everything else separates words
+     */
+    static List<String> words(String name) {
+        if (name == null) {
+            return Collections.emptyList();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        String lower = name.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length()
+                    && (Character.isLetterOrDigit(lower.charAt(i)) || lower.charAt(i) == '\'');
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Overlapping 3-letter pieces of a word, padded with spaces so the first
+     * and last letters count too: "jon" -> "  j", " jo", "jon", "on "
+     */
+    private static List<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Collects distinct IDs until the limit is reached
+     */
+    private static class Collector {
+        private final int limit;
+        private final IntHashSet seen = new IntHashSet();
+        private int[] ids;
+        private int count;
+
+        Collector(int limit) {
+            this.limit = limit;
+            this.ids = new int[Math.min(limit, 64)];
+        }
+
+        boolean full() {
+            return count >= limit;
+        }
+
+        void add(int id) {
+            if (seen.add(id)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, (int) Math.min((long) count * 2, limit));
+                }
+                ids[count++] = id;
+            }
+        }
+
+        int[] toArray() {
+            int[] result = new int[count];
+            System.arraycopy(ids, 0, result, 0, count);
+            return result;
+        }
+    }
+}
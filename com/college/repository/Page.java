@@ -0,0 +1,77 @@
+package com.college.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CLASS: Page
+ * 
+ * One page of a sorted listing (see SortedListing): the records on the page,
+ * where the page starts and how many records there are in total.
+ * 
+ * The last record of a page is the cursor for the next one: pass it as
+ * "after" to get the page that follows it, or pass its cursor token (see
+ * SortedListing.cursor) to pageAfter.
+ * 
+ * @param <T> Type of the listed records
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final int first;
+    private final int total;
+
+    /**
+     * @param items Records on this page, in order
+     * @param first Position of the first record in the whole listing (0-based)
+     * @param total Number of records in the whole listing
+     */
+    public Page(List<T> items, int first, int total) {
+        this.items = Collections.unmodifiableList(items);
+        this.first = first;
+        this.total = total;
+    }
+
+    /**
+     * @return Records on this page, in order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Position of the first record in the whole listing (0-based)
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * @return Number of records in the whole listing
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return true if the page has no records
+     */
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * @return true if more records follow this page
+     */
+    public boolean hasMore() {
+        return first + items.size() < total;
+    }
+
+    /**
+     * @return The last record of the page (the cursor for the next page), or
+     *         null if the page is empty
+     */
+    public T getLast() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,268 @@
+package com.college.repository;
+
+import com.college.util.IntObjectMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ABSTRACT CLASS: Repository
+ * 
+ * A repository keeps all entities of one type in memory and finds them by ID.
+ * 
+ * CONCEPT DEMONSTRATED: HASHING
+ * - Entities are stored in a hash map keyed by their ID (an IntObjectMap,
+ * so int IDs are never boxed into Integer objects)
+ * - get/contains/remove by ID take constant time instead of scanning a list
+ * - Insertion order is kept so listings show records in the order they were
+ * added (same behaviour as the old ArrayList)
+ * 
+ * CONCEPT DEMONSTRATED: DIRTY TRACKING
+ * - The repository remembers whether it changed since it was last saved or
+ * loaded, so saving can skip the files of repositories that did not change
+ * - Adding and removing mark it dirty here; changes to the entities
+ * themselves are reported by the DataStore (see markDirty)
+ * 
+ * CONCEPT DEMONSTRATED: THREAD SAFETY
+ * - Every method takes a read-write lock: lookups the read lock, add, remove
+ * and clear the write lock. Inside a DataStore this is the store's lock, so
+ * a repository never changes in the middle of a store operation.
+ * - values() and iterator() cannot hold the lock for the caller; iterate
+ * inside DataStore.withReadLock
+ * - The dirty flag is only set with the write lock held (markDirty is for
+ * the DataStore) and cleared with the read lock, so a save cannot mark a
+ * change clean that it did not write
+ * 
+ * CONCEPT DEMONSTRATED: ENCAPSULATION
+ * - add, remove and clear are package-private: other packages get a
+ * repository from the DataStore only to read it, and change the data through
+ * the DataStore, which also updates its indexes and counters and tells its
+ * listeners (the journal among them)
+ * 
+ * CONCEPT DEMONSTRATED: GENERICS
+ * - The same code works for Student, Teacher and Classroom repositories
+ * - Subclasses only have to say how to read the ID of their entity type
+ * 
+ * @param <T> The type of entity stored in this repository
+ */
+public abstract class Repository<T> implements Iterable<T> {
+
+    // ID -> entity, iterated in insertion order
+    private final IntObjectMap<T> items = new IntObjectMap<>();
+
+    // Guards items; replaced by the DataStore's lock when the store is built
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // true if the repository changed since it was last saved or loaded
+    private volatile boolean dirty;
+
+    /**
+     * Returns the ID of an entity stored in this repository
+     * 
+     * @param item The entity
+     * @return The entity's ID
+     */
+    protected abstract int idOf(T item);
+
+    /**
+     * Adds an entity if no entity with the same ID exists yet
+     * 
+     * @param item The entity to add
+     * @return true if added, false if the ID is already taken
+     */
+    boolean add(T item) {
+        Lock guard = lock.writeLock();
+        guard.lock();
+        try {
+            return addHeld(item);
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * Finds an entity by ID
+     * 
+     * @param id The ID to look up
+     * @return The entity, or null if not found
+     */
+    public T get(int id) {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            return getHeld(id);
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * Checks whether an entity with the given ID exists
+     * 
+     * @param id The ID to look up
+     * @return true if found
+     */
+    public boolean contains(int id) {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            return items.containsKey(id);
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * Removes an entity by ID
+     * 
+     * @param id The ID of the entity to remove
+     * @return The removed entity, or null if not found
+     */
+    T remove(int id) {
+        Lock guard = lock.writeLock();
+        guard.lock();
+        try {
+            return removeHeld(id);
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * @return Number of entities stored
+     */
+    public int size() {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            return items.size();
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * @return true if the repository holds no entities
+     */
+    public boolean isEmpty() {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            return items.isEmpty();
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * Removes all entities
+     */
+    void clear() {
+        Lock guard = lock.writeLock();
+        guard.lock();
+        try {
+            clearHeld();
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * @return true if the repository changed since it was last saved or
+     *         loaded
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Records that an entity in this repository changed. Only the DataStore
+     * calls this, with the write lock held, like the other unlocked methods
+     * below.
+     */
+    void markDirty() {
+        changed();
+    }
+
+    /**
+     * Records that the repository now matches its saved file
+     * 
+     * Takes the read lock: it cannot clear the flag in the middle of a change
+     * (every change holds the write lock), and a save can call it while it
+     * still holds the read lock it wrote the file under.
+     */
+    public void markClean() {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            dirty = false;
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    // ---- Unlocked versions, for DataStore code that already holds the lock
+    // (taking it again for every call would cost more than the work) ----
+
+    T getHeld(int id) {
+        return items.get(id);
+    }
+
+    boolean addHeld(T item) {
+        if (!items.putIfAbsent(idOf(item), item)) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    T removeHeld(int id) {
+        T removed = items.remove(id);
+        if (removed != null) {
+            changed();
+        }
+        return removed;
+    }
+
+    void clearHeld() {
+        items.clear();
+        changed();
+    }
+
+    /**
+     * Makes this repository use another lock (the DataStore's)
+     */
+    void setLock(ReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * @return The lock guarding this repository
+     */
+    ReadWriteLock getLock() {
+        return lock;
+    }
+
+    private void changed() {
+        dirty = true;
+    }
+
+    /**
+     * Read-only view of all entities in insertion order
+     * 
+     * @return Unmodifiable collection of entities
+     */
+    public Collection<T> values() {
+        return items.values();
+    }
+
+    /**
+     * Iterates over all entities in insertion order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+}
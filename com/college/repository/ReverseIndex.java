@@ -0,0 +1,91 @@
+package com.college.repository;
+
+import com.college.util.IntHashSet;
+import com.college.util.IntObjectMap;
+
+/**
+ * CLASS: ReverseIndex
+ * 
+ * Remembers which classrooms refer to a student (or a teacher).
+ * 
+ * CONCEPT DEMONSTRATED: REVERSE (INVERTED) INDEX
+ * - A Classroom knows its students, but a Student does not know its classes
+ * - Without this index, "which classes is student X in?" means checking
+ * every classroom
+ * - The index maps a person's ID to the set of classroom IDs, so the answer
+ * costs time proportional to that person's own enrollments
+ */
+public class ReverseIndex {
+
+    private static final int[] NONE = new int[0];
+
+    // person ID -> IDs of the classrooms that refer to that person
+    private final IntObjectMap<IntHashSet> classroomsByPerson = new IntObjectMap<>();
+
+    /**
+     * Records that a classroom refers to a person
+     * 
+     * @param personId    Student or teacher ID
+     * @param classroomId Classroom ID
+     */
+    public void add(int personId, int classroomId) {
+        IntHashSet classroomIds = classroomsByPerson.get(personId);
+        if (classroomIds == null) {
+            classroomIds = new IntHashSet(4);
+            classroomsByPerson.put(personId, classroomIds);
+        }
+        classroomIds.add(classroomId);
+    }
+
+    /**
+     * Forgets that a classroom refers to a person
+     * 
+     * @param personId    Student or teacher ID
+     * @param classroomId Classroom ID
+     */
+    public void remove(int personId, int classroomId) {
+        IntHashSet classroomIds = classroomsByPerson.get(personId);
+        if (classroomIds != null) {
+            classroomIds.remove(classroomId);
+            if (classroomIds.isEmpty()) {
+                classroomsByPerson.remove(personId); // Keep the index compact
+            }
+        }
+    }
+
+    /**
+     * Removes a person from the index
+     * 
+     * @param personId Student or teacher ID
+     * @return IDs of the classrooms that referred to the person
+     */
+    public int[] removeAll(int personId) {
+        IntHashSet classroomIds = classroomsByPerson.remove(personId);
+        return classroomIds == null ? NONE : classroomIds.toArray();
+    }
+
+    /**
+     * @param personId Student or teacher ID
+     * @return IDs of the classrooms that refer to the person (may be empty)
+     */
+    public int[] classroomsOf(int personId) {
+        IntHashSet classroomIds = classroomsByPerson.get(personId);
+        return classroomIds == null ? NONE : classroomIds.toArray();
+    }
+
+    /**
+     * @param personId Student or teacher ID
+     * @return Number of classrooms that refer to the person
+     */
+    public int countOf(int personId) {
+        IntHashSet classroomIds = classroomsByPerson.get(personId);
+        return classroomIds == null ? 0 : classroomIds.size();
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        classroomsByPerson.clear();
+    }
+}
@@ -0,0 +1,132 @@
+package com.college.repository;
+
+import com.college.util.IntHashSet;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * CLASS: SecondaryIndex
+ * 
+ * Finds entities by a value other than their ID, e.g. all students of one
+ * course or all students aged 18 to 20.
+ * 
+ * CONCEPT DEMONSTRATED: SECONDARY INDEX
+ * - The repositories can only find an entity by its ID; any other question
+ * ("who studies Physics?") means checking every entity
+ * - This index maps each value (a course, an age, ...) to the set of IDs that
+ * have it, so the answer costs time proportional to the number of matches
+ * - The values are kept sorted (TreeMap), so a range of values (ages 18 to
+ * 20) is found by walking only the matching part of the tree
+ * 
+ * The DataStore keeps the index up to date: it adds and removes entries when
+ * entities are added or deleted, and moves an ID from the old value to the
+ * new one when a setter changes it.
+ * 
+ * @param <K> Type of the indexed value
+ */
+public class SecondaryIndex<K extends Comparable<K>> {
+
+    private static final int[] NONE = new int[0];
+
+    // value -> IDs of the entities with that value
+    private final TreeMap<K, IntHashSet> idsByKey = new TreeMap<>();
+
+    /**
+     * Records that an entity has a value
+     * 
+     * @param key Indexed value (null values are not indexed)
+     * @param id  Entity ID
+     */
+    public void add(K key, int id) {
+        if (key == null) {
+            return;
+        }
+        IntHashSet ids = idsByKey.get(key);
+        if (ids == null) {
+            ids = new IntHashSet(4);
+            idsByKey.put(key, ids);
+        }
+        ids.add(id);
+    }
+
+    /**
+     * Forgets that an entity has a value
+     * 
+     * @param key Indexed value
+     * @param id  Entity ID
+     */
+    public void remove(K key, int id) {
+        if (key == null) {
+            return;
+        }
+        IntHashSet ids = idsByKey.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByKey.remove(key); // Keep the index compact
+            }
+        }
+    }
+
+    /**
+     * Moves an entity from its old value to its new one
+     * 
+     * @param oldKey Previous value
+     * @param newKey Current value
+     * @param id     Entity ID
+     */
+    public void move(K oldKey, K newKey, int id) {
+        remove(oldKey, id);
+        add(newKey, id);
+    }
+
+    /**
+     * @param key Value to look up
+     * @return IDs of the entities with that value, in no particular order
+     */
+    public int[] idsOf(K key) {
+        IntHashSet ids = key == null ? null : idsByKey.get(key);
+        return ids == null ? NONE : ids.toArray();
+    }
+
+    /**
+     * @param from Lowest value (inclusive)
+     * @param to   Highest value (inclusive)
+     * @return IDs of the entities with a value in the range, in no particular
+     *         order
+     */
+    public int[] idsInRange(K from, K to) {
+        if (from.compareTo(to) > 0) {
+            return NONE;
+        }
+        NavigableMap<K, IntHashSet> range = idsByKey.subMap(from, true, to, true);
+        int total = 0;
+        for (IntHashSet ids : range.values()) {
+            total += ids.size();
+        }
+        int[] result = new int[total];
+        int n = 0;
+        for (IntHashSet ids : range.values()) {
+            int[] part = ids.toArray();
+            System.arraycopy(part, 0, result, n, part.length);
+            n += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * @param key Value to look up
+     * @return Number of entities with that value
+     */
+    public int countOf(K key) {
+        IntHashSet ids = key == null ? null : idsByKey.get(key);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        idsByKey.clear();
+    }
+}
@@ -0,0 +1,318 @@
+package com.college.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * CLASS: SortedListing
+ * 
+ * Lists the entities of a repository one page at a time, sorted by one of a
+ * few named orders (e.g. "id", "name", "age").
+ * 
+ * CONCEPT DEMONSTRATED: KEYSET PAGINATION
+ * - A page is asked for with the last record of the previous page (the
+ * cursor) instead of a page number
+ * - The next page starts right after the cursor's position in the sort order,
+ * found by binary search, so it costs O(log n + page size) however deep into
+ * the listing it is
+ * - Records added or deleted between two pages do not shift the listing, so
+ * no record is shown twice or skipped because of them
+ * 
+ * CONCEPT DEMONSTRATED: INCREMENTALLY MAINTAINED ORDER
+ * - The first page of an order sorts all entities once (in parallel for
+ * large repositories) into a ChunkedSortedList
+ * - From then on the DataStore keeps every sorted order up to date: an added
+ * entity is inserted at its place, a deleted one removed, and one whose
+ * sort key changes (a setter, an enrollment changing a class size) is
+ * taken out before the change and put back after it, each in
+ * O(log n + chunk size)
+ * - So a page costs O(log n + page size) however often the data changes, and
+ * the full sort never runs again while the store holds the data
+ * 
+ * Every order ends with the entity ID, so two entities never compare equal
+ * and the position of a cursor is always well defined.
+ * 
+ * CONCEPT DEMONSTRATED: SELF-CONTAINED CURSOR
+ * - A client that only keeps text (the batch file, an HTTP client) gets the
+ * cursor as a token holding the last record's sort key and ID, e.g.
+ * "10000:Alice" for the name order or "10000" for the ID order
+ * - The next page is found by comparing the token's key and ID with the
+ * sorted array; the record itself is not looked up, so the token still works
+ * after that record was deleted
+ * 
+ * @param <T> Type of the listed entities
+ */
+public class SortedListing<T> {
+
+    /**
+     * Compares an entity's sort key with the key of a cursor token
+     */
+    private interface KeyComparison<T> {
+        int compare(T item, Object key);
+    }
+
+    /**
+     * One sort order and its sorted entities
+     */
+    private class View {
+        final Comparator<T> order;
+        // Sort key as cursor text, or null if the order is by ID only
+        final Function<T, String> keyText;
+        final Function<String, Object> parseKey;
+        final KeyComparison<T> compareKey;
+        // null until the first page of this order; written under the read
+        // lock (and this view's monitor), kept up to date under the write lock
+        ChunkedSortedList<T> sorted;
+
+        View(Comparator<T> order, Function<T, String> keyText, Function<String, Object> parseKey,
+                KeyComparison<T> compareKey) {
+            this.order = order;
+            this.keyText = keyText;
+            this.parseKey = parseKey;
+            this.compareKey = compareKey;
+        }
+
+        /**
+         * @return All entities in this order, sorted on the first call
+         */
+        synchronized ChunkedSortedList<T> sorted() {
+            if (sorted == null) {
+                T[] items = toArray();
+                Arrays.parallelSort(items, order);
+                sorted = new ChunkedSortedList<>(items, order);
+            }
+            return sorted;
+        }
+    }
+
+    private final Repository<T> repository;
+    // order name -> view, in the order the orders were added
+    private final Map<String, View> views = new LinkedHashMap<>();
+
+    /**
+     * @param repository The entities to list
+     */
+    public SortedListing(Repository<T> repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Adds a sort order by ID alone
+     * 
+     * @param name Name of the order, e.g. "id"
+     * @return This listing, so orders can be chained
+     */
+    public SortedListing<T> addIdOrder(String name) {
+        views.put(name, new View(Comparator.comparingInt(repository::idOf), null, null, null));
+        return this;
+    }
+
+    /**
+     * Adds a sort order by a number. Ties are broken by ID.
+     * 
+     * @param name Name of the order, e.g. "age"
+     * @param key  The number to sort by
+     * @return This listing, so orders can be chained
+     */
+    public SortedListing<T> addNumberOrder(String name, ToIntFunction<T> key) {
+        views.put(name, new View(Comparator.comparingInt(key).thenComparingInt(repository::idOf),
+                item -> String.valueOf(key.applyAsInt(item)), Integer::valueOf,
+                (item, cursorKey) -> Integer.compare(key.applyAsInt(item), (Integer) cursorKey)));
+        return this;
+    }
+
+    /**
+     * Adds a sort order by a text, ignoring case. Ties are broken by ID.
+     * 
+     * @param name Name of the order, e.g. "name"
+     * @param key  The text to sort by
+     * @return This listing, so orders can be chained
+     */
+    public SortedListing<T> addTextOrder(String name, Function<T, String> key) {
+        views.put(name, new View(Comparator.comparing(key, String.CASE_INSENSITIVE_ORDER)
+                .thenComparingInt(repository::idOf), key, text -> text,
+                (item, cursorKey) -> String.CASE_INSENSITIVE_ORDER.compare(key.apply(item), (String) cursorKey)));
+        return this;
+    }
+
+    /**
+     * @return Names of the sort orders, in the order they were added
+     */
+    public List<String> getOrders() {
+        return Collections.unmodifiableList(new ArrayList<>(views.keySet()));
+    }
+
+    /**
+     * Returns one page of the listing
+     * 
+     * @param order    Name of the sort order
+     * @param after    Last record of the previous page, or null for the first
+     *                 page
+     * @param pageSize Maximum number of records on the page
+     * @return The records that follow the cursor
+     * @throws IllegalArgumentException If the order is unknown or the page
+     *                                  size is not positive
+     */
+    public Page<T> page(String order, T after, int pageSize) {
+        View view = view(order, pageSize);
+        // The read lock keeps the repository (and the sort keys) still while
+        // the first page sorts and while the page is copied out; readers
+        // only synchronize on the view, after taking the lock
+        Lock guard = repository.getLock().readLock();
+        guard.lock();
+        try {
+            return view.sorted().page(after == null ? item -> true
+                    : item -> view.order.compare(item, after) > 0, pageSize);
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * Returns the page that follows a cursor token (see cursor()). The record
+     * the token was made from does not have to exist any more.
+     * 
+     * A bare ID is also accepted for an order that is not by ID; that record
+     * is then looked up and must still exist.
+     * 
+     * @param order    Name of the sort order
+     * @param cursor   Cursor token of the previous page, or null for the
+     *                 first page
+     * @param pageSize Maximum number of records on the page
+     * @return The records that follow the cursor
+     * @throws IllegalArgumentException If the order is unknown, the page
+     *                                  size is not positive or the token
+     *                                  is malformed
+     */
+    public Page<T> pageAfter(String order, String cursor, int pageSize) {
+        View view = view(order, pageSize);
+        if (cursor == null) {
+            return page(order, null, pageSize);
+        }
+        int colon = cursor.indexOf(':');
+        int id = parseId(colon < 0 ? cursor : cursor.substring(0, colon), cursor);
+        if (colon < 0 && view.keyText != null) {
+            T after = repository.get(id);
+            if (after == null) {
+                throw new IllegalArgumentException("after: " + id + " not found");
+            }
+            return page(order, after, pageSize);
+        }
+        if (colon >= 0 && view.keyText == null) {
+            throw new IllegalArgumentException("after: '" + cursor + "' is not a cursor of the " + order + " order");
+        }
+        Object key;
+        try {
+            key = view.keyText == null ? null : view.parseKey.apply(cursor.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("after: '" + cursor + "' is not a cursor of the " + order + " order");
+        }
+        Lock guard = repository.getLock().readLock();
+        guard.lock();
+        try {
+            // The cursor's record may be gone: compare with its key and ID
+            return view.sorted().page(item -> {
+                int c = key == null ? 0 : view.compareKey.compare(item, key);
+                return (c != 0 ? c : Integer.compare(repository.idOf(item), id)) > 0;
+            }, pageSize);
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * Makes the cursor token of a record: its ID, then for an order that is
+     * not by ID a colon and its sort key
+     * 
+     * @param order Name of the sort order
+     * @param last  Last record of a page
+     * @return The token to pass to pageAfter() for the next page
+     * @throws IllegalArgumentException If the order is unknown
+     */
+    public String cursor(String order, T last) {
+        View view = view(order, 1);
+        String id = String.valueOf(repository.idOf(last));
+        return view.keyText == null ? id : id + ":" + view.keyText.apply(last);
+    }
+
+    private View view(String order, int pageSize) {
+        View view = views.get(order);
+        if (view == null) {
+            throw new IllegalArgumentException("unknown sort order '" + order + "' (use one of "
+                    + String.join(", ", views.keySet()) + ")");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("page size must be positive");
+        }
+        return view;
+    }
+
+    private static int parseId(String id, String cursor) {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("after: '" + cursor + "' is not a cursor (ID or ID:key)");
+        }
+    }
+
+    // ==================== CHANGES (write lock held) ====================
+
+    /**
+     * Inserts a new entity into every order sorted so far
+     */
+    void added(T item) {
+        for (View view : views.values()) {
+            if (view.sorted != null) {
+                view.sorted.add(item);
+            }
+        }
+    }
+
+    /**
+     * Takes a deleted entity out of every order sorted so far
+     */
+    void removed(T item) {
+        for (View view : views.values()) {
+            if (view.sorted != null) {
+                view.sorted.remove(item);
+            }
+        }
+    }
+
+    /**
+     * Called before a sort key of a stored entity changes (its sort keys are
+     * still the old ones); changed() puts it back
+     */
+    void changing(T item) {
+        removed(item);
+    }
+
+    /**
+     * Called after a sort key of a stored entity changed
+     */
+    void changed(T item) {
+        added(item);
+    }
+
+    /**
+     * Forgets every sorted order; the next page sorts again
+     */
+    void cleared() {
+        for (View view : views.values()) {
+            view.sorted = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] toArray() {
+        return (T[]) repository.values().toArray();
+    }
+}
@@ -0,0 +1,407 @@
+package com.college.repository;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataSnapshot.ClassroomRecord;
+import com.college.repository.DataSnapshot.StudentRecord;
+import com.college.repository.DataSnapshot.TeacherRecord;
+import com.college.util.IntHashSet;
+import com.college.util.IntObjectMap;
+import com.college.util.StringDictionary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+/**
+ * CLASS: StoreCounters
+ * 
+ * Running totals of the store for dashboards: how many students, teachers,
+ * classes and enrollments there are, how many students each course has, and
+ * how many classes and students each teacher has.
+ * 
+ * CONCEPT DEMONSTRATED: MATERIALIZED AGGREGATES
+ * - Counting the students of a course by looking at every student costs
+ * O(students) for every question
+ * - These counters are kept up to date instead: the DataStore adjusts them by
+ * one on every change (a student added, enrolled, moved to another course,
+ * a teacher assigned, a class deleted ...), so each change costs O(1) more
+ * and each question is answered in O(1)
+ * - Students per course is an int[] indexed by the course's code in
+ * Student.COURSES, so no String is hashed or compared on a change
+ * 
+ * CONCEPT DEMONSTRATED: CROSS-CHECK
+ * - Counters that are only ever adjusted go wrong silently if one change is
+ * forgotten. of(snapshot) computes the same figures from scratch, and
+ * differences() lists every figure on which the two disagree (see
+ * DataStore.checkCounters()).
+ * 
+ * The DataStore changes the counters under its write lock; the getters take
+ * its read lock.
+ */
+public final class StoreCounters {
+
+    // Index of each figure in a teacher's load
+    private static final int CLASSES = 0;
+    private static final int STUDENTS = 1;
+
+    private final ReadWriteLock lock;
+
+    private int students;
+    private int teachers;
+    private int classrooms;
+    private int enrollments;
+    private int emptyClassrooms;
+    private int unassignedClassrooms;
+    // Course code (Student.COURSES) -> number of students
+    private int[] studentsPerCourse = new int[16];
+    // Teacher ID -> { classes, students } of the classes they teach
+    private final IntObjectMap<int[]> teacherLoads = new IntObjectMap<>();
+
+    /**
+     * @param lock The lock of the store the counters belong to
+     */
+    StoreCounters(ReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * Computes the counters from scratch, by looking at every record of a
+     * snapshot
+     * 
+     * @param snapshot The data
+     * @return Counters for the snapshot, not connected to any store
+     */
+    public static StoreCounters of(DataSnapshot snapshot) {
+        StoreCounters counters = new StoreCounters(new ReentrantReadWriteLock());
+        for (StudentRecord s : snapshot.getStudents()) {
+            counters.students++;
+            counters.course(s.getCourseCode(), 1);
+        }
+        for (TeacherRecord t : snapshot.getTeachers()) {
+            counters.teachers++;
+            int[] load = counters.load(t.getId());
+            for (int classroomId : t.getClassIds()) {
+                ClassroomRecord c = snapshot.classroom(classroomId);
+                load[CLASSES]++;
+                load[STUDENTS] += c == null ? 0 : c.getStudentCount();
+            }
+        }
+        for (ClassroomRecord c : snapshot.getClassrooms()) {
+            counters.classrooms++;
+            counters.enrollments += c.getStudentCount();
+            if (c.getStudentCount() == 0) {
+                counters.emptyClassrooms++;
+            }
+            if (!c.hasTeacher()) {
+                counters.unassignedClassrooms++;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * @return A copy of the counters as they are now, not connected to any
+     *         store
+     */
+    StoreCounters copy() {
+        StoreCounters copy = new StoreCounters(new ReentrantReadWriteLock());
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            copy.students = students;
+            copy.teachers = teachers;
+            copy.classrooms = classrooms;
+            copy.enrollments = enrollments;
+            copy.emptyClassrooms = emptyClassrooms;
+            copy.unassignedClassrooms = unassignedClassrooms;
+            copy.studentsPerCourse = studentsPerCourse.clone();
+            for (int id : teacherLoads.keysToArray()) {
+                copy.teacherLoads.put(id, teacherLoads.get(id).clone());
+            }
+        } finally {
+            guard.unlock();
+        }
+        return copy;
+    }
+
+    // ==================== QUERIES ====================
+
+    public int getStudentCount() {
+        return read(() -> students);
+    }
+
+    public int getTeacherCount() {
+        return read(() -> teachers);
+    }
+
+    public int getClassroomCount() {
+        return read(() -> classrooms);
+    }
+
+    /**
+     * @return Sum of all class sizes (a student in two classes counts twice)
+     */
+    public int getEnrollmentCount() {
+        return read(() -> enrollments);
+    }
+
+    /**
+     * @return Number of classes without students
+     */
+    public int getEmptyClassroomCount() {
+        return read(() -> emptyClassrooms);
+    }
+
+    /**
+     * @return Number of classes without a teacher
+     */
+    public int getUnassignedClassroomCount() {
+        return read(() -> unassignedClassrooms);
+    }
+
+    /**
+     * @param course A course (exact spelling)
+     * @return Number of students taking it
+     */
+    public int studentsInCourse(String course) {
+        int code = Student.COURSES.codeOf(course);
+        return code == StringDictionary.NO_CODE ? 0 : read(() -> code < studentsPerCourse.length
+                ? studentsPerCourse[code] : 0);
+    }
+
+    /**
+     * @return Number of students of every course that has any, sorted by
+     *         course
+     */
+    public SortedMap<String, Integer> getStudentsPerCourse() {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            SortedMap<String, Integer> result = new TreeMap<>();
+            for (int code = 0; code < studentsPerCourse.length; code++) {
+                if (studentsPerCourse[code] > 0) {
+                    result.put(Student.COURSES.decode(code), studentsPerCourse[code]);
+                }
+            }
+            return result;
+        } finally {
+            guard.unlock();
+        }
+    }
+
+    /**
+     * @param teacherId Teacher ID
+     * @return Number of classes the teacher is assigned to
+     */
+    public int classesOfTeacher(int teacherId) {
+        return read(() -> figure(teacherId, CLASSES));
+    }
+
+    /**
+     * @param teacherId Teacher ID
+     * @return Total number of students in the teacher's classes
+     */
+    public int studentsOfTeacher(int teacherId) {
+        return read(() -> figure(teacherId, STUDENTS));
+    }
+
+    /**
+     * Compares these counters with others, usually ones recomputed by
+     * of(snapshot) from the same data
+     * 
+     * @param other The counters to compare with
+     * @return One line per figure that differs, e.g. "students in Physics:
+     *         120 counted, 121 recomputed" (empty if all agree)
+     */
+    public List<String> differences(StoreCounters other) {
+        List<String> result = new ArrayList<>();
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            compare(result, "students", students, other.students);
+            compare(result, "teachers", teachers, other.teachers);
+            compare(result, "classes", classrooms, other.classrooms);
+            compare(result, "enrollments", enrollments, other.enrollments);
+            compare(result, "empty classes", emptyClassrooms, other.emptyClassrooms);
+            compare(result, "classes without teacher", unassignedClassrooms, other.unassignedClassrooms);
+            int courses = Math.max(studentsPerCourse.length, other.studentsPerCourse.length);
+            int[] mine = Arrays.copyOf(studentsPerCourse, courses);
+            int[] theirs = Arrays.copyOf(other.studentsPerCourse, courses);
+            for (int code = 0; code < courses; code++) {
+                compare(result, "students in " + Student.COURSES.decode(code), mine[code], theirs[code]);
+            }
+            IntHashSet teacherIds = new IntHashSet(teacherLoads.size());
+            for (int id : teacherLoads.keysToArray()) {
+                teacherIds.add(id);
+            }
+            for (int id : other.teacherLoads.keysToArray()) {
+                teacherIds.add(id);
+            }
+            int[] ids = teacherIds.toArray();
+            Arrays.sort(ids);
+            for (int id : ids) {
+                compare(result, "classes of teacher " + id, figure(id, CLASSES), other.figure(id, CLASSES));
+                compare(result, "students of teacher " + id, figure(id, STUDENTS), other.figure(id, STUDENTS));
+            }
+        } finally {
+            guard.unlock();
+        }
+        return result;
+    }
+
+    // ==================== CHANGES (write lock held) ====================
+
+    void studentAdded(Student s) {
+        students++;
+        course(s.getCourseCode(), 1);
+    }
+
+    void studentDeleted(Student s) {
+        students--;
+        course(s.getCourseCode(), -1);
+    }
+
+    void courseChanged(int oldCode, int newCode) {
+        course(oldCode, -1);
+        course(newCode, 1);
+    }
+
+    void teacherAdded(Teacher t) {
+        teachers++;
+        load(t.getId());
+    }
+
+    /**
+     * Called after the teacher was un-assigned from all their classes
+     */
+    void teacherDeleted(Teacher t) {
+        teachers--;
+        teacherLoads.remove(t.getId());
+    }
+
+    void classroomAdded(Classroom c) {
+        classrooms++;
+        classroomCounted(c, 1);
+    }
+
+    /**
+     * Called with the classroom's students and teacher still in it
+     */
+    void classroomDeleted(Classroom c) {
+        classrooms--;
+        classroomCounted(c, -1);
+    }
+
+    /**
+     * Called after the student was added to the classroom
+     */
+    void enrolled(Classroom c) {
+        enrollments++;
+        if (c.getStudentCount() == 1) {
+            emptyClassrooms--;
+        }
+        if (c.getTeacher() != null) {
+            load(c.getTeacher().getId())[STUDENTS]++;
+        }
+    }
+
+    /**
+     * Called after the student was removed from the classroom
+     */
+    void unenrolled(Classroom c) {
+        enrollments--;
+        if (c.getStudentCount() == 0) {
+            emptyClassrooms++;
+        }
+        if (c.getTeacher() != null) {
+            load(c.getTeacher().getId())[STUDENTS]--;
+        }
+    }
+
+    void teacherAssigned(Classroom c, Teacher previous, Teacher current) {
+        taught(c, previous, -1);
+        taught(c, current, 1);
+    }
+
+    void clear() {
+        students = 0;
+        teachers = 0;
+        classrooms = 0;
+        enrollments = 0;
+        emptyClassrooms = 0;
+        unassignedClassrooms = 0;
+        studentsPerCourse = new int[16];
+        teacherLoads.clear();
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    private void classroomCounted(Classroom c, int sign) {
+        enrollments += sign * c.getStudentCount();
+        if (c.getStudentCount() == 0) {
+            emptyClassrooms += sign;
+        }
+        taught(c, c.getTeacher(), sign);
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) a classroom from a teacher's load, or
+     * from the unassigned classrooms if teacher is null
+     */
+    private void taught(Classroom c, Teacher teacher, int sign) {
+        if (teacher == null) {
+            unassignedClassrooms += sign;
+        } else {
+            int[] load = load(teacher.getId());
+            load[CLASSES] += sign;
+            load[STUDENTS] += sign * c.getStudentCount();
+        }
+    }
+
+    private void course(int code, int change) {
+        if (code == StringDictionary.NO_CODE) {
+            return;
+        }
+        if (code >= studentsPerCourse.length) {
+            studentsPerCourse = Arrays.copyOf(studentsPerCourse, Math.max(code + 1, studentsPerCourse.length * 2));
+        }
+        studentsPerCourse[code] += change;
+    }
+
+    private int[] load(int teacherId) {
+        int[] load = teacherLoads.get(teacherId);
+        if (load == null) {
+            load = new int[2];
+            teacherLoads.put(teacherId, load);
+        }
+        return load;
+    }
+
+    private int figure(int teacherId, int index) {
+        int[] load = teacherLoads.get(teacherId);
+        return load == null ? 0 : load[index];
+    }
+
+    private static void compare(List<String> result, String figure, int counted, int recomputed) {
+        if (counted != recomputed) {
+            result.add(figure + ": " + counted + " counted, " + recomputed + " recomputed");
+        }
+    }
+
+    private int read(IntSupplier figure) {
+        Lock guard = lock.readLock();
+        guard.lock();
+        try {
+            return figure.getAsInt();
+        } finally {
+            guard.unlock();
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.college.repository;
+
+import com.college.model.Student;
+import com.college.repository.DataSnapshot.StudentRecord;
+import com.college.util.StringDictionary;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * CLASS: StudentColumns
+ * 
+ * All students stored column by column, for reports that read every student
+ * (counts and averages per course, age histograms). Get the current one with
+ * DataStore.studentColumns(); it is read-only and can be used without a lock.
+ * 
+ * CONCEPT DEMONSTRATED: COLUMNAR STORAGE (STRUCT OF ARRAYS)
+ * - A list of Student objects is an array of pointers to objects spread over
+ * the heap, each with an object header and pointers to a name String and a
+ * course String. Averaging the ages means following a pointer per student,
+ * and every cache line read is mostly data the average does not need.
+ * - Here each field is one primitive array: ids[i], ages[i] and
+ * courseCodes[i] describe the i-th student. A scan of the ages reads one
+ * short[] from start to end, which the CPU prefetches at memory speed.
+ * - Names are packed back to back into one byte[] (UTF-8), with the start of
+ * each name in an int[]; a String is only made when a name is asked for
+ * 
+ * CONCEPT DEMONSTRATED: DICTIONARY ENCODING
+ * - There are few distinct courses but many students, so a student's course
+ * is stored as its code in the shared Student.COURSES dictionary
+ * - Grouping by course then counts into an array indexed by code instead of
+ * hashing a String per student
+ * 
+ * CONCEPT DEMONSTRATED: FLYWEIGHT
+ * - There is no object per student. A View points at one row and reads the
+ * columns at that row; forEach() moves a single View over all the rows.
+ * Keep a View's values, not the View, if they are needed after the call.
+ * 
+ * The columns are a second, read-only copy of the students, built from a
+ * snapshot and cached by the DataStore next to the Student objects; they do
+ * not replace them. Scans are faster because each column is small and
+ * contiguous (14 bytes plus the name per student, where a Student object
+ * with its name String is about 90 bytes, see bench/HeapFootprint), but the
+ * copy adds to the heap the store already uses, it does not save any.
+ */
+public final class StudentColumns {
+
+    /** Code returned by codeOfCourse() for a course no student has */
+    public static final int NO_CODE = StringDictionary.NO_CODE;
+
+    private final long version;
+    private final int size;
+    private final int[] ids;
+    private final short[] ages;
+    private final int[] courseCodes;
+    private final int courseCount; // Course codes are below this
+    private final byte[] names;
+    private final int[] nameStarts; // Name i is names[nameStarts[i] .. nameStarts[i + 1])
+
+    private StudentColumns(Builder builder, long version) {
+        this.version = version;
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.courseCodes = Arrays.copyOf(builder.courseCodes, size);
+        this.courseCount = builder.maxCourseCode + 1;
+        this.names = Arrays.copyOf(builder.names, builder.nameLength);
+        this.nameStarts = Arrays.copyOf(builder.nameStarts, size + 1);
+    }
+
+    /**
+     * Stores the students of a snapshot, in ID order
+     * 
+     * @param snapshot A snapshot of the data
+     * @return The students of the snapshot as columns
+     */
+    public static StudentColumns of(DataSnapshot snapshot) {
+        Builder builder = new Builder(snapshot.getStudents().size());
+        for (StudentRecord s : snapshot.getStudents()) {
+            builder.add(s.getId(), s.getName(), s.getAge(), s.getCourseCode());
+        }
+        return builder.build(snapshot.getVersion());
+    }
+
+    /**
+     * @return Version of the snapshot the columns were made from, or -1 if
+     *         they were built by hand
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Number of students (rows)
+     */
+    public int size() {
+        return size;
+    }
+
+    // ==================== ROWS ====================
+
+    /**
+     * @param row Row number, 0 to size() - 1
+     * @return ID of the student in that row
+     */
+    public int id(int row) {
+        return ids[row];
+    }
+
+    /**
+     * @param row Row number
+     * @return Age of the student in that row
+     */
+    public int age(int row) {
+        return ages[row];
+    }
+
+    /**
+     * @param row Row number
+     * @return Course code of the student in that row (see course(int))
+     */
+    public int courseCode(int row) {
+        return courseCodes[row];
+    }
+
+    /**
+     * @param row Row number
+     * @return Name of the student in that row (decoded into a new String)
+     */
+    public String name(int row) {
+        int start = nameStarts[row];
+        return new String(names, start, nameStarts[row + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Calls the action once per row, in row order, with the same View moved
+     * to each row
+     * 
+     * @param action Receives the View
+     */
+    public void forEach(Consumer<? super View> action) {
+        View view = new View();
+        for (int row = 0; row < size; row++) {
+            view.row = row;
+            action.accept(view);
+        }
+    }
+
+    /**
+     * @param row Row number
+     * @return A new View at that row
+     */
+    public View view(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        View view = new View();
+        view.row = row;
+        return view;
+    }
+
+    /**
+     * A student read from the columns: one row, without copying it
+     */
+    public final class View {
+        private int row;
+
+        private View() {
+        }
+
+        /**
+         * @return Row this view is at
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * Moves the view to another row
+         * 
+         * @param row Row number
+         * @return This view
+         */
+        public View moveTo(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("row " + row + " of " + size);
+            }
+            this.row = row;
+            return this;
+        }
+
+        public int getId() {
+            return ids[row];
+        }
+
+        public String getName() {
+            return name(row);
+        }
+
+        public int getAge() {
+            return ages[row];
+        }
+
+        public int getCourseCode() {
+            return courseCodes[row];
+        }
+
+        public String getCourse() {
+            return Student.COURSES.decode(courseCodes[row]);
+        }
+
+        /**
+         * @return A new Student with this row's values
+         */
+        public Student toStudent() {
+            return new Student(getId(), getName(), getAge(), getCourse());
+        }
+    }
+
+    // ==================== COURSE DICTIONARY ====================
+
+    /**
+     * @return 1 + the highest course code in the columns; the arrays returned
+     *         by the ...ByCourseCode() methods have this length
+     */
+    public int courseCount() {
+        return courseCount;
+    }
+
+    /**
+     * @param code A course code
+     * @return The course text
+     */
+    public String course(int code) {
+        return Student.COURSES.decode(code);
+    }
+
+    /**
+     * @param course Course text (exact, case-sensitive)
+     * @return Its code, or NO_CODE if no student has that course
+     */
+    public int codeOfCourse(String course) {
+        int code = Student.COURSES.codeOf(course);
+        return code < courseCount ? code : NO_CODE;
+    }
+
+    // ==================== AGGREGATIONS ====================
+    // Each is one pass over one or two primitive arrays
+
+    /**
+     * @param course Course text (exact)
+     * @return Number of students in the course
+     */
+    public int countInCourse(String course) {
+        int code = codeOfCourse(course);
+        if (code == NO_CODE) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (courseCodes[i] == code) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of students per course code
+     */
+    public int[] countByCourseCode() {
+        int[] counts = new int[courseCount];
+        for (int i = 0; i < size; i++) {
+            counts[courseCodes[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * @return Sum of the ages per course code
+     */
+    public long[] ageSumByCourseCode() {
+        long[] sums = new long[courseCount];
+        for (int i = 0; i < size; i++) {
+            sums[courseCodes[i]] += ages[i];
+        }
+        return sums;
+    }
+
+    /**
+     * @return Number of students per course, sorted by course
+     */
+    public Map<String, Integer> countByCourse() {
+        int[] counts = countByCourseCode();
+        Map<String, Integer> result = new TreeMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(course(code), counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Average age per course, sorted by course
+     */
+    public Map<String, Double> averageAgeByCourse() {
+        int[] counts = countByCourseCode();
+        long[] sums = ageSumByCourseCode();
+        Map<String, Double> result = new TreeMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.put(course(code), (double) sums[code] / counts[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Average age of all students (0 if there are none)
+     */
+    public double averageAge() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += ages[i];
+        }
+        return size == 0 ? 0 : (double) sum / size;
+    }
+
+    /**
+     * @return Number of students of each age: index = age, up to the oldest
+     *         student's age
+     */
+    public int[] ageHistogram() {
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, ages[i]);
+        }
+        int[] histogram = new int[max + 1];
+        for (int i = 0; i < size; i++) {
+            histogram[ages[i]]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * @return Bytes held by the columns (array contents, not headers)
+     */
+    public long dataBytes() {
+        return 4L * size + 2L * size + 4L * size + names.length + 4L * (size + 1);
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Collects students row by row. Not thread-safe.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids;
+        private short[] ages;
+        private int[] courseCodes;
+        private int maxCourseCode = -1;
+        private byte[] names;
+        private int nameLength;
+        private int[] nameStarts;
+
+        /**
+         * Creates an empty builder
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * @param expectedSize Number of students expected
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(1, expectedSize);
+            ids = new int[capacity];
+            ages = new short[capacity];
+            courseCodes = new int[capacity];
+            nameStarts = new int[capacity + 1];
+            names = new byte[capacity * 12];
+        }
+
+        /**
+         * @param s A student
+         * @return This builder
+         */
+        public Builder add(Student s) {
+            return add(s.getId(), s.getName(), s.getAge(), s.getCourseCode());
+        }
+
+        /**
+         * Adds a row
+         * 
+         * @param id     Student ID
+         * @param name   Name
+         * @param age    Age (0 to 32767)
+         * @param course Course
+         * @return This builder
+         */
+        public Builder add(int id, String name, int age, String course) {
+            return add(id, name, age, Student.COURSES.encode(course));
+        }
+
+        Builder add(int id, String name, int age, int courseCode) {
+            if (courseCode == NO_CODE) {
+                throw new IllegalArgumentException("no course for student " + id);
+            }
+            if (age < 0 || age > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("age out of range for student " + id + ": " + age);
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                courseCodes = Arrays.copyOf(courseCodes, capacity);
+                nameStarts = Arrays.copyOf(nameStarts, capacity + 1);
+            }
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameLength + bytes.length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, nameLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, names, nameLength, bytes.length);
+            nameLength += bytes.length;
+
+            ids[size] = id;
+            ages[size] = (short) age;
+            courseCodes[size] = courseCode;
+            maxCourseCode = Math.max(maxCourseCode, courseCode);
+            size++;
+            nameStarts[size] = nameLength;
+            return this;
+        }
+
+        /**
+         * @return The columns, in the order the rows were added
+         */
+        public StudentColumns build() {
+            return build(-1);
+        }
+
+        StudentColumns build(long version) {
+            return new StudentColumns(this, version);
+        }
+    }
+}
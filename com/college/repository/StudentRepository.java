@@ -0,0 +1,19 @@
+package com.college.repository;
+
+import com.college.model.Student;
+
+/**
+ * CLASS: StudentRepository
+ * 
+ * Stores all students in memory, indexed by student ID.
+ * 
+ * CONCEPT DEMONSTRATED: INHERITANCE
+ * - Extends the generic Repository class and only supplies the ID accessor
+ */
+public class StudentRepository extends Repository<Student> {
+
+    @Override
+    protected int idOf(Student student) {
+        return student.getId();
+    }
+}
@@ -0,0 +1,19 @@
+package com.college.repository;
+
+import com.college.model.Teacher;
+
+/**
+ * CLASS: TeacherRepository
+ * 
+ * Stores all teachers in memory, indexed by teacher ID.
+ * 
+ * CONCEPT DEMONSTRATED: INHERITANCE
+ * - Extends the generic Repository class and only supplies the ID accessor
+ */
+public class TeacherRepository extends Repository<Teacher> {
+
+    @Override
+    protected int idOf(Teacher teacher) {
+        return teacher.getId();
+    }
+}
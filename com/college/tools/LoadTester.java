@@ -0,0 +1,311 @@
+package com.college.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TOOL: LoadTester
+ * 
+ * Sends requests to a running ApiServer from many clients at once and
+ * reports how many requests per second it answered and how long they took.
+ * 
+ * Start the server first, e.g. on data made with RosterGenerator:
+ * <pre>
+ *   java -cp bin com.college.main.CollegeManagementSystem --serve 8080 --no-console
+ *   java -cp bin com.college.tools.LoadTester --url http://localhost:8080 --clients 32 --seconds 20
+ * </pre>
+ * 
+ * CONCEPT DEMONSTRATED: CLOSED-LOOP LOAD TEST
+ * - Each client thread sends a request, waits for the answer and sends the
+ * next one, over a kept-alive connection
+ * - The mix is mostly reads (one student, one class, a page of the name
+ * listing); --writes sets the percentage of updates (PUT of a student's age),
+ * which wait for the journal's disk flush
+ * - Requests during the warm-up are not counted, so the figures show the
+ * server after the JIT compiler has done its work
+ * 
+ * CONCEPT DEMONSTRATED: PERCENTILES
+ * - An average hides the slow requests; p99 is the time that 99% of requests
+ * beat, i.e. what one user in a hundred waits for at least
+ * - Every latency is kept (one long per request), then all are sorted once
+ * at the end, so the percentiles are exact
+ */
+public class LoadTester {
+
+    private static final Pattern TOTAL = Pattern.compile("\"total\":(\\d+)");
+
+    // Options (see printUsage)
+    private String url = "http://localhost:8080";
+    private int clients = 16;
+    private int seconds = 10;
+    private int warmup = 3;
+    private int writes = 5;
+    private long seed = 42;
+
+    // Highest IDs to pick from, found by asking the server for its totals
+    private int studentCount;
+    private int classCount;
+
+    /**
+     * What one client measured
+     */
+    private static class ClientResult {
+        long[] latencies = new long[1 << 14];
+        int count;
+        final Map<Integer, Integer> statuses = new TreeMap<>();
+        String error;
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            statuses.merge(status, 1, Integer::sum);
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadTester tester = new LoadTester();
+        try {
+            if (!tester.parseArgs(args)) {
+                printUsage();
+                return;
+            }
+            tester.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error talking to " + tester.url + ": " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java -cp bin com.college.tools.LoadTester [options]");
+        System.out.println("  --url URL         server address (default http://localhost:8080)");
+        System.out.println("  --clients N       concurrent clients (default 16)");
+        System.out.println("  --seconds N       measured duration (default 10)");
+        System.out.println("  --warmup N        seconds before measuring starts (default 3)");
+        System.out.println("  --writes P        percent of requests that update a student (default 5)");
+        System.out.println("  --seed N          random seed (default 42)");
+    }
+
+    /**
+     * @return false if help was requested
+     */
+    private boolean parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--help") || option.equals("-h")) {
+                return false;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--url":
+                        url = value.replaceAll("/+$", "");
+                        break;
+                    case "--clients":
+                        clients = Integer.parseInt(value);
+                        break;
+                    case "--seconds":
+                        seconds = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(value);
+                        break;
+                    case "--writes":
+                        writes = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad number for " + option + ": " + value);
+            }
+        }
+        if (clients < 1 || seconds < 1 || warmup < 0 || writes < 0 || writes > 100) {
+            throw new IllegalArgumentException("clients and seconds must be positive, writes 0-100");
+        }
+        return true;
+    }
+
+    private void run() throws IOException, InterruptedException {
+        // HttpURLConnection keeps only 5 idle connections by default; the
+        // other clients would open a new connection for every request
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+        studentCount = total("/students?size=1");
+        classCount = total("/classes?size=1");
+        if (studentCount == 0) {
+            throw new IOException("the server has no students to load-test with");
+        }
+        System.out.printf("%d clients, %d%% writes, %d s warm-up + %d s against %s (%,d students, %,d classes)%n",
+                clients, writes, warmup, seconds, url, studentCount, classCount);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup * 1_000_000_000L;
+        long end = measureFrom + seconds * 1_000_000_000L;
+        ClientResult[] results = new ClientResult[clients];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            ClientResult result = new ClientResult();
+            Random random = new Random(seed + i);
+            results[i] = result;
+            threads[i] = new Thread(() -> runClient(random, measureFrom, end, result), "client-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        report(results);
+    }
+
+    /**
+     * Sends requests until the end time; records those after measureFrom
+     */
+    private void runClient(Random random, long measureFrom, long end, ClientResult result) {
+        byte[] buffer = new byte[8192];
+        try {
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                int status = sendOne(random, buffer);
+                long done = System.nanoTime();
+                if (now >= measureFrom) {
+                    result.record(done - now, status);
+                }
+            }
+        } catch (IOException e) {
+            result.error = e.toString();
+        }
+    }
+
+    /**
+     * One request of the mix
+     * 
+     * @return The HTTP status of the answer
+     */
+    private int sendOne(Random random, byte[] buffer) throws IOException {
+        int roll = random.nextInt(100);
+        int studentId = 1 + random.nextInt(studentCount);
+        if (roll < writes) {
+            String body = "{\"age\":" + (18 + random.nextInt(10)) + "}";
+            return send("PUT", "/students/" + studentId, body, buffer);
+        }
+        if (roll < writes + (100 - writes) / 10 && classCount > 0) {
+            return send("GET", "/classes/" + (1 + random.nextInt(classCount)), null, buffer);
+        }
+        if (roll < writes + (100 - writes) / 5) {
+            return send("GET", "/students?sort=name&size=20&after=" + studentId, null, buffer);
+        }
+        return send("GET", "/students/" + studentId, null, buffer);
+    }
+
+    /**
+     * Sends a request and reads the whole answer, so the connection can be
+     * reused for the next request (HttpURLConnection keeps it alive)
+     */
+    private int send(String method, String path, String body, byte[] buffer) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                while (stream.read(buffer) >= 0) {
+                    // Drain the answer
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * @return The "total" of a listing page
+     */
+    private int total(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("GET " + path + " answered " + connection.getResponseCode());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        Matcher matcher = TOTAL.matcher(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        if (!matcher.find()) {
+            throw new IOException("GET " + path + " has no total");
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private void report(ClientResult[] results) {
+        int count = 0;
+        for (ClientResult result : results) {
+            count += result.count;
+        }
+        long[] all = new long[count];
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        int position = 0;
+        for (ClientResult result : results) {
+            System.arraycopy(result.latencies, 0, all, position, result.count);
+            position += result.count;
+            result.statuses.forEach((status, n) -> statuses.merge(status, n, Integer::sum));
+            if (result.error != null) {
+                System.out.println("Client stopped early: " + result.error);
+            }
+        }
+        if (count == 0) {
+            System.out.println("No requests completed.");
+            return;
+        }
+        Arrays.sort(all);
+        System.out.printf("Requests:   %,d (%,.0f per second)%n", count, count / (double) seconds);
+        System.out.printf("Latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9),
+                all[count - 1] / 1e6);
+        System.out.println("Statuses:   " + statuses);
+    }
+
+    /**
+     * @return The latency (ms) that the given percent of requests did not
+     *         exceed (nearest-rank method)
+     */
+    private static double percentile(long[] sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+}
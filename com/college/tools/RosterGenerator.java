@@ -0,0 +1,456 @@
+package com.college.tools;
+
+import com.college.util.BinarySnapshot;
+import com.college.util.IntHashSet;
+import com.college.util.RecordWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TOOL: RosterGenerator
+ * 
+ * Creates large, realistic-looking data files for load and scale testing,
+ * instead of typing records into the menus.
+ * 
+ * CONCEPT DEMONSTRATED: STREAMING OUTPUT
+ * - Every record is written as soon as it is generated; nothing is kept in a
+ * list, so tens of millions of rows need no more memory than a few
+ * - Only a single classroom's student IDs are held at any time
+ * 
+ * CONCEPT DEMONSTRATED: DETERMINISTIC RANDOMNESS
+ * - All random choices come from java.util.Random with a fixed seed, so the
+ * same options always produce exactly the same files
+ * - Each section (students, teachers, classrooms) has its own generator, so
+ * changing the number of teachers does not change the students
+ * 
+ * DISTRIBUTIONS
+ * - Courses and subjects follow a Zipf-like popularity curve: the first
+ * course in the list is the most popular (--course-skew, 0 = all equal)
+ * - Class sizes can be skewed the same way (--class-skew): classroom 1 becomes
+ * a big lecture hall and later classes get smaller; the average stays
+ * close to --class-size
+ * - Ages are mostly 17-23, with a few mature students
+ * - A fraction of names can be written "Last, First" (--comma-names), which
+ * tests the quoting of fields that contain commas
+ * 
+ * Usage:
+ * <pre>
+ *   java -cp bin com.college.tools.RosterGenerator --students 1000000 --format both --out data
+ * </pre>
+ * Run with --help for all options.
+ */
+public class RosterGenerator {
+
+    private static final String[] COURSES = { "Computer Science", "Mathematics", "Business",
+            "Engineering", "Biology", "Psychology", "Economics", "Physics", "Chemistry", "History",
+            "English Literature", "Nursing", "Law", "Architecture", "Philosophy", "Music",
+            "Political Science", "Sociology", "Art History", "Astronomy" };
+
+    private static final int CLASS_NUMBERS = 900; // Classes of a course are numbered 100-999
+
+    private static final String[] FIRST_NAMES = { "James", "Mary", "Wei", "Aisha", "Carlos",
+            "Priya", "John", "Fatima", "Liam", "Sofia", "Noah", "Yuki", "Omar", "Emma", "Chen",
+            "Olivia", "Mateo", "Amara", "Lucas", "Hana", "Ivan", "Zara", "Ethan", "Mei", "Diego",
+            "Leila", "Arjun", "Grace", "Kofi", "Elena" };
+
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Wang", "Khan", "Garcia",
+            "Patel", "Brown", "Ali", "Jones", "Rossi", "Miller", "Tanaka", "Hassan", "Davis", "Li",
+            "Wilson", "Lopez", "Okafor", "Martin", "Kim", "Petrov", "Ahmed", "Taylor", "Zhang",
+            "Fernandez", "Nguyen", "Singh", "Moore", "Mensah", "Novak" };
+
+    // Options (see printUsage)
+    private int students = 1000;
+    private int teachers = -1; // -1: one per 50 students
+    private int classrooms = -1; // -1: enough for two classes per student
+    private int classSize = 30;
+    private double classSkew = 0;
+    private double courseSkew = 1.0;
+    private double commaNames = 0;
+    private double unassigned = 0.05;
+    private long seed = 42;
+    private File outDir = new File(".");
+    private boolean text = true;
+    private boolean binary = false;
+
+    public static void main(String[] args) {
+        RosterGenerator generator = new RosterGenerator();
+        try {
+            if (!generator.parseArgs(args)) {
+                printUsage();
+                return;
+            }
+            generator.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error writing files: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java -cp bin com.college.tools.RosterGenerator [options]");
+        System.out.println("  --students N      number of students (default 1000)");
+        System.out.println("  --teachers N      number of teachers (default students / 50)");
+        System.out.println("  --classes N       number of classrooms (default 2 * students / class size)");
+        System.out.println("  --class-size N    average students per class (default 30)");
+        System.out.println("  --class-skew S    0 = equal class sizes, 1 = few huge lecture halls (default 0)");
+        System.out.println("  --course-skew S   0 = all courses equally popular (default 1)");
+        System.out.println("  --comma-names P   fraction of names written as \"Last, First\" (default 0)");
+        System.out.println("  --unassigned P    fraction of classes without a teacher (default 0.05)");
+        System.out.println("  --seed N          random seed; same seed = same files (default 42)");
+        System.out.println("  --out DIR         output folder (default: current folder)");
+        System.out.println("  --format F        text, binary or both (default text)");
+    }
+
+    /**
+     * @return false if help was requested
+     */
+    private boolean parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--help") || option.equals("-h")) {
+                return false;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--students":
+                        students = Integer.parseInt(value);
+                        break;
+                    case "--teachers":
+                        teachers = Integer.parseInt(value);
+                        break;
+                    case "--classes":
+                        classrooms = Integer.parseInt(value);
+                        break;
+                    case "--class-size":
+                        classSize = Integer.parseInt(value);
+                        break;
+                    case "--class-skew":
+                        classSkew = Double.parseDouble(value);
+                        break;
+                    case "--course-skew":
+                        courseSkew = Double.parseDouble(value);
+                        break;
+                    case "--comma-names":
+                        commaNames = Double.parseDouble(value);
+                        break;
+                    case "--unassigned":
+                        unassigned = Double.parseDouble(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--out":
+                        outDir = new File(value);
+                        break;
+                    case "--format":
+                        text = value.equals("text") || value.equals("both");
+                        binary = value.equals("binary") || value.equals("both");
+                        if (!text && !binary) {
+                            throw new IllegalArgumentException("unknown format " + value);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad number for " + option + ": " + value);
+            }
+        }
+        if (students < 0 || classSize < 1 || classSkew < 0 || courseSkew < 0) {
+            throw new IllegalArgumentException("counts and skews must not be negative");
+        }
+        if (teachers < 0) {
+            teachers = Math.max(1, students / 50);
+        }
+        if (classrooms < 0) {
+            classrooms = students == 0 ? 0 : (int) Math.max(1, 2L * students / classSize);
+        }
+        return true;
+    }
+
+    private void run() throws IOException {
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Cannot create folder " + outDir);
+        }
+        long start = System.nanoTime();
+        try (Output out = new Output()) {
+            generateStudents(out);
+            generateTeachers(out);
+            generateClassrooms(out);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long rows = (long) students + teachers + classrooms;
+            System.out.printf("Generated %,d students, %,d teachers, %,d classrooms (%,d enrollments) in %s%n",
+                    students, teachers, classrooms, out.enrollments, outDir.getPath());
+            System.out.printf("%.1f MB in %.1f s (%,.0f rows/s)%n", out.bytes() / (1024.0 * 1024.0), seconds,
+                    rows / Math.max(seconds, 1e-9));
+        }
+    }
+
+    // ==================== GENERATION ====================
+
+    private void generateStudents(Output out) throws IOException {
+        Random random = new Random(seed);
+        double[] coursePopularity = zipfCumulative(COURSES.length, courseSkew);
+        out.beginStudents(students);
+        for (int id = 1; id <= students; id++) {
+            out.student(id, randomName(random), randomAge(random), pick(coursePopularity, random));
+        }
+    }
+
+    private void generateTeachers(Output out) throws IOException {
+        Random random = new Random(seed + 1);
+        double[] subjectPopularity = zipfCumulative(COURSES.length, courseSkew);
+        out.beginTeachers(teachers);
+        for (int id = 1; id <= teachers; id++) {
+            out.teacher(id, randomName(random), pick(subjectPopularity, random));
+        }
+    }
+
+    private void generateClassrooms(Output out) throws IOException {
+        Random random = new Random(seed + 2);
+        double[] coursePopularity = zipfCumulative(COURSES.length, courseSkew);
+
+        // Class i gets a share of all enrollments proportional to 1 / i^skew
+        double totalWeight = 0;
+        for (int i = 1; i <= classrooms; i++) {
+            totalWeight += Math.pow(i, -classSkew);
+        }
+        double totalEnrollments = (double) classrooms * classSize;
+
+        out.beginClassrooms(classrooms);
+        int[] picked = new int[16];
+        for (int id = 1; id <= classrooms; id++) {
+            int course = pick(coursePopularity, random);
+            String name = className(course, id % CLASS_NUMBERS);
+            boolean hasTeacher = teachers > 0 && random.nextDouble() >= unassigned;
+            int teacherId = hasTeacher ? 1 + random.nextInt(teachers) : 0;
+
+            long size = Math.round(totalEnrollments * Math.pow(id, -classSkew) / totalWeight);
+            int count = (int) Math.max(Math.min(size, students), Math.min(1, students));
+            if (picked.length < count) {
+                picked = new int[Math.max(count, picked.length * 2)];
+            }
+            pickDistinct(count, students, random, picked);
+            out.classroom(id, name, course * CLASS_NUMBERS + id % CLASS_NUMBERS, hasTeacher, teacherId, picked,
+                    count);
+        }
+    }
+
+    /**
+     * @return Name of a class: its course and a number from 100 to 999
+     */
+    private static String className(int course, int number) {
+        return COURSES[course] + " " + (100 + number);
+    }
+
+    /**
+     * Picks k distinct IDs from 1..n using Floyd's algorithm, which needs
+     * memory for the k picks only (not for all n IDs)
+     */
+    private static void pickDistinct(int k, int n, Random random, int[] out) {
+        IntHashSet chosen = new IntHashSet(Math.max(4, k));
+        int found = 0;
+        for (int j = n - k + 1; j <= n; j++) {
+            int t = 1 + random.nextInt(j);
+            int id = chosen.contains(t) ? j : t;
+            chosen.add(id);
+            out[found++] = id;
+        }
+    }
+
+    private static String randomName(Random random, boolean lastNameFirst) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return lastNameFirst ? last + ", " + first : first + " " + last;
+    }
+
+    private String randomName(Random random) {
+        return randomName(random, commaNames > 0 && random.nextDouble() < commaNames);
+    }
+
+    private static int randomAge(Random random) {
+        if (random.nextInt(100) < 3) {
+            return 24 + random.nextInt(37); // Mature student, 24-60
+        }
+        int age = (int) Math.round(20 + random.nextGaussian() * 1.5);
+        return Math.max(17, Math.min(23, age));
+    }
+
+    /**
+     * Cumulative Zipf-like weights: item i (0-based) is chosen with probability
+     * proportional to 1 / (i + 1)^skew
+     */
+    private static double[] zipfCumulative(int n, double skew) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += Math.pow(i + 1, -skew);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return Math.min(index, cumulative.length - 1);
+    }
+
+    // ==================== OUTPUT ====================
+
+    /**
+     * Sends every generated record to the selected formats
+     */
+    private class Output implements Closeable {
+        private RecordWriter studentFile;
+        private RecordWriter teacherFile;
+        private RecordWriter classroomFile;
+        private BinarySnapshot.Writer snapshot;
+        private long enrollments;
+        private final File snapshotFile = new File(outDir, "college.snapshot");
+
+        Output() throws IOException {
+            try {
+                if (text) {
+                    studentFile = new RecordWriter(new File(outDir, "students.txt"));
+                    teacherFile = new RecordWriter(new File(outDir, "teachers.txt"));
+                    classroomFile = new RecordWriter(new File(outDir, "classrooms.txt"));
+                }
+                if (binary) {
+                    // The tables are the course list and every possible class
+                    // name, so a generated index is also the index in the file
+                    List<String> classNames = new ArrayList<>(COURSES.length * CLASS_NUMBERS);
+                    for (int course = 0; course < COURSES.length; course++) {
+                        for (int number = 0; number < CLASS_NUMBERS; number++) {
+                            classNames.add(className(course, number));
+                        }
+                    }
+                    snapshot = new BinarySnapshot.Writer(snapshotFile, Arrays.asList(COURSES),
+                            Arrays.asList(COURSES), classNames);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void beginStudents(int count) throws IOException {
+            if (snapshot != null) {
+                snapshot.beginStudents(count);
+            }
+        }
+
+        void student(int id, String name, int age, int course) throws IOException {
+            if (studentFile != null) {
+                studentFile.writeInt(id);
+                studentFile.writeString(name);
+                studentFile.writeInt(age);
+                studentFile.writeString(COURSES[course]);
+                studentFile.endRecord();
+            }
+            if (snapshot != null) {
+                snapshot.writeStudent(id, name, age, course);
+            }
+        }
+
+        void beginTeachers(int count) throws IOException {
+            if (snapshot != null) {
+                snapshot.beginTeachers(count);
+            }
+        }
+
+        void teacher(int id, String name, int subject) throws IOException {
+            if (teacherFile != null) {
+                teacherFile.writeInt(id);
+                teacherFile.writeString(name);
+                teacherFile.writeString(COURSES[subject]);
+                teacherFile.endRecord();
+            }
+            if (snapshot != null) {
+                snapshot.writeTeacher(id, name, subject);
+            }
+        }
+
+        void beginClassrooms(int count) throws IOException {
+            if (snapshot != null) {
+                snapshot.beginClassrooms(count);
+            }
+        }
+
+        void classroom(int id, String name, int nameIndex, boolean hasTeacher, int teacherId, int[] studentIds,
+                int count) throws IOException {
+            enrollments += count;
+            if (classroomFile != null) {
+                classroomFile.writeInt(id);
+                classroomFile.writeString(name);
+                if (hasTeacher) {
+                    classroomFile.writeInt(teacherId);
+                } else {
+                    classroomFile.writeWord("null");
+                }
+                classroomFile.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    classroomFile.writeInt(studentIds[i]);
+                }
+                classroomFile.endRecord();
+            }
+            if (snapshot != null) {
+                snapshot.beginClassroom(id, nameIndex, hasTeacher, teacherId, count);
+                for (int i = 0; i < count; i++) {
+                    snapshot.writeEnrolledStudent(studentIds[i]);
+                }
+            }
+        }
+
+        long bytes() {
+            long total = 0;
+            for (RecordWriter w : new RecordWriter[] { studentFile, teacherFile, classroomFile }) {
+                if (w != null) {
+                    total += w.getBytesWritten();
+                }
+            }
+            if (snapshot != null) {
+                total += snapshotFile.length();
+            }
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (Closeable c : new Closeable[] { studentFile, teacherFile, classroomFile, snapshot }) {
+                if (c == null) {
+                    continue;
+                }
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
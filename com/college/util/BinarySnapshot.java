@@ -0,0 +1,389 @@
+package com.college.util;
+
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataStore;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * UTILITY CLASS: BinarySnapshot
+ * 
+ * Saves and loads the whole data store as one binary file. Loading a binary
+ * snapshot avoids splitting text lines and parsing numbers, so large rosters
+ * start up much faster than from the CSV text files.
+ * 
+ * CONCEPT DEMONSTRATED: BINARY FILE FORMAT
+ * All numbers are 4-byte big-endian ints, strings are an int byte length
+ * followed by UTF-8 bytes. Course, subject and class names repeat a lot, so
+ * each is stored once in a table and records refer to them by index: the
+ * file holds the dictionaries (Student.COURSES, Teacher.SUBJECTS,
+ * Classroom.CLASS_NAMES) with the entries in use, in code order.
+ * 
+ * <pre>
+ *   int    MAGIC ("CMSS")
+ *   int    VERSION
+ *   int    course table size, then that many strings
+ *   int    subject table size, then that many strings
+ *   int    class name table size, then that many strings
+ *   int    student count, then per student:   id, name, age, course index
+ *   int    teacher count, then per teacher:   id, name, subject index
+ *   int    classroom count, then per class:   id, name index, has-teacher
+ *                                             flag, teacher id, student
+ *                                             count, student ids...
+ * </pre>
+ * Version 1 files (one table for courses and subjects, class names written
+ * in full) can still be read.
+
+ * 
+ * CONCEPT DEMONSTRATED: NIO (FileChannel and ByteBuffer)
+ * - Writing fills a large ByteBuffer and hands it to the FileChannel in one
+ * call per 1 MB instead of one call per field
+ * - Loading reads the whole file into one ByteBuffer with a few large reads
+ * and decodes it from there, without a stream in between
+ * - The file is read, not mapped (FileChannel.map): a mapping stays open
+ * until the garbage collector frees its buffer, and on Windows an open
+ * mapping stops the next save from replacing the file
+ */
+public class BinarySnapshot {
+
+    private static final int MAGIC = 0x434D5353; // "CMSS"
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Writes the whole data store to a snapshot file, replacing any old one
+     * 
+     * @param store The data to write
+     * @param file  Target file
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(DataStore store, File file) throws IOException {
+        // Collect the dictionary entries in use for the tables
+        Table courses = new Table(Student.COURSES);
+        for (Student s : store.getStudents()) {
+            courses.use(s.getCourseCode());
+        }
+        Table subjects = new Table(Teacher.SUBJECTS);
+        for (Teacher t : store.getTeachers()) {
+            subjects.use(t.getSubjectCode());
+        }
+        Table classNames = new Table(Classroom.CLASS_NAMES);
+        for (Classroom c : store.getClassrooms()) {
+            classNames.use(c.getClassNameCode());
+        }
+
+        try (Writer out = new Writer(file, courses.strings(), subjects.strings(), classNames.strings())) {
+            out.beginStudents(store.getStudents().size());
+            for (Student s : store.getStudents()) {
+                out.writeStudent(s.getId(), s.getName(), s.getAge(), courses.indexOf(s.getCourseCode()));
+            }
+
+            out.beginTeachers(store.getTeachers().size());
+            for (Teacher t : store.getTeachers()) {
+                out.writeTeacher(t.getId(), t.getName(), subjects.indexOf(t.getSubjectCode()));
+            }
+
+            out.beginClassrooms(store.getClassrooms().size());
+            for (Classroom c : store.getClassrooms()) {
+                Teacher teacher = c.getTeacher();
+                out.beginClassroom(c.getId(), classNames.indexOf(c.getClassNameCode()), teacher != null,
+                        teacher != null ? teacher.getId() : 0, c.getStudentCount());
+                for (Student s : c.getStudents()) {
+                    out.writeEnrolledStudent(s.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads a snapshot file into an (empty) data store
+     * 
+     * @param store The data store to populate
+     * @param file  Snapshot file
+     * @throws IOException If the file cannot be read or is not a valid snapshot
+     */
+    public static void read(DataStore store, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB is not supported: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            try {
+                readFrom(buffer, store);
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                    | NegativeArraySizeException e) {
+                throw new IOException("Snapshot file is truncated or corrupt: " + file, e);
+            }
+        }
+    }
+
+    private static void readFrom(ByteBuffer in, DataStore store) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file");
+        }
+        int version = in.getInt();
+        if (version != VERSION && version != 1) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        StringDecoder decoder = new StringDecoder();
+
+        // The constructors intern the names, so the table strings become the
+        // dictionaries' copies (only those that are used)
+        String[] courses = readTable(in, decoder);
+        String[] subjects = version == 1 ? courses : readTable(in, decoder);
+        String[] classNames = version == 1 ? null : readTable(in, decoder);
+
+        int studentCount = in.getInt();
+        for (int i = 0; i < studentCount; i++) {
+            int id = in.getInt();
+            String name = decoder.read(in);
+            int age = in.getInt();
+            String course = courses[in.getInt()];
+            store.addStudent(new Student(id, name, age, course));
+        }
+
+        int teacherCount = in.getInt();
+        for (int i = 0; i < teacherCount; i++) {
+            int id = in.getInt();
+            String name = decoder.read(in);
+            String subject = subjects[in.getInt()];
+            store.addTeacher(new Teacher(id, name, subject));
+        }
+
+        int classroomCount = in.getInt();
+        for (int i = 0; i < classroomCount; i++) {
+            int id = in.getInt();
+            String className = classNames == null ? decoder.read(in) : classNames[in.getInt()];
+            Classroom classroom = new Classroom(id, className);
+            boolean hasTeacher = in.getInt() != 0;
+            int teacherId = in.getInt();
+            if (hasTeacher) {
+                Teacher teacher = store.getTeachers().get(teacherId);
+                if (teacher != null) {
+                    classroom.setTeacher(teacher);
+                }
+            }
+            int enrolled = in.getInt();
+            for (int j = 0; j < enrolled; j++) {
+                Student student = store.getStudents().get(in.getInt());
+                if (student != null) {
+                    classroom.addStudent(student);
+                }
+            }
+            store.addClassroom(classroom);
+        }
+    }
+
+    private static String[] readTable(ByteBuffer in, StringDecoder decoder) {
+        String[] strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = decoder.read(in);
+        }
+        return strings;
+    }
+
+    /**
+     * The entries of a dictionary that are in use, numbered in code order
+     */
+    private static class Table {
+        private final StringDictionary dictionary;
+        private int[] indexes; // Code -> 1 if used; after strings(): index in the table, or -1
+        private final List<String> strings = new ArrayList<>();
+
+        Table(StringDictionary dictionary) {
+            this.dictionary = dictionary;
+            this.indexes = new int[dictionary.size()];
+        }
+
+        void use(int code) {
+            if (code >= indexes.length) {
+                indexes = Arrays.copyOf(indexes, Math.max(code + 1, dictionary.size()));
+            }
+            indexes[code] = 1;
+        }
+
+        /**
+         * @return The table, after all use() calls
+         */
+        List<String> strings() {
+            for (int code = 0; code < indexes.length; code++) {
+                if (indexes[code] != 0) {
+                    indexes[code] = strings.size();
+                    strings.add(dictionary.decode(code));
+                } else {
+                    indexes[code] = -1;
+                }
+            }
+            return strings;
+        }
+
+        int indexOf(int code) {
+            return indexes[code];
+        }
+    }
+
+    /**
+     * Writes a snapshot record by record, so data that is generated on the fly
+     * (see RosterGenerator) never has to be held in memory as a whole.
+     * 
+     * The sections must be written in file order: students, teachers, then
+     * classrooms, each started with the exact number of records that follow.
+     */
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ChannelOutput out;
+
+        /**
+         * Creates (or replaces) the file and writes the header and the tables;
+         * course, subject and class names are then written as an index into
+         * their table
+         * 
+         * @param file       Target file
+         * @param courses    The course table
+         * @param subjects   The subject table
+         * @param classNames The class name table
+         * @throws IOException If the file cannot be written
+         */
+        public Writer(File file, List<String> courses, List<String> subjects, List<String> classNames)
+                throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            out = new ChannelOutput(channel);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (List<String> table : Arrays.asList(courses, subjects, classNames)) {
+                out.writeInt(table.size());
+                for (String s : table) {
+                    out.writeString(s);
+                }
+            }
+        }
+
+        public void beginStudents(int count) throws IOException {
+            out.writeInt(count);
+        }
+
+        public void writeStudent(int id, String name, int age, int courseIndex) throws IOException {
+            out.writeInt(id);
+            out.writeString(name);
+            out.writeInt(age);
+            out.writeInt(courseIndex);
+        }
+
+        public void beginTeachers(int count) throws IOException {
+            out.writeInt(count);
+        }
+
+        public void writeTeacher(int id, String name, int subjectIndex) throws IOException {
+            out.writeInt(id);
+            out.writeString(name);
+            out.writeInt(subjectIndex);
+        }
+
+        public void beginClassrooms(int count) throws IOException {
+            out.writeInt(count);
+        }
+
+        /**
+         * Starts a classroom record; call writeEnrolledStudent exactly
+         * studentCount times afterwards
+         */
+        public void beginClassroom(int id, int classNameIndex, boolean hasTeacher, int teacherId,
+                int studentCount) throws IOException {
+            out.writeInt(id);
+            out.writeInt(classNameIndex);
+            out.writeInt(hasTeacher ? 1 : 0);
+            out.writeInt(hasTeacher ? teacherId : 0);
+            out.writeInt(studentCount);
+        }
+
+        public void writeEnrolledStudent(int studentId) throws IOException {
+            out.writeInt(studentId);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Buffers output and writes it to a FileChannel in large blocks
+     */
+    private static class ChannelOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ChannelOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeInt(int value) throws IOException {
+            if (buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Decodes length-prefixed UTF-8 strings, reusing one scratch array
+     */
+    private static class StringDecoder {
+        private byte[] scratch = new byte[256];
+
+        String read(ByteBuffer in) {
+            int length = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                throw new IllegalArgumentException("Bad string length " + length);
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            in.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
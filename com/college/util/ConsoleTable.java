@@ -0,0 +1,163 @@
+package com.college.util;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * UTILITY CLASS: ConsoleTable
+ * 
+ * Prints records as aligned columns on the console.
+ * 
+ * CONCEPT DEMONSTRATED: REUSED BUFFER, BUFFERED OUTPUT
+ * - System.out.println(student) builds a new String for every record (via
+ * toString) and hands each line to the console separately
+ * - This class appends the cells of a row straight into one StringBuilder
+ * that is reused for every row (numbers are appended without creating a
+ * String), then copies the row into a 64 KB buffer; the console only sees
+ * one write per full buffer or per flush
+ * - Call flush() when a page is complete, before printing anything else
+ * 
+ * Usage:
+ * <pre>
+ *   ConsoleTable table = new ConsoleTable(8, 30, 0);
+ *   table.header("ID", "Name", "Course");
+ *   table.cell(id).cell(name).cell(course).endRow();
+ *   table.flush();
+ * </pre>
+ */
+public class ConsoleTable implements Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String GAP = "  ";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final PrintWriter out;
+    private final int[] widths;
+    private final StringBuilder row = new StringBuilder(128);
+    private char[] chars = new char[128];
+    private int column;
+    private int cellStart;
+
+    /**
+     * Creates a table that prints to System.out
+     * 
+     * @param widths Width of each column; 0 means "as wide as the text"
+     *               (useful for the last column)
+     */
+    public ConsoleTable(int... widths) {
+        this(System.out, widths);
+    }
+
+    /**
+     * @param stream Where to print
+     * @param widths Width of each column; 0 means "as wide as the text"
+     */
+    public ConsoleTable(OutputStream stream, int... widths) {
+        this.out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(stream, Charset.defaultCharset()), BUFFER_SIZE), false);
+        this.widths = widths.clone();
+    }
+
+    /**
+     * Prints the column titles and a line under them
+     * 
+     * @param titles One title per column
+     */
+    public void header(String... titles) {
+        for (String title : titles) {
+            cell(title);
+        }
+        endRow();
+        for (int i = 0; i < widths.length; i++) {
+            int width = widths[i] > 0 ? widths[i] : titles[i].length();
+            startCell();
+            for (int j = 0; j < width; j++) {
+                row.append('-');
+            }
+            column++;
+        }
+        endRow();
+    }
+
+    /**
+     * Adds a text cell; text longer than the column is cut short with "..."
+     * 
+     * @param text Cell text (null prints as "-")
+     * @return This table, so cells can be chained
+     */
+    public ConsoleTable cell(String text) {
+        if (text == null) {
+            text = "-";
+        }
+        startCell();
+        int width = width();
+        if (width > 3 && text.length() > width) {
+            row.append(text, 0, width - 3).append("...");
+        } else {
+            row.append(text);
+        }
+        column++;
+        return this;
+    }
+
+    /**
+     * Adds a number cell
+     * 
+     * @param value Cell value
+     * @return This table, so cells can be chained
+     */
+    public ConsoleTable cell(int value) {
+        startCell();
+        row.append(value);
+        column++;
+        return this;
+    }
+
+    /**
+     * Ends the current row and moves it into the output buffer
+     */
+    public void endRow() {
+        row.append(LINE_SEPARATOR);
+        int length = row.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        // Copied through a reused char array: out.append(row) would create a
+        // String for every row
+        row.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        row.setLength(0);
+        column = 0;
+    }
+
+    /**
+     * Writes everything buffered so far to the console
+     */
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Pads the previous cell to its column width and separates it from the
+     * next one
+     */
+    private void startCell() {
+        if (column > 0) {
+            int previousWidth = column - 1 < widths.length ? widths[column - 1] : 0;
+            for (int i = row.length() - cellStart; i < previousWidth; i++) {
+                row.append(' ');
+            }
+            row.append(GAP);
+        }
+        cellStart = row.length();
+    }
+
+    private int width() {
+        return column < widths.length ? widths[column] : 0;
+    }
+}
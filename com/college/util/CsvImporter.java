@@ -0,0 +1,316 @@
+package com.college.util;
+
+import com.college.model.Person;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataStore;
+import com.college.repository.Repository;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * UTILITY CLASS: CsvImporter
+ * 
+ * Imports students or teachers from an external CSV file, and exports them
+ * to one.
+ * 
+ * CONCEPT DEMONSTRATED: VALIDATE FIRST, THEN COMMIT
+ * - Every row is checked with InputValidator (the same rules as the menus)
+ * while it is parsed; ParallelCsvLoader parses large files in chunks on
+ * several CPU cores, so the checks run in parallel too
+ * - Duplicate IDs are then found in one pass over the valid rows: against
+ * the data already loaded (the repository's hash index) and against
+ * earlier rows of the same file (an IntHashSet)
+ * - Only then are the accepted rows added to the store, all in one go; a bad
+ * row never leaves the store half-updated
+ * - The duplicate check and the adding hold the store's write lock, so other
+ * users see the import all at once
+ * 
+ * CONCEPT DEMONSTRATED: STREAMING EXPORT
+ * - Export walks the repository and writes each record straight to a
+ * RecordWriter; the full file is never built up in memory
+ * 
+ * FILE FORMAT
+ * - Students: id,name,age,course; teachers: id,name,subject
+ * - The same as students.txt / teachers.txt, plus an optional header line
+ * (starting with "id") that export writes and import skips
+ */
+public class CsvImporter {
+
+    // Rejected rows listed individually; the rest are only counted
+    private static final int MAX_REPORTED_PROBLEMS = 10;
+
+    /**
+     * Outcome of one import
+     */
+    public static class Report {
+        private int accepted;
+        private int invalid;
+        private int duplicates;
+        private final List<String> problems = new ArrayList<>();
+
+        /**
+         * @return Rows added to the store
+         */
+        public int getAccepted() {
+            return accepted;
+        }
+
+        /**
+         * @return Rows rejected because a field was missing or not valid
+         */
+        public int getInvalid() {
+            return invalid;
+        }
+
+        /**
+         * @return Rows rejected because their ID was already taken
+         */
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * @return Number of rejected rows
+         */
+        public int getRejected() {
+            return invalid + duplicates;
+        }
+
+        void reject(String problem) {
+            if (problems.size() < MAX_REPORTED_PROBLEMS) {
+                problems.add(problem);
+            }
+        }
+    }
+
+    /**
+     * A parsed row and the line it came from
+     */
+    private static class Row<T> {
+        final T item;
+        final int line;
+
+        Row(T item, int line) {
+            this.item = item;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Imports students from a CSV file and prints a summary
+     * 
+     * @param store The data to add the students to
+     * @param file  CSV file with id,name,age,course rows
+     * @return What was imported and rejected
+     * @throws IOException If the file cannot be read
+     */
+    public static Report importStudents(DataStore store, File file) throws IOException {
+        return importRows("students", file, CsvImporter::parseStudent, store, store.getStudents(), store::addStudent);
+    }
+
+    /**
+     * Imports teachers from a CSV file and prints a summary
+     * 
+     * @param store The data to add the teachers to
+     * @param file  CSV file with id,name,subject rows
+     * @return What was imported and rejected
+     * @throws IOException If the file cannot be read
+     */
+    public static Report importTeachers(DataStore store, File file) throws IOException {
+        return importRows("teachers", file, CsvImporter::parseTeacher, store, store.getTeachers(), store::addTeacher);
+    }
+
+    /**
+     * Writes all students to a CSV file
+     * 
+     * @param store The data to export
+     * @param file  File to create (replaced if it exists)
+     * @return Number of students written
+     * @throws IOException If the file cannot be written
+     */
+    public static int exportStudents(DataStore store, File file) throws IOException {
+        int count = 0;
+        Lock guard = store.getLock().readLock(); // No changes while exporting
+        guard.lock();
+        try (RecordWriter writer = new RecordWriter(file)) {
+            writeHeader(writer, "id", "name", "age", "course");
+            for (Student s : store.getStudents()) {
+                writer.writeInt(s.getId());
+                writer.writeString(s.getName());
+                writer.writeInt(s.getAge());
+                writer.writeString(s.getCourse());
+                writer.endRecord();
+                count++;
+            }
+        } finally {
+            guard.unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Writes all teachers to a CSV file
+     * 
+     * @param store The data to export
+     * @param file  File to create (replaced if it exists)
+     * @return Number of teachers written
+     * @throws IOException If the file cannot be written
+     */
+    public static int exportTeachers(DataStore store, File file) throws IOException {
+        int count = 0;
+        Lock guard = store.getLock().readLock(); // No changes while exporting
+        guard.lock();
+        try (RecordWriter writer = new RecordWriter(file)) {
+            writeHeader(writer, "id", "name", "subject");
+            for (Teacher t : store.getTeachers()) {
+                writer.writeInt(t.getId());
+                writer.writeString(t.getName());
+                writer.writeString(t.getSubject());
+                writer.endRecord();
+                count++;
+            }
+        } finally {
+            guard.unlock();
+        }
+        return count;
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    private static <T extends Person> Report importRows(String kind, File file,
+            ParallelCsvLoader.RowParser<Row<T>> parser, DataStore store, Repository<T> existing, Consumer<T> add)
+            throws IOException {
+        if (!file.isFile()) {
+            throw new IOException("File not found: " + file.getPath());
+        }
+        long start = System.nanoTime();
+        Report report = new Report();
+
+        // 1. Parse and validate (in parallel for large files)
+        ParallelCsvLoader.Result<Row<T>> parsed = ParallelCsvLoader.parse(file, parser);
+        for (MalformedRecordException e : parsed.getErrors()) {
+            report.invalid++;
+            report.reject(e.getMessage());
+        }
+
+        // 2. and 3. run under the store's write lock: no other user can add
+        // an ID between the duplicate check and the commit, and readers see
+        // either none or all of the imported rows
+        Lock guard = store.getLock().writeLock();
+        guard.lock();
+        try {
+            // 2. Find duplicate IDs, in file order so the first row with an ID wins
+            List<T> accepted = new ArrayList<>(parsed.getRows().size());
+            IntHashSet seen = new IntHashSet(parsed.getRows().size());
+            for (Row<T> row : parsed.getRows()) {
+                if (row == null) {
+                    continue; // Header line
+                }
+                int id = row.item.getId();
+                if (existing.contains(id)) {
+                    report.duplicates++;
+                    report.reject("line " + row.line + ": ID " + id + " already exists");
+                } else if (!seen.add(id)) {
+                    report.duplicates++;
+                    report.reject("line " + row.line + ": ID " + id + " appears earlier in the file");
+                } else {
+                    accepted.add(row.item);
+                }
+            }
+
+            // 3. Commit all accepted rows together
+            for (T item : accepted) {
+                add.accept(item);
+            }
+            report.accepted = accepted.size();
+        } finally {
+            guard.unlock();
+        }
+
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.printf("Imported %,d %s from %s in %d ms (%,d rejected: %,d invalid, %,d duplicate IDs)%n",
+                report.accepted, kind, file.getName(), millis, report.getRejected(), report.invalid,
+                report.duplicates);
+        for (String problem : report.problems) {
+            System.err.println("  Rejected " + problem);
+        }
+        if (report.getRejected() > report.problems.size()) {
+            System.err.printf("  ... and %,d more%n", report.getRejected() - report.problems.size());
+        }
+        return report;
+    }
+
+    /**
+     * Parses and validates one student row
+     * Format: id,name,age,course
+     */
+    private static Row<Student> parseStudent(CsvReader reader) throws IOException {
+        if (isHeader(reader)) {
+            return null;
+        }
+        int line = reader.getLineNumber();
+        int id = reader.readInt();
+        String name = reader.readString().trim();
+        int age = reader.readInt();
+        String course = reader.readString().trim();
+        reader.expectEndOfRecord();
+        checkId(line, id);
+        checkName(line, "name", name);
+        if (!InputValidator.validateAge(age)) {
+            throw new MalformedRecordException(line, "age must be between 16 and 100");
+        }
+        checkName(line, "course", course);
+        return new Row<>(new Student(id, name, age, course), line);
+    }
+
+    /**
+     * Parses and validates one teacher row
+     * Format: id,name,subject
+     */
+    private static Row<Teacher> parseTeacher(CsvReader reader) throws IOException {
+        if (isHeader(reader)) {
+            return null;
+        }
+        int line = reader.getLineNumber();
+        int id = reader.readInt();
+        String name = reader.readString().trim();
+        String subject = reader.readString().trim();
+        reader.expectEndOfRecord();
+        checkId(line, id);
+        checkName(line, "name", name);
+        checkName(line, "subject", subject);
+        return new Row<>(new Teacher(id, name, subject), line);
+    }
+
+    /**
+     * A header is a first line starting with the word id
+     */
+    private static boolean isHeader(CsvReader reader) throws IOException {
+        return reader.getLineNumber() == 1 && reader.readWordIf("id");
+    }
+
+    private static void checkId(int line, int id) throws MalformedRecordException {
+        if (!InputValidator.validateId(id)) {
+            throw new MalformedRecordException(line, "ID must be positive");
+        }
+    }
+
+    private static void checkName(int line, String field, String value) throws MalformedRecordException {
+        if (!InputValidator.validateName(value)) {
+            throw new MalformedRecordException(line, field + " cannot be empty or longer than "
+                    + InputValidator.MAX_NAME_LENGTH + " characters");
+        }
+    }
+
+    private static void writeHeader(RecordWriter writer, String... columns) throws IOException {
+        for (String column : columns) {
+            writer.writeWord(column);
+        }
+        writer.endRecord();
+    }
+}
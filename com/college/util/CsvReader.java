@@ -0,0 +1,435 @@
+package com.college.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * UTILITY CLASS: CsvReader
+ * 
+ * Reads comma-separated records one field at a time, straight from a char
+ * buffer.
+ * 
+ * CONCEPT DEMONSTRATED: STREAMING PARSER (TOKENIZER)
+ * - line.split(",") creates an array and one String per field for every
+ * line, and Integer.parseInt then reads each number a second time
+ * - This reader walks the characters once: numbers are converted directly
+ * from the buffer, and a String is only created for text fields
+ * - readString(dictionary) does not even create that String for a value it
+ * has seen before, such as a course name repeated on thousands of lines
+ * 
+ * CSV RULES
+ * - Fields are separated by commas, records by line breaks (\n or \r\n)
+ * - A field may be wrapped in double quotes so it can contain commas, quotes
+ * (written twice: "") or line breaks, e.g. "Smith, John"
+ * - Blank lines are skipped
+ * 
+ * Usage:
+ * <pre>
+ *   while (reader.nextRecord()) {
+ *       try {
+ *           int id = reader.readInt();
+ *           String name = reader.readString();
+ *           reader.expectEndOfRecord();
+ *       } catch (MalformedRecordException e) {
+ *           // e.getLineNumber() tells which line was bad
+ *       }
+ *   }
+ * </pre>
+ */
+public class CsvReader implements Closeable {
+
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final char[] buffer;
+    private int pos; // Next character to read
+    private int limit; // End of valid data in buffer
+
+    private int lineNumber; // Line on which the current record starts
+    private int nextLineNumber = 1; // Line of the next character
+    private boolean inRecord; // A record has been started
+    private boolean recordEnded; // All fields of the current record were read
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * @param in Source of characters (closed by close())
+     */
+    public CsvReader(Reader in) {
+        this(in, 64 * 1024);
+    }
+
+    /**
+     * @param in         Source of characters (closed by close())
+     * @param bufferSize Size of the character buffer
+     */
+    public CsvReader(Reader in, int bufferSize) {
+        this(in, bufferSize, 1);
+    }
+
+    /**
+     * @param in              Source of characters (closed by close())
+     * @param bufferSize      Size of the character buffer
+     * @param firstLineNumber Line number of the first character, used when
+     *                        reading one part of a larger file
+     */
+    public CsvReader(Reader in, int bufferSize, int firstLineNumber) {
+        this.in = in;
+        this.buffer = new char[Math.max(16, bufferSize)];
+        this.nextLineNumber = firstLineNumber;
+    }
+
+    /**
+     * Moves to the next non-blank record, skipping any unread fields of the
+     * current one
+     * 
+     * @return true if there is a record to read, false at end of input
+     * @throws IOException If reading fails
+     */
+    public boolean nextRecord() throws IOException {
+        if (inRecord && !recordEnded) {
+            skipRestOfRecord();
+        }
+        inRecord = false;
+        while (true) {
+            int c = peek();
+            if (c == EOF) {
+                return false;
+            }
+            if (c == '\n' || c == '\r') {
+                consumeLineBreak(); // Blank line
+                continue;
+            }
+            lineNumber = nextLineNumber;
+            inRecord = true;
+            recordEnded = false;
+            return true;
+        }
+    }
+
+    /**
+     * @return Line number (1-based) where the current record starts
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return true if the current record has another field to read
+     */
+    public boolean hasMoreFields() {
+        return inRecord && !recordEnded;
+    }
+
+    /**
+     * Reads the next field as an int, without creating a String
+     * 
+     * @return The parsed number
+     * @throws MalformedRecordException If the field is missing or not a number
+     * @throws IOException              If reading fails
+     */
+    public int readInt() throws IOException {
+        requireField("a number");
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            pos++;
+            c = peek();
+        }
+        long value = 0;
+        int digits = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw error("number is too large");
+            }
+            digits++;
+            pos++;
+            c = peek();
+        }
+        if (digits == 0 || !isFieldEnd(c)) {
+            throw error("expected a number but found '" + describeField() + "'");
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw error("number is too large");
+        }
+        finishField();
+        return (int) value;
+    }
+
+    /**
+     * Reads the next field as text (quoted or not)
+     * 
+     * @return The field value
+     * @throws MalformedRecordException If the field is missing or a quoted
+     *                                  field is not closed properly
+     * @throws IOException              If reading fails
+     */
+    public String readString() throws IOException {
+        requireField("a text field");
+        String value = (peek() == '"') ? readQuoted() : readPlain(null);
+        finishField();
+        return value;
+    }
+
+    /**
+     * Reads the next field as text and returns the dictionary's copy of it
+     * (see StringDictionary.intern). For an unquoted field whose text is
+     * already in the dictionary no String is created at all: the characters
+     * are looked up straight from the buffer.
+     * 
+     * @param dictionary Dictionary of the values this field repeats
+     * @return The field value, as held by the dictionary
+     * @throws MalformedRecordException If the field is missing or a quoted
+     *                                  field is not closed properly
+     * @throws IOException              If reading fails
+     */
+    public String readString(StringDictionary dictionary) throws IOException {
+        requireField("a text field");
+        String value = (peek() == '"') ? dictionary.intern(readQuoted()) : readPlain(dictionary);
+        finishField();
+        return value;
+    }
+
+    /**
+     * Consumes the next field if it is exactly the given word (unquoted)
+     * 
+     * @param word The word to look for, e.g. "null"
+     * @return true if the field was the word (and has been consumed), false if
+     *         it was something else (nothing consumed)
+     * @throws IOException If reading fails
+     */
+    public boolean readWordIf(String word) throws IOException {
+        if (!hasMoreFields()) {
+            return false;
+        }
+        int length = word.length();
+        ensure(length + 1);
+        if (limit - pos < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[pos + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        int after = (pos + length < limit) ? buffer[pos + length] : EOF;
+        if (!isFieldEnd(after)) {
+            return false;
+        }
+        pos += length;
+        finishField();
+        return true;
+    }
+
+    /**
+     * Checks that every field of the current record has been read
+     * 
+     * @throws MalformedRecordException If there are extra fields
+     */
+    public void expectEndOfRecord() throws MalformedRecordException {
+        if (hasMoreFields()) {
+            throw error("too many fields");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    /**
+     * @param dictionary Dictionary to intern the value in, or null
+     */
+    private String readPlain(StringDictionary dictionary) throws IOException {
+        // Fast path: the whole field is already in the buffer
+        int start = pos;
+        int i = pos;
+        while (i < limit) {
+            char c = buffer[i];
+            if (c == ',' || c == '\n' || c == '\r') {
+                pos = i;
+                if (dictionary != null) {
+                    return dictionary.decode(dictionary.encode(buffer, start, i - start));
+                }
+                return new String(buffer, start, i - start);
+            }
+            if (c == '"') {
+                throw error("unexpected quote inside unquoted field");
+            }
+            i++;
+        }
+        // Slow path: the field continues past the end of the buffer
+        scratch.setLength(0);
+        scratch.append(buffer, start, i - start);
+        pos = i;
+        int c;
+        while (!isFieldEnd(c = peek())) {
+            if (c == '"') {
+                throw error("unexpected quote inside unquoted field");
+            }
+            scratch.append((char) c);
+            pos++;
+        }
+        return dictionary != null ? dictionary.intern(scratch.toString()) : scratch.toString();
+    }
+
+    private String readQuoted() throws IOException {
+        int startLine = nextLineNumber;
+        pos++; // Opening quote
+        scratch.setLength(0);
+        while (true) {
+            int c = peek();
+            if (c == EOF) {
+                lineNumber = startLine;
+                throw error("quoted field is not closed");
+            }
+            pos++;
+            if (c == '"') {
+                if (peek() == '"') {
+                    scratch.append('"'); // Escaped quote ""
+                    pos++;
+                    continue;
+                }
+                if (!isFieldEnd(peek())) {
+                    throw error("unexpected text after closing quote");
+                }
+                return scratch.toString();
+            }
+            if (c == '\n') {
+                nextLineNumber++;
+            }
+            scratch.append((char) c);
+        }
+    }
+
+    private void requireField(String expected) throws IOException {
+        if (!inRecord) {
+            throw new IllegalStateException("nextRecord() has not been called");
+        }
+        if (recordEnded) {
+            throw error("missing field, expected " + expected);
+        }
+    }
+
+    /**
+     * After a field: consume the comma, or the line break that ends the record
+     */
+    private void finishField() throws IOException {
+        int c = peek();
+        if (c == ',') {
+            pos++;
+            // A trailing comma means the record ends with an empty field;
+            // the record stays open so that field can still be read
+        } else {
+            endRecord();
+        }
+    }
+
+    private void endRecord() throws IOException {
+        recordEnded = true;
+        if (peek() != EOF) {
+            consumeLineBreak();
+        }
+    }
+
+    private void skipRestOfRecord() throws IOException {
+        boolean quoted = false;
+        int c;
+        while ((c = peek()) != EOF) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '\n' || c == '\r')) {
+                break;
+            } else if (c == '\n') {
+                nextLineNumber++;
+            }
+            pos++;
+        }
+        endRecord();
+    }
+
+    private void consumeLineBreak() throws IOException {
+        int c = peek();
+        if (c == '\r') {
+            pos++;
+            if (peek() == '\n') {
+                pos++;
+            }
+        } else if (c == '\n') {
+            pos++;
+        }
+        nextLineNumber++;
+    }
+
+    private static boolean isRecordEnd(int c) {
+        return c == '\n' || c == '\r' || c == EOF;
+    }
+
+    private static boolean isFieldEnd(int c) {
+        return c == ',' || isRecordEnd(c);
+    }
+
+    /**
+     * Text of the rest of the current field, for error messages
+     */
+    private String describeField() throws IOException {
+        ensure(32);
+        int end = pos;
+        while (end < limit && end - pos < 32 && !isFieldEnd(buffer[end])) {
+            end++;
+        }
+        return new String(buffer, pos, end - pos);
+    }
+
+    private MalformedRecordException error(String message) {
+        return new MalformedRecordException(lineNumber, message);
+    }
+
+    private int peek() throws IOException {
+        if (pos >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[pos];
+    }
+
+    /**
+     * Makes sure at least n characters are buffered (unless input ends first)
+     */
+    private void ensure(int n) throws IOException {
+        while (limit - pos < n) {
+            if (!fill()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads more characters, keeping the unread part of the buffer
+     * 
+     * @return false if the end of input was reached
+     */
+    private boolean fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buffer.length) {
+            return false; // Buffer full; callers never need more lookahead
+        }
+        int n = in.read(buffer, limit, buffer.length - limit);
+        if (n <= 0) {
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+}
@@ -1,8 +1,23 @@
 package com.college.util;
 
 import com.college.model.*;
+import com.college.repository.ClassroomRepository;
+import com.college.repository.DataStore;
+import com.college.repository.Repository;
+import com.college.repository.StudentRepository;
+import com.college.repository.TeacherRepository;
 import java.io.*; // Import for file operations
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
 
 /**
  * UTILITY CLASS: FileHandler
@@ -25,34 +40,276 @@ public class FileHandler {
     private static final String STUDENTS_FILE = "students.txt";
     private static final String TEACHERS_FILE = "teachers.txt";
     private static final String CLASSROOMS_FILE = "classrooms.txt";
+    private static final String SNAPSHOT_FILE = "college.snapshot";
+    private static final String JOURNAL_FILE = "college.journal";
+
+    /**
+     * Storage formats the data can be saved in
+     * - TEXT: the three CSV text files (default, human-readable)
+     * - BINARY: one binary snapshot file (see BinarySnapshot), much faster to
+     * load for large rosters
+     */
+    public enum Format {
+        TEXT, BINARY
+    }
+
+    // Selected storage format; can also be set with -Dcollege.format=binary
+    private static Format format = "binary".equalsIgnoreCase(System.getProperty("college.format"))
+            ? Format.BINARY
+            : Format.TEXT;
+
+    // Folder holding the data files (the working directory by default)
+    private static File dataDirectory = new File(".");
+
+    // How long each stage of the last loadData call took
+    private static StageTimings lastLoadTimings = new StageTimings();
+
+    /**
+     * Selects the storage format used by saveData and preferred by loadData
+     * 
+     * @param newFormat The format to use
+     */
+    public static void setFormat(Format newFormat) {
+        format = newFormat;
+    }
+
+    /**
+     * @return The selected storage format
+     */
+    public static Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Selects the folder the data files are read from and saved to
+     * 
+     * @param directory The folder (the working directory by default)
+     */
+    public static void setDataDirectory(File directory) {
+        dataDirectory = directory;
+    }
+
+    /**
+     * @return The folder the data files are read from and saved to
+     */
+    public static File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    private static File dataFile(String fileName) {
+        return new File(dataDirectory, fileName);
+    }
 
     /**
      * Saves all data to files
      * 
      * CONCEPT DEMONSTRATED: FILE HANDLING
      * - Writes student, teacher, and classroom data to text files
-     * - Uses PrintWriter to write data
-     * - Data is saved in CSV format (comma-separated values)
+     * - Uses RecordWriter, which writes fields straight into a large buffer
+     * without building temporary Strings
+     * - Prints how many bytes were written and how fast
+     * - Data is saved in CSV format (comma-separated values), or as one binary
+     * snapshot when the BINARY format is selected
+     * 
+     * CONCEPT DEMONSTRATED: INCREMENTAL, CRASH-SAFE SAVING
+     * - Only the files of repositories that changed since the last save or
+     * load are written (see Repository.isDirty)
+     * - Each file is replaced atomically, so an interrupted save never leaves
+     * a half-written file behind
      * 
      * CONCEPT DEMONSTRATED: EXCEPTION HANDLING
      * - try-catch block handles IOException if file writing fails
      * 
-     * @param students   List of students to save
-     * @param teachers   List of teachers to save
-     * @param classrooms List of classrooms to save
+     * @param store The data store whose students, teachers and classrooms are
+     *              saved
+     * @return true if the data was saved
      */
-    public static void saveData(ArrayList<Student> students,
-            ArrayList<Teacher> teachers,
-            ArrayList<Classroom> classrooms) {
+    public static synchronized boolean saveData(DataStore store) {
         try {
-            // Save each list to its respective file
-            saveStudents(students);
-            saveTeachers(teachers);
-            saveClassrooms(classrooms, students, teachers);
-            System.out.println("Data saved successfully!");
+            List<String> written = new ArrayList<>();
+            long start = System.nanoTime();
+            long bytes;
+            // Other users may keep reading while the files are written, but
+            // nobody can change the data halfway through
+            Lock guard = store.getLock().readLock();
+            guard.lock();
+            try {
+                bytes = writeData(store, written);
+            } finally {
+                guard.unlock();
+            }
+            long nanos = System.nanoTime() - start;
+            if (written.isEmpty()) {
+                System.out.println("No changes to save.");
+            } else {
+                System.out.println("Data saved successfully! (" + String.join(", ", written) + ": "
+                        + describeThroughput(bytes, nanos) + ")");
+            }
+            return true;
         } catch (IOException e) {
             // Handle error if file writing fails
             System.err.println("Error saving data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the files of every repository that changed since the last save
+     * (or that have no file yet) in the selected format
+     * 
+     * @param written Receives the names of the files written
+     * @return Total number of bytes written
+     */
+    private static long writeData(DataStore store, List<String> written) throws IOException {
+        long bytes = 0;
+        if (format == Format.BINARY) {
+            File snapshot = dataFile(SNAPSHOT_FILE);
+            if (store.isDirty() || !snapshot.exists()) {
+                bytes += writeAtomically(snapshot, tmp -> BinarySnapshot.write(store, tmp));
+                store.markClean();
+                written.add(SNAPSHOT_FILE);
+            }
+            return bytes;
+        }
+        // Save each changed repository to its respective file
+        if (needsSave(store.getStudents(), STUDENTS_FILE)) {
+            bytes += writeAtomically(dataFile(STUDENTS_FILE), tmp -> saveStudents(store.getStudents(), tmp));
+            store.getStudents().markClean();
+            written.add(STUDENTS_FILE);
+        }
+        if (needsSave(store.getTeachers(), TEACHERS_FILE)) {
+            bytes += writeAtomically(dataFile(TEACHERS_FILE), tmp -> saveTeachers(store.getTeachers(), tmp));
+            store.getTeachers().markClean();
+            written.add(TEACHERS_FILE);
+        }
+        if (needsSave(store.getClassrooms(), CLASSROOMS_FILE)) {
+            bytes += writeAtomically(dataFile(CLASSROOMS_FILE),
+                    tmp -> saveClassrooms(store.getClassrooms(), tmp));
+            store.getClassrooms().markClean();
+            written.add(CLASSROOMS_FILE);
+        }
+        return bytes;
+    }
+
+    /**
+     * Formats a save size and speed, e.g. "14.0 MB in 120 ms, 116.7 MB/s"
+     */
+    private static String describeThroughput(long bytes, long nanos) {
+        double megabytes = bytes / (1024.0 * 1024.0);
+        double seconds = Math.max(nanos, 1) / 1e9;
+        return String.format("%.1f MB in %d ms, %.1f MB/s", megabytes, nanos / 1_000_000, megabytes / seconds);
+    }
+
+    private static boolean needsSave(Repository<?> repository, String fileName) {
+        return repository.isDirty() || !dataFile(fileName).exists();
+    }
+
+    /**
+     * Writes one file of data to a temporary file
+     */
+    private interface FileWriterTask {
+        void write(File tmp) throws IOException;
+    }
+
+    /**
+     * Replaces a file so that a crash at any moment leaves either the old or
+     * the new version, never a half-written one
+     * 
+     * CONCEPT DEMONSTRATED: ATOMIC FILE REPLACEMENT
+     * 1. the new content is written to a temporary file next to the target
+     * 2. the temporary file is forced to disk (fsync)
+     * 3. it is renamed over the target in one step
+     * 
+     * @return Size of the new file in bytes
+     */
+    private static long writeAtomically(File target, FileWriterTask task) throws IOException {
+        File tmp = new File(target.getPath() + ".tmp");
+        long size;
+        try {
+            task.write(tmp);
+            size = tmp.length();
+            try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+        syncDirectory(target.getAbsoluteFile().getParentFile());
+        return size;
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to disk. Not every
+     * platform allows opening a directory, so failures are ignored.
+     */
+    private static void syncDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directory sync not supported here (e.g. on Windows)
+        }
+    }
+
+    /**
+     * Replays the change journal on top of the loaded data and opens it for
+     * recording further changes. Call this right after loadData.
+     * 
+     * CONCEPT DEMONSTRATED: WRITE-AHEAD LOGGING (see Journal)
+     * - Changes made after the last full save are in the journal, so they are
+     * applied again here
+     * 
+     * @param store The loaded data store
+     * @return The open journal (already listening to the store), or null if it
+     *         could not be opened; the program then only saves on exit
+     */
+    public static Journal openJournal(DataStore store) {
+        File file = dataFile(JOURNAL_FILE);
+        try {
+            int replayed = Journal.replay(store, file);
+            if (replayed > 0) {
+                System.out.println("Recovered " + replayed + " unsaved changes from " + JOURNAL_FILE);
+            }
+            Journal journal = new Journal(file);
+            store.addListener(journal);
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Error opening journal: " + e.getMessage()
+                    + ". Changes will only be saved on exit.");
+            return null;
+        }
+    }
+
+    /**
+     * Saves all data in full and empties the journal (a checkpoint), so the
+     * journal does not grow forever. Saves and checkpoints are synchronized,
+     * so two threads never write the same files at once.
+     * 
+     * @param store   The data store
+     * @param journal The journal listening to the store
+     * @return true if the checkpoint was made
+     */
+    public static synchronized boolean checkpoint(DataStore store, Journal journal) {
+        // Changes are journaled while the write lock is held, so holding the
+        // read lock keeps new changes out until the journal has been emptied
+        Lock guard = store.getLock().readLock();
+        guard.lock();
+        try {
+            journal.commit();
+            writeData(store, new ArrayList<String>());
+            journal.reset();
+            return true;
+        } catch (IOException e) {
+            // The journal still holds every change, so nothing is lost
+            System.err.println("Error saving checkpoint: " + e.getMessage());
+            return false;
+        } finally {
+            guard.unlock();
         }
     }
 
@@ -61,25 +318,55 @@ public class FileHandler {
      * 
      * CONCEPT DEMONSTRATED: FILE HANDLING
      * - Reads student, teacher, and classroom data from text files
-     * - Uses BufferedReader to read data line by line
+     * - With the BINARY format the snapshot file is loaded instead; if there
+     * is no snapshot yet (or it cannot be read) the text files are used
+     * 
+     * CONCEPT DEMONSTRATED: CONCURRENCY (LOAD PIPELINE)
+     * - The three text files are read and parsed at the same time, and large
+     * files are parsed in parallel chunks (see ParallelCsvLoader)
+     * - Classrooms refer to students and teachers by ID, so they are only
+     * linked up once the student and teacher repositories are filled
+     * - The time of each stage is printed and kept in getLastLoadTimings()
      * 
      * CONCEPT DEMONSTRATED: EXCEPTION HANDLING
      * - try-catch handles IOException if files don't exist (first run)
      * - This is normal - program will start with empty lists on first run
      * 
-     * @param students   List to populate with students
-     * @param teachers   List to populate with teachers
-     * @param classrooms List to populate with classrooms
+     * @param store The data store to populate
      */
-    public static void loadData(ArrayList<Student> students,
-            ArrayList<Teacher> teachers,
-            ArrayList<Classroom> classrooms) {
+    public static void loadData(DataStore store) {
+        StageTimings timings = new StageTimings();
+        lastLoadTimings = timings;
+        long start = System.nanoTime();
+        File snapshot = dataFile(SNAPSHOT_FILE);
+        if (format == Format.BINARY && snapshot.exists()) {
+            // One write lock hold for the whole file, so the store's snapshot
+            // is published once at the end instead of after every record
+            Lock guard = store.getLock().writeLock();
+            guard.lock();
+            try {
+                BinarySnapshot.read(store, snapshot);
+                store.markClean(); // Saving again would write the same snapshot
+                timings.record("snapshot", System.nanoTime() - start);
+                System.out.println("Data loaded successfully!");
+                System.out.println("Load timings: " + timings);
+                return;
+            } catch (IOException e) {
+                System.err.println("Error loading snapshot: " + e.getMessage()
+                        + ". Falling back to text files.");
+                store.clear();
+            } finally {
+                guard.unlock();
+            }
+        }
         try {
-            // Load each list from its respective file
-            loadStudents(students);
-            loadTeachers(teachers);
-            loadClassrooms(classrooms, students, teachers);
+            loadTextFiles(store, timings);
+            if (format == Format.TEXT) {
+                store.markClean(); // The text files already hold this data
+            }
+            timings.record("total", System.nanoTime() - start);
             System.out.println("Data loaded successfully!");
+            System.out.println("Load timings: " + timings);
         } catch (IOException e) {
             // Files don't exist yet - this is normal on first run
             System.out.println("No previous data found. Starting with empty lists.");
@@ -89,16 +376,27 @@ public class FileHandler {
         }
     }
 
+    /**
+     * @return Per-stage timings of the most recent loadData call
+     */
+    public static StageTimings getLastLoadTimings() {
+        return lastLoadTimings;
+    }
+
     /**
      * Saves students to file
-     * Format: id,name,age,course
+     * Format: id,name,age,course (text fields are quoted when needed)
      */
-    private static void saveStudents(ArrayList<Student> students) throws IOException {
+    private static void saveStudents(StudentRepository students, File file) throws IOException {
         // try-with-resources: automatically closes file when done
-        try (PrintWriter writer = new PrintWriter(new FileWriter(STUDENTS_FILE))) {
+        try (RecordWriter writer = new RecordWriter(file)) {
             for (Student s : students) {
                 // Write each student as a comma-separated line
-                writer.println(s.getId() + "," + s.getName() + "," + s.getAge() + "," + s.getCourse());
+                writer.writeInt(s.getId());
+                writer.writeString(s.getName());
+                writer.writeInt(s.getAge());
+                writer.writeString(s.getCourse());
+                writer.endRecord();
             }
         }
     }
@@ -107,11 +405,14 @@ public class FileHandler {
      * Saves teachers to file
      * Format: id,name,subject
      */
-    private static void saveTeachers(ArrayList<Teacher> teachers) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(TEACHERS_FILE))) {
+    private static void saveTeachers(TeacherRepository teachers, File file) throws IOException {
+        try (RecordWriter writer = new RecordWriter(file)) {
             for (Teacher t : teachers) {
                 // Write each teacher as a comma-separated line
-                writer.println(t.getId() + "," + t.getName() + "," + t.getSubject());
+                writer.writeInt(t.getId());
+                writer.writeString(t.getName());
+                writer.writeString(t.getSubject());
+                writer.endRecord();
             }
         }
     }
@@ -120,150 +421,222 @@ public class FileHandler {
      * Saves classrooms to file
      * Format: id,className,teacherId,studentCount,studentId1,studentId2,...
      */
-    private static void saveClassrooms(ArrayList<Classroom> classrooms,
-            ArrayList<Student> students,
-            ArrayList<Teacher> teachers) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(CLASSROOMS_FILE))) {
+    private static void saveClassrooms(ClassroomRepository classrooms, File file) throws IOException {
+        try (RecordWriter writer = new RecordWriter(file)) {
             for (Classroom c : classrooms) {
                 // Write classroom ID and name
-                writer.print(c.getId() + "," + c.getClassName());
+                writer.writeInt(c.getId());
+                writer.writeString(c.getClassName());
 
                 // Write teacher ID (or "null" if no teacher)
                 if (c.getTeacher() != null) {
-                    writer.print("," + c.getTeacher().getId());
+                    writer.writeInt(c.getTeacher().getId());
                 } else {
-                    writer.print(",null");
+                    writer.writeWord("null");
                 }
 
                 // Write number of students and their IDs
-                writer.print("," + c.getStudents().size());
+                writer.writeInt(c.getStudentCount());
                 for (Student s : c.getStudents()) {
-                    writer.print("," + s.getId());
+                    writer.writeInt(s.getId());
                 }
-                writer.println(); // Move to next line
+                writer.endRecord(); // Move to next line
             }
         }
     }
 
     /**
-     * Loads students from file
+     * Loads the three text files as a pipeline:
+     * 1. students.txt, teachers.txt and classrooms.txt are parsed in parallel;
+     * students and teachers go straight into their repositories
+     * 2. once both repositories are ready, classrooms are linked to their
+     * teacher and students and added to the store
      */
-    private static void loadStudents(ArrayList<Student> students) throws IOException {
-        File file = new File(STUDENTS_FILE);
-        if (!file.exists()) {
-            return; // File doesn't exist yet, nothing to load
-        }
+    private static void loadTextFiles(DataStore store, StageTimings timings) throws IOException {
+        // Stage 1: parse all files at the same time. Rows are added through
+        // the store so it observes them for later changes; each task adds all
+        // its rows under one hold of the store's write lock (the snapshot is
+        // then built in place and published once), so the tasks take turns.
+        CompletableFuture<ParallelCsvLoader.Result<Student>> studentTask = CompletableFuture.supplyAsync(() -> {
+            long t = System.nanoTime();
+            ParallelCsvLoader.Result<Student> result = parseFile(STUDENTS_FILE, FileHandler::parseStudent);
+            store.withWriteLock(() -> {
+                for (Student s : result.getRows()) {
+                    store.addStudent(s); // rows whose ID is already loaded are ignored
+                }
+            });
+            timings.record("students", System.nanoTime() - t);
+            return result;
+        });
+        CompletableFuture<ParallelCsvLoader.Result<Teacher>> teacherTask = CompletableFuture.supplyAsync(() -> {
+            long t = System.nanoTime();
+            ParallelCsvLoader.Result<Teacher> result = parseFile(TEACHERS_FILE, FileHandler::parseTeacher);
+            store.withWriteLock(() -> {
+                for (Teacher teacher : result.getRows()) {
+                    store.addTeacher(teacher);
+                }
+            });
+            timings.record("teachers", System.nanoTime() - t);
+            return result;
+        });
+        CompletableFuture<ParallelCsvLoader.Result<ClassroomRow>> classroomTask = CompletableFuture.supplyAsync(() -> {
+            long t = System.nanoTime();
+            ParallelCsvLoader.Result<ClassroomRow> result = parseFile(CLASSROOMS_FILE, FileHandler::parseClassroom);
+            timings.record("classrooms (parse)", System.nanoTime() - t);
+            return result;
+        });
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            // Read each line from file
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(","); // Split by comma
-                if (parts.length == 4) {
-                    // Parse the data and create Student object
-                    int id = Integer.parseInt(parts[0]);
-                    String name = parts[1];
-                    int age = Integer.parseInt(parts[2]);
-                    String course = parts[3];
-                    students.add(new Student(id, name, age, course));
+        ParallelCsvLoader.Result<Student> studentResult = join(studentTask);
+        ParallelCsvLoader.Result<Teacher> teacherResult = join(teacherTask);
+        ParallelCsvLoader.Result<ClassroomRow> classroomResult = join(classroomTask);
+        reportMalformed(STUDENTS_FILE, studentResult);
+        reportMalformed(TEACHERS_FILE, teacherResult);
+        reportMalformed(CLASSROOMS_FILE, classroomResult);
+
+        // Stage 2: link classrooms to the loaded teachers and students
+        long t = System.nanoTime();
+        store.withWriteLock(() -> linkClassrooms(store, classroomResult));
+        timings.record("classrooms (link)", System.nanoTime() - t);
+    }
+
+    private static void linkClassrooms(DataStore store, ParallelCsvLoader.Result<ClassroomRow> classroomResult) {
+        StudentRepository students = store.getStudents();
+        TeacherRepository teachers = store.getTeachers();
+        for (ClassroomRow row : classroomResult.getRows()) {
+            Classroom classroom = new Classroom(row.id, row.className);
+            if (row.hasTeacher) {
+                Teacher teacher = teachers.get(row.teacherId); // O(1) lookup by ID
+                if (teacher != null) {
+                    classroom.setTeacher(teacher);
+                }
+            }
+            // A student ID listed twice is only added once
+            for (int studentId : row.studentIds) {
+                Student student = students.get(studentId); // O(1) lookup by ID
+                if (student != null) {
+                    classroom.addStudent(student);
                 }
             }
+            // Added through the DataStore so the reverse indexes are filled in
+            store.addClassroom(classroom);
         }
     }
 
     /**
-     * Loads teachers from file
+     * Parses a data file, or returns no rows if the file does not exist yet
      */
-    private static void loadTeachers(ArrayList<Teacher> teachers) throws IOException {
-        File file = new File(TEACHERS_FILE);
-        if (!file.exists()) {
-            return; // File doesn't exist yet
+    private static <T> ParallelCsvLoader.Result<T> parseFile(String fileName,
+            ParallelCsvLoader.RowParser<T> parser) {
+        try {
+            File file = dataFile(fileName);
+            if (!file.exists()) {
+                return ParallelCsvLoader.Result.empty(); // File doesn't exist yet, nothing to load
+            }
+            return ParallelCsvLoader.parse(file, parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 3) {
-                    // Parse the data and create Teacher object
-                    int id = Integer.parseInt(parts[0]);
-                    String name = parts[1];
-                    String subject = parts[2];
-                    teachers.add(new Teacher(id, name, subject));
-                }
+    /**
+     * Waits for a load task, passing on any IOException it failed with
+     */
+    private static <T> T join(CompletableFuture<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
             }
+            throw e;
         }
     }
 
     /**
-     * Loads classrooms from file
+     * Parses one line of students.txt
+     * Format: id,name,age,course
      */
-    private static void loadClassrooms(ArrayList<Classroom> classrooms,
-            ArrayList<Student> students,
-            ArrayList<Teacher> teachers) throws IOException {
-        File file = new File(CLASSROOMS_FILE);
-        if (!file.exists()) {
-            return; // File doesn't exist yet
-        }
+    private static Student parseStudent(CsvReader reader) throws IOException {
+        int id = reader.readInt();
+        String name = reader.readString();
+        int age = reader.readInt();
+        String course = reader.readString(Student.COURSES);
+        reader.expectEndOfRecord();
+        return new Student(id, name, age, course);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    // Parse classroom data
-                    int id = Integer.parseInt(parts[0]);
-                    String className = parts[1];
-                    Classroom classroom = new Classroom(id, className);
-
-                    // Load teacher if exists
-                    if (!parts[2].equals("null")) {
-                        int teacherId = Integer.parseInt(parts[2]);
-                        Teacher teacher = findTeacherById(teachers, teacherId);
-                        if (teacher != null) {
-                            classroom.setTeacher(teacher);
-                        }
-                    }
-
-                    // Load students
-                    if (parts.length > 4) {
-                        int studentCount = Integer.parseInt(parts[3]);
-                        for (int i = 4; i < parts.length && i < 4 + studentCount; i++) {
-                            int studentId = Integer.parseInt(parts[i]);
-                            Student student = findStudentById(students, studentId);
-                            if (student != null) {
-                                classroom.addStudent(student);
-                            }
-                        }
-                    }
-
-                    classrooms.add(classroom);
-                }
-            }
-        }
+    /**
+     * Parses one line of teachers.txt
+     * Format: id,name,subject
+     */
+    private static Teacher parseTeacher(CsvReader reader) throws IOException {
+        int id = reader.readInt();
+        String name = reader.readString();
+        String subject = reader.readString(Teacher.SUBJECTS);
+        reader.expectEndOfRecord();
+        return new Teacher(id, name, subject);
     }
 
     /**
-     * Helper method to find a student by ID
+     * Parses one line of classrooms.txt
+     * Format: id,className,teacherId (or null),studentCount,studentId1,...
      */
-    private static Student findStudentById(ArrayList<Student> students, int id) {
-        for (Student s : students) {
-            if (s.getId() == id) {
-                return s;
+    private static ClassroomRow parseClassroom(CsvReader reader) throws IOException {
+        ClassroomRow row = new ClassroomRow();
+        row.id = reader.readInt();
+        row.className = reader.readString(Classroom.CLASS_NAMES);
+        // "null" means no teacher
+        row.hasTeacher = !reader.readWordIf("null");
+        if (row.hasTeacher) {
+            row.teacherId = reader.readInt();
+        }
+        int studentCount = reader.hasMoreFields() ? reader.readInt() : 0;
+        if (studentCount < 0) {
+            throw new MalformedRecordException(reader.getLineNumber(), "negative student count");
+        }
+        // The count comes from the file, so the array grows with the IDs
+        // actually read: a corrupt count fails on the missing IDs instead of
+        // allocating an array of that size
+        int[] ids = new int[Math.min(studentCount, 64)];
+        for (int i = 0; i < studentCount; i++) {
+            if (i == ids.length) {
+                ids = Arrays.copyOf(ids, (int) Math.min(studentCount, ids.length * 2L));
             }
+            ids[i] = reader.readInt();
         }
-        return null;
+        row.studentIds = ids;
+        reader.expectEndOfRecord();
+        return row;
     }
 
     /**
-     * Helper method to find a teacher by ID
+     * A parsed line of classrooms.txt, before teacher and student IDs are
+     * looked up
      */
-    private static Teacher findTeacherById(ArrayList<Teacher> teachers, int id) {
-        for (Teacher t : teachers) {
-            if (t.getId() == id) {
-                return t;
-            }
+    private static class ClassroomRow {
+        int id;
+        String className;
+        boolean hasTeacher;
+        int teacherId;
+        int[] studentIds;
+    }
+
+    /**
+     * Tells the user about every line of a file that could not be loaded
+     */
+    private static void reportMalformed(String fileName, ParallelCsvLoader.Result<?> result) {
+        for (MalformedRecordException e : result.getErrors()) {
+            reportMalformed(fileName, e);
         }
-        return null;
+    }
+
+    /**
+     * Tells the user about a line that could not be loaded
+     * 
+     * @param fileName Name of the data file
+     * @param e        The parse error (includes the line number)
+     */
+    private static void reportMalformed(String fileName, MalformedRecordException e) {
+        System.err.println("Skipping malformed record in " + fileName + ", " + e.getMessage());
     }
 }
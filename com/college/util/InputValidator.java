@@ -17,17 +17,27 @@ package com.college.util;
 public class InputValidator {
 
     /**
-     * Validates a name (checks if it's not empty)
+     * Longest name (or course, subject, class name) accepted, in characters
+     */
+    public static final int MAX_NAME_LENGTH = 100;
+
+    /**
+     * Validates a name (checks if it's not empty and not too long)
      * 
      * CONCEPT DEMONSTRATED: STATIC METHODS
      * - Can be called directly using class name: InputValidator.validateName(name)
      * 
      * @param name The name to validate
-     * @return true if name is valid (not null and not empty), false otherwise
+     * @return true if name is valid (not null, not empty and at most
+     *         MAX_NAME_LENGTH characters after trimming), false otherwise
      */
     public static boolean validateName(String name) {
         // Check if name is not null and not empty after removing spaces
-        return name != null && !name.trim().isEmpty();
+        if (name == null) {
+            return false;
+        }
+        String trimmed = name.trim();
+        return !trimmed.isEmpty() && trimmed.length() <= MAX_NAME_LENGTH;
     }
 
     /**
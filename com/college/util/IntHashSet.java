@@ -0,0 +1,251 @@
+package com.college.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * UTILITY CLASS: IntHashSet
+ * 
+ * A set of primitive int values (for example a set of student IDs).
+ * 
+ * CONCEPT DEMONSTRATED: PRIMITIVE COLLECTIONS
+ * - HashSet<Integer> boxes every value and allocates a node per element
+ * - This set keeps values directly in an int[] hash table
+ * 
+ * CONCEPT DEMONSTRATED: OPEN ADDRESSING (LINEAR PROBING)
+ * - 0 marks an empty slot, so the value 0 itself is tracked with a flag
+ * - Removal uses backward shift deletion, so there are no tombstones
+ * 
+ * Iteration order is not defined. This class is not thread-safe.
+ */
+public class IntHashSet {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] table;
+    private int mask;
+    private int size; // Number of non-zero values in the table
+    private boolean containsZero;
+
+    /**
+     * Creates an empty set
+     */
+    public IntHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set sized for the expected number of values
+     * 
+     * @param expectedSize Number of values to make room for
+     */
+    public IntHashSet(int expectedSize) {
+        table = new int[tableSizeFor(expectedSize)];
+        mask = table.length - 1;
+    }
+
+    /**
+     * @return Number of values in the set
+     */
+    public int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    /**
+     * @return true if the set has no values
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @param value The value to look for
+     * @return true if the value is in the set
+     */
+    public boolean contains(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        return findSlot(value) >= 0;
+    }
+
+    /**
+     * Adds a value
+     * 
+     * @param value The value to add
+     * @return true if added, false if it was already present
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = hash(value) & mask;
+        int current;
+        while ((current = table[slot]) != 0) {
+            if (current == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+        if (size > maxFill(table.length)) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a value
+     * 
+     * @param value The value to remove
+     * @return true if removed, false if it was not present
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int slot = findSlot(value);
+        if (slot < 0) {
+            return false;
+        }
+        size--;
+        deleteSlot(slot);
+        return true;
+    }
+
+    /**
+     * Removes all values
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * Calls the action once for every value in the set
+     * 
+     * @param action Action to run per value
+     */
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int value : table) {
+            if (value != 0) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Calls the action for the values in the set until it returns false
+     * 
+     * @param action Action to run per value; returns false to stop
+     * @return true if every value was visited, false if stopped early
+     */
+    public boolean forEachWhile(IntPredicate action) {
+        if (containsZero && !action.test(0)) {
+            return false;
+        }
+        for (int value : table) {
+            if (value != 0 && !action.test(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the values into a new array (in no particular order)
+     * 
+     * @return Array of values
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int n = 0;
+        if (containsZero) {
+            result[n++] = 0;
+        }
+        for (int value : table) {
+            if (value != 0) {
+                result[n++] = value;
+            }
+        }
+        return result;
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int entries) {
+        int needed = (int) Math.min(1L << 30, (long) entries * 4 / 3 + 1);
+        int size = Integer.highestOneBit(Math.max(MIN_CAPACITY, needed) - 1) << 1;
+        return Math.max(MIN_CAPACITY, size);
+    }
+
+    private static int maxFill(int tableLength) {
+        return tableLength / 4 * 3;
+    }
+
+    private int findSlot(int value) {
+        int slot = hash(value) & mask;
+        int current;
+        while ((current = table[slot]) != 0) {
+            if (current == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empties a slot and moves later values of the same probe run back
+     */
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            int value = table[current];
+            if (value == 0) {
+                break;
+            }
+            int home = hash(value) & mask;
+            boolean stays = (hole <= current)
+                    ? (hole < home && home <= current)
+                    : (hole < home || home <= current);
+            if (!stays) {
+                table[hole] = value;
+                hole = current;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void rehash(int newTableLength) {
+        int[] old = table;
+        table = new int[newTableLength];
+        mask = newTableLength - 1;
+        for (int value : old) {
+            if (value != 0) {
+                int slot = hash(value) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.college.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * UTILITY CLASS: IntObjectMap
+ * 
+ * A hash map from primitive int keys to objects, used for all ID lookups.
+ * 
+ * CONCEPT DEMONSTRATED: PRIMITIVE COLLECTIONS
+ * - java.util.HashMap<Integer, V> boxes every key into an Integer object and
+ * allocates a Node object per entry
+ * - This map stores keys in an int[] and values in an Object[], so adding an
+ * entry never allocates anything except when the arrays grow
+ * 
+ * CONCEPT DEMONSTRATED: OPEN ADDRESSING (LINEAR PROBING)
+ * - The hash table is a plain int[] whose slots point into the entry arrays
+ * - Collisions are resolved by trying the next slot
+ * - Removal shifts later entries of the same probe run back ("backward shift
+ * deletion"), so no tombstones are left behind and lookups never slow down
+ * after many deletes
+ * 
+ * Entries are kept in insertion order (like LinkedHashMap), so listings show
+ * records in the order they were added. Removed entries leave a hole in the
+ * entry arrays; holes are compacted away once they outnumber live entries.
+ * 
+ * Null values are not allowed (null is returned for "not found").
+ * This class is not thread-safe.
+ * 
+ * @param <V> Type of the values
+ */
+public class IntObjectMap<V> implements Iterable<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    // Entry arrays in insertion order. values[i] == null marks a removed entry.
+    private int[] keys;
+    private Object[] values;
+    private int end; // Number of used entry slots (live + removed)
+    private int size; // Number of live entries
+
+    // Hash table: each slot holds (entry index + 1), or 0 when empty
+    private int[] table;
+    private int mask;
+
+    private int modCount;
+
+    /**
+     * Creates an empty map
+     */
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map sized for the expected number of entries
+     * 
+     * @param expectedSize Number of entries to make room for
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+        table = new int[tableSizeFor(capacity)];
+        mask = table.length - 1;
+    }
+
+    /**
+     * @return Number of entries in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Looks up the value stored for a key
+     * 
+     * @param key The key
+     * @return The value, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[table[slot] - 1];
+    }
+
+    /**
+     * @param key The key
+     * @return true if the key is present
+     */
+    public boolean containsKey(int key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value
+     * 
+     * @param key   The key
+     * @param value The value (must not be null)
+     * @return The previous value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            int index = table[slot] - 1;
+            V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+        if (end == keys.length) {
+            growEntries();
+        }
+        keys[end] = key;
+        values[end] = value;
+        end++;
+        size++;
+        modCount++;
+        insertIntoTable(key, end);
+        if (size > maxFill(table.length)) {
+            rehash(table.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Stores a value only if the key is not present yet
+     * 
+     * @param key   The key
+     * @param value The value (must not be null)
+     * @return true if the value was stored, false if the key already existed
+     */
+    public boolean putIfAbsent(int key, V value) {
+        if (containsKey(key)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Removes a key and its value
+     * 
+     * @param key The key to remove
+     * @return The removed value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        int index = table[slot] - 1;
+        V old = (V) values[index];
+        values[index] = null;
+        size--;
+        modCount++;
+        deleteSlot(slot);
+
+        if (index == end - 1) {
+            end--; // Removed the newest entry, no hole left behind
+        } else if (end - size > size && end > MIN_CAPACITY) {
+            compact();
+        }
+        return old;
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        Arrays.fill(values, 0, end, null);
+        Arrays.fill(table, 0);
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Copies all keys into a new array, in insertion order
+     * 
+     * @return Array of keys
+     */
+    public int[] keysToArray() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                result[n++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read-only view of the values, in insertion order
+     * 
+     * @return Collection view backed by this map
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return IntObjectMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return size == 0;
+            }
+        };
+    }
+
+    /**
+     * Iterates over the values in insertion order
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int next = advance(0);
+            private final int expectedModCount = modCount;
+
+            private int advance(int from) {
+                while (from < end && values[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                V value = (V) values[next];
+                next = advance(next + 1);
+                return value;
+            }
+        };
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    /**
+     * Spreads the bits of the key so that sequential IDs do not cluster
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Smallest power of two table that keeps the load factor at or below 3/4
+     */
+    private static int tableSizeFor(int entries) {
+        int needed = (int) Math.min(1L << 30, (long) entries * 4 / 3 + 1);
+        int size = Integer.highestOneBit(Math.max(MIN_CAPACITY, needed) - 1) << 1;
+        return Math.max(MIN_CAPACITY, size);
+    }
+
+    private static int maxFill(int tableLength) {
+        return tableLength / 4 * 3;
+    }
+
+    /**
+     * Finds the hash table slot that refers to the key
+     * 
+     * @return Slot index, or -1 if the key is not present
+     */
+    private int findSlot(int key) {
+        int slot = hash(key) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (keys[entry - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertIntoTable(int key, int entry) {
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    /**
+     * Empties a slot and moves later entries of the same probe run back so
+     * every entry stays reachable from its home slot.
+     */
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            int entry = table[current];
+            if (entry == 0) {
+                break;
+            }
+            int home = hash(keys[entry - 1]) & mask;
+            // The entry may move into the hole only if its home slot is not
+            // between the hole and its current position (cyclically)
+            boolean stays = (hole <= current)
+                    ? (hole < home && home <= current)
+                    : (hole < home || home <= current);
+            if (!stays) {
+                table[hole] = entry;
+                hole = current;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void growEntries() {
+        if (end - size >= (end >> 2)) {
+            compact(); // Plenty of holes: reuse them instead of growing
+            if (end < keys.length) {
+                return;
+            }
+        }
+        int newCapacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    /**
+     * Moves live entries to the front of the entry arrays, preserving order,
+     * and rebuilds the hash table
+     */
+    private void compact() {
+        int n = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                keys[n] = keys[i];
+                values[n] = values[i];
+                n++;
+            }
+        }
+        Arrays.fill(values, n, end, null);
+        end = n;
+        modCount++;
+        rehash(tableSizeFor(size));
+    }
+
+    private void rehash(int newTableLength) {
+        table = new int[newTableLength];
+        mask = newTableLength - 1;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                insertIntoTable(keys[i], i + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,615 @@
+package com.college.util;
+
+import com.college.interfaces.StoreListener;
+import com.college.model.Classroom;
+import com.college.model.Student;
+import com.college.model.Teacher;
+import com.college.repository.DataStore;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * UTILITY CLASS: Journal
+ * 
+ * An append-only log of every change made to the DataStore, so changes made
+ * since the last full save survive a crash.
+ * 
+ * CONCEPT DEMONSTRATED: WRITE-AHEAD LOGGING
+ * - Saving the whole roster after every change would be far too slow, so each
+ * change is appended to the journal as a small binary record instead
+ * - On startup the last saved data is loaded and the journal is replayed on
+ * top of it
+ * - When the journal grows large, the data is saved in full (a "checkpoint")
+ * and the journal is emptied again (compaction)
+ * 
+ * CONCEPT DEMONSTRATED: GROUP COMMIT
+ * - Writing a record only copies it into a memory buffer; a background
+ * writer thread writes the buffer to disk and calls force() (fsync)
+ * - commit() waits until everything appended so far is on disk
+ * - Records that arrive while the writer is busy with one fsync are all
+ * written by the next one, so many changes share the cost of one fsync
+ * 
+ * RECORD FORMAT
+ * <pre>
+ *   int    payload length
+ *   int    CRC32 of the payload
+ *   byte   operation, then its fields (ints, and strings as an int byte
+ *          length followed by UTF-8 bytes)
+ * </pre>
+ * A crash can leave a half-written record at the end of the file; replay
+ * detects it by its length (running past the end of the file) or its
+ * checksum, stops there and cuts it off. Records of any size are accepted,
+ * since the checksum covers the whole payload. An intact record that
+ * cannot be applied is reported instead, and the file is left as it is.
+ * 
+ * Every operation sets a value rather than changing it relative to the old
+ * one ("student 7 is now ...", "student 7 is deleted"), so replaying a
+ * record whose effect is already in the saved data does no harm.
+ */
+public class Journal implements StoreListener, Closeable {
+
+    // Operations
+    private static final byte PUT_STUDENT = 1; // id, name, age, course
+    private static final byte PUT_TEACHER = 2; // id, name, subject
+    private static final byte PUT_CLASSROOM = 3; // id, class name
+    private static final byte DELETE_STUDENT = 4; // id
+    private static final byte DELETE_TEACHER = 5; // id
+    private static final byte DELETE_CLASSROOM = 6; // id
+    private static final byte ENROLL = 7; // classroom id, student id
+    private static final byte UNENROLL = 8; // classroom id, student id
+    private static final byte ASSIGN_TEACHER = 9; // classroom id, has-teacher flag, teacher id
+
+    private static final int HEADER_SIZE = 8;
+
+    // Journal size at which a checkpoint is worth it
+    private static final long COMPACT_THRESHOLD = 8L << 20;
+
+    private final FileChannel channel;
+    private final Thread writer;
+
+    // Guards everything below
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024); // Appended, not yet written
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024); // Being written by the writer
+    private ByteBuffer record = ByteBuffer.allocate(256); // Scratch for encoding one record
+    private final CRC32 crc = new CRC32();
+    private long appended; // Number of records appended
+    private volatile long durable; // Number of records known to be on disk
+    private long size; // Journal size in bytes, including pending records
+    private volatile IOException failure; // Set if the writer failed
+    private boolean closed;
+
+    // Held while writing to or truncating the file
+    private final Object io = new Object();
+
+    // commit() waits on this condition rather than with lock.wait(): a
+    // virtual thread waiting inside synchronized keeps its carrier thread
+    // busy (JDK 21 to 23), one waiting on a Condition gives it back
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition madeDurable = durableLock.newCondition();
+
+    /**
+     * Opens (or creates) a journal for appending. Call replay() first to
+     * apply the records already in it.
+     * 
+     * @param file The journal file
+     * @throws IOException If the file cannot be opened
+     */
+    public Journal(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        size = channel.size();
+        channel.position(size);
+        writer = new Thread(this::writeLoop, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ==================== REPLAY ====================
+
+    /**
+     * Applies every complete record of a journal file to the store. A damaged
+     * record at the end (from a crash during a write) is cut off.
+     * 
+     * Only a record that runs past the end of the file or whose checksum is
+     * wrong counts as damaged. A record that is intact but cannot be applied
+     * (an unknown operation, a value the store rejects) stops the replay with
+     * an IOException and the file is not changed, so no change after it is
+     * thrown away.
+     * 
+     * @param store The store, already loaded from the last saved data
+     * @param file  The journal file (nothing happens if it does not exist)
+     * @return Number of records applied
+     * @throws IOException If the file cannot be read, or a record cannot be
+     *                     applied (the records before it have been)
+     */
+    public static int replay(DataStore store, File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Journal larger than 2 GB is not supported: " + file);
+            }
+            // Read into memory (not mapped) so the file can be truncated afterwards
+            ByteBuffer in = ByteBuffer.allocate((int) fileSize);
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // keep reading until the buffer is full
+            }
+            in.flip();
+            CRC32 check = new CRC32();
+            int count = 0;
+            int good = 0; // End of the last complete record
+            while (in.remaining() >= HEADER_SIZE) {
+                int length = in.getInt();
+                int expected = in.getInt();
+                if (length <= 0 || length > in.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = in.slice();
+                payload.limit(length);
+                check.reset();
+                check.update(payload.duplicate());
+                if ((int) check.getValue() != expected) {
+                    break;
+                }
+                try {
+                    apply(store, payload);
+                } catch (RuntimeException e) {
+                    // The record arrived whole (its checksum matches), so this
+                    // is not a torn write: keep the file for inspection
+                    throw new IOException("Journal record " + (count + 1) + " at byte " + good + " of " + file
+                            + " cannot be applied (" + e + "); the journal was left as it is", e);
+                }
+                in.position(in.position() + length);
+                good = in.position();
+                count++;
+            }
+            if (good < fileSize) {
+                System.err.println("Journal: ignoring " + (fileSize - good)
+                        + " damaged bytes at the end of " + file);
+                channel.truncate(good);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Applies one record. Records that refer to missing entities are skipped.
+     */
+    private static void apply(DataStore store, ByteBuffer in) {
+        byte op = in.get();
+        switch (op) {
+            case PUT_STUDENT: {
+                int id = in.getInt();
+                String name = readString(in);
+                int age = in.getInt();
+                String course = readString(in);
+                // One step for other threads, like an update command
+                store.withWriteLock(() -> {
+                    Student s = store.getStudents().get(id);
+                    if (s == null) {
+                        store.addStudent(new Student(id, name, age, course));
+                    } else {
+                        s.setName(name);
+                        s.setAge(age);
+                        s.setCourse(course);
+                    }
+                });
+                break;
+            }
+            case PUT_TEACHER: {
+                int id = in.getInt();
+                String name = readString(in);
+                String subject = readString(in);
+                store.withWriteLock(() -> {
+                    Teacher t = store.getTeachers().get(id);
+                    if (t == null) {
+                        store.addTeacher(new Teacher(id, name, subject));
+                    } else {
+                        t.setName(name);
+                        t.setSubject(subject);
+                    }
+                });
+                break;
+            }
+            case PUT_CLASSROOM: {
+                int id = in.getInt();
+                String name = readString(in);
+                Classroom c = store.getClassrooms().get(id);
+                if (c == null) {
+                    store.addClassroom(new Classroom(id, name));
+                } else {
+                    c.setClassName(name);
+                }
+                break;
+            }
+            case DELETE_STUDENT:
+                store.deleteStudent(in.getInt());
+                break;
+            case DELETE_TEACHER:
+                store.deleteTeacher(in.getInt());
+                break;
+            case DELETE_CLASSROOM:
+                store.deleteClassroom(in.getInt());
+                break;
+            case ENROLL: {
+                Classroom c = store.getClassrooms().get(in.getInt());
+                Student s = store.getStudents().get(in.getInt());
+                if (c != null && s != null) {
+                    store.enroll(c, s);
+                }
+                break;
+            }
+            case UNENROLL: {
+                Classroom c = store.getClassrooms().get(in.getInt());
+                int studentId = in.getInt();
+                if (c != null) {
+                    store.unenroll(c, studentId);
+                }
+                break;
+            }
+            case ASSIGN_TEACHER: {
+                Classroom c = store.getClassrooms().get(in.getInt());
+                boolean hasTeacher = in.getInt() != 0;
+                Teacher t = store.getTeachers().get(in.getInt());
+                if (c != null && (!hasTeacher || t != null)) {
+                    store.assignTeacher(c, hasTeacher ? t : null);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown journal operation " + op);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ==================== DURABILITY ====================
+
+    /**
+     * Waits until every record appended so far has been written and forced to
+     * disk
+     * 
+     * @throws IOException If the journal could not be written
+     */
+    public void commit() throws IOException {
+        long target;
+        synchronized (lock) {
+            target = appended;
+        }
+        durableLock.lock();
+        try {
+            while (durable < target && failure == null) {
+                madeDurable.awaitUninterruptibly();
+            }
+        } finally {
+            durableLock.unlock();
+        }
+        IOException writeFailure = failure;
+        if (writeFailure != null) {
+            throw new IOException("Journal write failed: " + writeFailure.getMessage(), writeFailure);
+        }
+    }
+
+    /**
+     * Wakes the threads waiting in commit() after durable or failure changed
+     */
+    private void signalDurable() {
+        durableLock.lock();
+        try {
+            madeDurable.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * @return true once the journal is big enough that a checkpoint (full save
+     *         followed by reset()) should be made
+     */
+    public boolean needsCompaction() {
+        synchronized (lock) {
+            return size >= COMPACT_THRESHOLD;
+        }
+    }
+
+    /**
+     * @return Size of the journal in bytes, including records not yet written
+     */
+    public long size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Empties the journal. Call this right after all data has been saved in
+     * full, while no other thread is changing the store: every record so far
+     * is then contained in the saved data.
+     * 
+     * @throws IOException If the file cannot be truncated
+     */
+    public void reset() throws IOException {
+        synchronized (io) {
+            synchronized (lock) {
+                pending.clear();
+                durable = appended;
+                size = 0;
+                lock.notifyAll();
+            }
+            signalDurable();
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes any remaining records, stops the writer thread and closes the
+     * file
+     * 
+     * @throws IOException If the remaining records could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            synchronized (lock) {
+                closed = true;
+                lock.notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Writer thread: takes whatever has been appended, writes it in one go and
+     * forces it to disk
+     */
+    private void writeLoop() {
+        while (true) {
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // Keep running until closed
+                    }
+                }
+                if (pending.position() == 0) {
+                    return; // Closed and nothing left to write
+                }
+            }
+            try {
+                long target;
+                synchronized (io) {
+                    synchronized (lock) {
+                        // Swap buffers so appends can continue while writing
+                        ByteBuffer full = pending;
+                        pending = writing;
+                        writing = full;
+                        target = appended;
+                    }
+                    writing.flip();
+                    while (writing.hasRemaining()) {
+                        channel.write(writing);
+                    }
+                    writing.clear();
+                    channel.force(false);
+                }
+                synchronized (lock) {
+                    durable = Math.max(durable, target);
+                    lock.notifyAll();
+                }
+                signalDurable();
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                signalDurable();
+                return;
+            }
+        }
+    }
+
+    // ==================== RECORDING CHANGES ====================
+
+    @Override
+    public void studentAdded(Student student) {
+        putStudent(student);
+    }
+
+    @Override
+    public void studentUpdated(Student student, String property, Object oldValue) {
+        putStudent(student);
+    }
+
+    @Override
+    public void studentDeleted(Student student) {
+        synchronized (lock) {
+            begin(DELETE_STUDENT);
+            putInt(student.getId());
+            end();
+        }
+    }
+
+    @Override
+    public void teacherAdded(Teacher teacher) {
+        putTeacher(teacher);
+    }
+
+    @Override
+    public void teacherUpdated(Teacher teacher, String property, Object oldValue) {
+        putTeacher(teacher);
+    }
+
+    @Override
+    public void teacherDeleted(Teacher teacher) {
+        synchronized (lock) {
+            begin(DELETE_TEACHER);
+            putInt(teacher.getId());
+            end();
+        }
+    }
+
+    @Override
+    public void classroomAdded(Classroom classroom) {
+        putClassroom(classroom);
+        if (classroom.getTeacher() != null) {
+            teacherAssigned(classroom, null, classroom.getTeacher());
+        }
+        for (Student s : classroom.getStudents()) {
+            studentEnrolled(classroom, s);
+        }
+    }
+
+    @Override
+    public void classroomUpdated(Classroom classroom, String property, Object oldValue) {
+        putClassroom(classroom);
+    }
+
+    @Override
+    public void classroomDeleted(Classroom classroom) {
+        synchronized (lock) {
+            begin(DELETE_CLASSROOM);
+            putInt(classroom.getId());
+            end();
+        }
+    }
+
+    @Override
+    public void studentEnrolled(Classroom classroom, Student student) {
+        synchronized (lock) {
+            begin(ENROLL);
+            putInt(classroom.getId());
+            putInt(student.getId());
+            end();
+        }
+    }
+
+    @Override
+    public void studentUnenrolled(Classroom classroom, Student student) {
+        synchronized (lock) {
+            begin(UNENROLL);
+            putInt(classroom.getId());
+            putInt(student.getId());
+            end();
+        }
+    }
+
+    @Override
+    public void teacherAssigned(Classroom classroom, Teacher previous, Teacher current) {
+        synchronized (lock) {
+            begin(ASSIGN_TEACHER);
+            putInt(classroom.getId());
+            putInt(current != null ? 1 : 0);
+            putInt(current != null ? current.getId() : 0);
+            end();
+        }
+    }
+
+    private void putStudent(Student s) {
+        synchronized (lock) {
+            begin(PUT_STUDENT);
+            putInt(s.getId());
+            putString(s.getName());
+            putInt(s.getAge());
+            putString(s.getCourse());
+            end();
+        }
+    }
+
+    private void putTeacher(Teacher t) {
+        synchronized (lock) {
+            begin(PUT_TEACHER);
+            putInt(t.getId());
+            putString(t.getName());
+            putString(t.getSubject());
+            end();
+        }
+    }
+
+    private void putClassroom(Classroom c) {
+        synchronized (lock) {
+            begin(PUT_CLASSROOM);
+            putInt(c.getId());
+            putString(c.getClassName());
+            end();
+        }
+    }
+
+    // ==================== ENCODING (caller holds lock) ====================
+
+    private void begin(byte op) {
+        record.clear();
+        record.put(op);
+    }
+
+    private void putInt(int value) {
+        record = ensureRoom(record, 4);
+        record.putInt(value);
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        record = ensureRoom(record, 4 + bytes.length);
+        record.putInt(bytes.length);
+        record.put(bytes);
+    }
+
+    /**
+     * Frames the encoded record with its length and checksum and queues it for
+     * the writer thread
+     */
+    private void end() {
+        int length = record.position();
+        crc.reset();
+        crc.update(record.array(), 0, length);
+        pending = ensureRoom(pending, HEADER_SIZE + length);
+        pending.putInt(length);
+        pending.putInt((int) crc.getValue());
+        pending.put(record.array(), 0, length);
+        appended++;
+        size += HEADER_SIZE + length;
+        lock.notifyAll();
+    }
+
+    /**
+     * Returns the buffer, or a copy with more capacity if it has fewer than
+     * the given number of bytes left
+     */
+    private static ByteBuffer ensureRoom(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+        ByteBuffer bigger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+}
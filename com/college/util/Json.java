@@ -0,0 +1,191 @@
+package com.college.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * UTILITY CLASS: Json
+ * 
+ * Reads and writes the small amount of JSON the program needs: flat objects
+ * whose values are text, numbers or null (batch files in JSON Lines format
+ * and the bodies of HTTP API requests), and quoted strings in responses.
+ * 
+ * CONCEPT DEMONSTRATED: RECURSIVE-DESCENT PARSING (a very small one)
+ * - The parser walks the text once, keeping its position in an int[1] so
+ * the helper methods can move it forward
+ * - Anything it does not understand is reported with the column number
+ */
+public class Json {
+
+    /**
+     * Parses one flat JSON object; every value is returned as text (numbers
+     * as written, null as null)
+     * 
+     * @param text The object, e.g. {"id":5,"name":"Ann"}
+     * @return Field name -> value
+     * @throws IllegalArgumentException If the text is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String text) {
+        Map<String, String> result = new HashMap<>();
+        int[] pos = { skipSpace(text, 0) };
+        expect(text, pos, '{');
+        if (peekChar(text, pos) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                String key = parseJsonString(text, pos);
+                expect(text, pos, ':');
+                result.put(key, parseJsonValue(text, pos));
+                char c = peekChar(text, pos);
+                pos[0]++;
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("expected , or } at column " + pos[0]);
+                }
+            }
+        }
+        if (skipSpace(text, pos[0]) != text.length()) {
+            throw new IllegalArgumentException("unexpected text after the object");
+        }
+        return result;
+    }
+
+    private static String parseJsonValue(String text, int[] pos) {
+        char c = peekChar(text, pos);
+        if (c == '"') {
+            return parseJsonString(text, pos);
+        }
+        int start = pos[0];
+        while (pos[0] < text.length() && ",}".indexOf(text.charAt(pos[0])) < 0
+                && !Character.isWhitespace(text.charAt(pos[0]))) {
+            pos[0]++;
+        }
+        String word = text.substring(start, pos[0]);
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("missing value at column " + (start + 1));
+        }
+        return word.equals("null") ? null : word;
+    }
+
+    private static String parseJsonString(String text, int[] pos) {
+        expect(text, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (pos[0] + 4 > text.length()) {
+                        throw new IllegalArgumentException("bad \\u escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("bad \\u escape");
+                    }
+                    pos[0] += 4;
+                    break;
+                default:
+                    value.append(escaped); // \" \\ \/
+            }
+        }
+        throw new IllegalArgumentException("unterminated string");
+    }
+
+    private static void expect(String text, int[] pos, char expected) {
+        if (peekChar(text, pos) != expected) {
+            throw new IllegalArgumentException("expected " + expected + " at column " + (pos[0] + 1));
+        }
+        pos[0]++;
+    }
+
+    /**
+     * Skips white space and returns the next character (0 at the end)
+     */
+    private static char peekChar(String text, int[] pos) {
+        pos[0] = skipSpace(text, pos[0]);
+        return pos[0] < text.length() ? text.charAt(pos[0]) : 0;
+    }
+
+    private static int skipSpace(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Appends a string as a JSON string literal, with quotes and escapes
+     * 
+     * @param out   Where to append
+     * @param value The text (null is written as null)
+     * @return out, so calls can be chained
+     */
+    public static StringBuilder appendString(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        // Control and non-ASCII characters as backslash-u escapes, so
+                        // the output is plain ASCII whatever the charset
+                        out.append("\\u");
+                        String hex = Integer.toHexString(c);
+                        for (int pad = hex.length(); pad < 4; pad++) {
+                            out.append('0');
+                        }
+                        out.append(hex);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+}
@@ -0,0 +1,36 @@
+package com.college.util;
+
+import java.io.IOException;
+
+/**
+ * EXCEPTION: MalformedRecordException
+ * 
+ * Thrown by CsvReader when a line in a data file does not have the expected
+ * fields (for example text where a number should be).
+ * 
+ * CONCEPT DEMONSTRATED: CUSTOM EXCEPTIONS
+ * - Extends IOException because it is a problem with a file's contents
+ * - Carries the line number so the user can find and fix the bad line
+ */
+public class MalformedRecordException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int lineNumber;
+
+    /**
+     * @param lineNumber Line (1-based) where the bad record starts
+     * @param message    What is wrong with the record
+     */
+    public MalformedRecordException(int lineNumber, String message) {
+        super("line " + lineNumber + ": " + message);
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * @return Line (1-based) where the bad record starts
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -0,0 +1,256 @@
+package com.college.util;
+
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * UTILITY CLASS: ParallelCsvLoader
+ * 
+ * Parses a CSV data file into a list of rows, splitting large files into
+ * chunks that are parsed at the same time on a ForkJoinPool.
+ * 
+ * CONCEPT DEMONSTRATED: DATA PARALLELISM (FORK/JOIN)
+ * - A large file is cut into chunks at line breaks
+ * - Each chunk gets its own CsvReader, so chunks can be parsed on different
+ * CPU cores without sharing any state
+ * - The chunk results are joined back together in file order, so the rows
+ * come out exactly as a single sequential read would return them
+ * 
+ * Chunks are only cut at line breaks outside quoted fields (a quoted name may
+ * contain a line break), found with one quick pass over the raw bytes. The
+ * line number where each chunk starts is counted in the same pass, so error
+ * messages still point at the right line.
+ * 
+ * A large file is read into one heap ByteBuffer rather than mapped
+ * (FileChannel.map): a mapping stays open until the garbage collector frees
+ * its buffer, and on Windows an open mapping stops a later save from
+ * replacing the file.
+ * 
+ * Files are read with the platform default charset, like FileReader.
+ */
+public class ParallelCsvLoader {
+
+    /**
+     * Parses one record into a row object
+     * 
+     * @param <T> Type of the parsed row
+     */
+    public interface RowParser<T> {
+        /**
+         * @param reader Reader positioned at the start of a record
+         * @return The parsed row
+         * @throws IOException If the record is malformed or reading fails
+         */
+        T parse(CsvReader reader) throws IOException;
+    }
+
+    /**
+     * Rows of a file plus the records that could not be parsed
+     * 
+     * @param <T> Type of the parsed rows
+     */
+    public static class Result<T> {
+        private final List<T> rows;
+        private final List<MalformedRecordException> errors;
+        private final int chunks;
+
+        Result(List<T> rows, List<MalformedRecordException> errors, int chunks) {
+            this.rows = rows;
+            this.errors = errors;
+            this.chunks = chunks;
+        }
+
+        /**
+         * @param <T> Type of the rows
+         * @return A result with no rows and no errors
+         */
+        public static <T> Result<T> empty() {
+            return new Result<>(new ArrayList<T>(), new ArrayList<MalformedRecordException>(), 0);
+        }
+
+        /**
+         * @return Parsed rows in file order
+         */
+        public List<T> getRows() {
+            return rows;
+        }
+
+        /**
+         * @return Records that could not be parsed, in file order
+         */
+        public List<MalformedRecordException> getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return Number of chunks the file was parsed in
+         */
+        public int getChunkCount() {
+            return chunks;
+        }
+    }
+
+    // Files smaller than this are parsed as one chunk
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Parses every record of a file
+     * 
+     * @param file   The CSV file
+     * @param parser Turns one record into a row
+     * @param <T>    Type of the parsed rows
+     * @return Rows in file order, plus any malformed records
+     * @throws IOException If the file cannot be read
+     */
+    public static <T> Result<T> parse(File file, RowParser<T> parser) throws IOException {
+        long size = file.length();
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        int chunkCount = (int) Math.min(size / MIN_CHUNK_BYTES, parallelism * 4L);
+        if (chunkCount <= 1 || size > Integer.MAX_VALUE) {
+            // Small file (or too big for one buffer): plain sequential read
+            try (CsvReader reader = new CsvReader(new FileReader(file), BUFFER_SIZE)) {
+                Result<T> result = new Result<>(new ArrayList<T>(), new ArrayList<MalformedRecordException>(), 1);
+                parseAll(reader, parser, result);
+                return result;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // keep reading until the buffer is full
+            }
+            bytes.flip();
+            List<Chunk> chunks = split(bytes, chunkCount);
+            return ForkJoinPool.commonPool().invoke(new ParseTask<>(bytes, chunks, 0, chunks.size(), parser));
+        }
+    }
+
+    private static <T> void parseAll(CsvReader reader, RowParser<T> parser, Result<T> result)
+            throws IOException {
+        while (reader.nextRecord()) {
+            try {
+                result.rows.add(parser.parse(reader));
+            } catch (MalformedRecordException e) {
+                result.errors.add(e);
+            }
+        }
+    }
+
+    /**
+     * A byte range of the file, starting at the beginning of a line
+     */
+    private static class Chunk {
+        final int start;
+        final int end;
+        final int firstLine;
+
+        Chunk(int start, int end, int firstLine) {
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+        }
+    }
+
+    /**
+     * Cuts the file into roughly equal chunks at line breaks outside quotes
+     */
+    private static List<Chunk> split(ByteBuffer bytes, int chunkCount) {
+        int size = bytes.limit();
+        long target = size / chunkCount;
+        List<Chunk> chunks = new ArrayList<>(chunkCount);
+        int start = 0;
+        int startLine = 1;
+        int line = 1;
+        boolean quoted = false;
+        for (int i = 0; i < size; i++) {
+            byte b = bytes.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n') {
+                line++;
+                if (!quoted && i + 1 - start >= target && chunks.size() < chunkCount - 1) {
+                    chunks.add(new Chunk(start, i + 1, startLine));
+                    start = i + 1;
+                    startLine = line;
+                }
+            }
+        }
+        if (start < size) {
+            chunks.add(new Chunk(start, size, startLine));
+        }
+        return chunks;
+    }
+
+    /**
+     * Parses a range of chunks, splitting the range in half until a single
+     * chunk is left
+     */
+    private static class ParseTask<T> extends RecursiveTask<Result<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer bytes;
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final RowParser<T> parser;
+
+        ParseTask(ByteBuffer bytes, List<Chunk> chunks, int from, int to, RowParser<T> parser) {
+            this.bytes = bytes;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.parser = parser;
+        }
+
+        @Override
+        protected Result<T> compute() {
+            if (to - from == 1) {
+                return parseChunk(chunks.get(from));
+            }
+            int mid = (from + to) >>> 1;
+            ParseTask<T> left = new ParseTask<>(bytes, chunks, from, mid, parser);
+            ParseTask<T> right = new ParseTask<>(bytes, chunks, mid, to, parser);
+            left.fork();
+            Result<T> rightResult = right.compute();
+            Result<T> leftResult = left.join();
+
+            // Join in file order: left chunk rows first
+            List<T> rows = new ArrayList<>(leftResult.rows.size() + rightResult.rows.size());
+            rows.addAll(leftResult.rows);
+            rows.addAll(rightResult.rows);
+            List<MalformedRecordException> errors = new ArrayList<>(leftResult.errors);
+            errors.addAll(rightResult.errors);
+            return new Result<>(rows, errors, leftResult.chunks + rightResult.chunks);
+        }
+
+        private Result<T> parseChunk(Chunk chunk) {
+            ByteBuffer slice = bytes.duplicate();
+            slice.limit(chunk.end).position(chunk.start);
+            CharBuffer chars = Charset.defaultCharset().decode(slice);
+            Result<T> result = new Result<>(new ArrayList<T>(), new ArrayList<MalformedRecordException>(), 1);
+            try (CsvReader reader = new CsvReader(
+                    new CharArrayReader(chars.array(), chars.arrayOffset(), chars.limit()),
+                    BUFFER_SIZE, chunk.firstLine)) {
+                parseAll(reader, parser, result);
+            } catch (IOException e) {
+                // Only MalformedRecordException can come from an in-memory reader,
+                // and those are collected per record
+                throw new IllegalStateException(e);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.college.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * UTILITY CLASS: PersistentIntMap
+ * 
+ * An immutable map from int keys to objects. "Changing" it returns a new map
+ * and leaves the old one exactly as it was, so a map can be handed to other
+ * threads and read by them without any lock.
+ * 
+ * CONCEPT DEMONSTRATED: PERSISTENT DATA STRUCTURE (STRUCTURAL SHARING)
+ * - The entries live in a trie of small nodes: each level looks at 5 bits of
+ * the key and has up to 32 children
+ * - with() and without() copy only the nodes on the path from the root to
+ * the key (at most 7 small arrays) and share every other node with the old
+ * map, so a new version costs O(log32 n), not a copy of all n entries
+ * - A node's children are stored compactly: a 32-bit bitmap says which
+ * children exist and Integer.bitCount finds a child's position in the array
+ * (a "bitmapped" trie, as in Clojure and Scala)
+ * - The trie is only as tall as the largest key needs: keys below 1,048,576
+ * need 4 levels
+ * 
+ * CONCEPT DEMONSTRATED: TRANSIENT BUILDER
+ * - Building a map of a million entries with with() would copy a path for
+ * every entry. A Builder instead changes the nodes it created itself in
+ * place and copies only nodes that belong to a map it has already built.
+ * - build() is O(1): it hands out the current trie and from then on the
+ * builder copies those nodes before changing them, so the built map never
+ * changes
+ * 
+ * Entries are iterated in ascending order of their (unsigned) key.
+ * Null values are not allowed (null is returned for "not found").
+ * 
+ * @param <V> Type of the values
+ */
+public final class PersistentIntMap<V> implements Iterable<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30; // The top level holds bits 30-31
+
+    private static final PersistentIntMap<Object> EMPTY = new PersistentIntMap<>(null, 0, 0);
+
+    /**
+     * A trie node. At shift 0 the slots hold values, above it child nodes.
+     */
+    private static final class Node {
+        int bitmap;
+        Object[] slots; // May be longer than bitCount(bitmap) in a builder
+        final Object owner; // Builder allowed to change this node, or null
+
+        Node(int bitmap, Object[] slots, Object owner) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            this.owner = owner;
+        }
+    }
+
+    private final Node root;
+    private final int shift; // Shift of the root level
+    private final int size;
+
+    private PersistentIntMap(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * @return The empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key The key to look up
+     * @return The value, or null if the key is not in the map
+     */
+    public V get(int key) {
+        return find(root, shift, key);
+    }
+
+    /**
+     * @param key The key to look up
+     * @return true if the key is in the map
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key   The key
+     * @param value The value (not null)
+     * @return A map that also maps key to value; this map is unchanged
+     */
+    public PersistentIntMap<V> with(int key, V value) {
+        Builder<V> builder = new Builder<>(this);
+        builder.put(key, value);
+        return builder.root == root ? this : builder.build();
+    }
+
+    /**
+     * @param key The key
+     * @return A map without the key; this map is unchanged
+     */
+    public PersistentIntMap<V> without(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Builder<V> builder = new Builder<>(this);
+        builder.remove(key);
+        return builder.build();
+    }
+
+    /**
+     * @return A builder that starts with this map's entries
+     */
+    public Builder<V> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    /**
+     * Calls the action for every entry, in ascending key order
+     * 
+     * @param action Receives each value and its key
+     */
+    public void forEachEntry(ObjIntConsumer<? super V> action) {
+        if (root != null) {
+            forEach(root, shift, 0, action);
+        }
+    }
+
+    /**
+     * @return The keys in ascending order
+     */
+    public int[] keys() {
+        int[] keys = new int[size];
+        int[] count = new int[1];
+        forEachEntry((value, key) -> keys[count[0]++] = key);
+        return keys;
+    }
+
+    /**
+     * Iterates over the values in ascending key order
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new TrieIterator<>(root, shift);
+    }
+
+    // ==================== TRIE OPERATIONS ====================
+
+    private static int index(int key, int shift) {
+        return (key >>> shift) & MASK;
+    }
+
+    /**
+     * @return true if a trie whose root level is at this shift can hold the
+     *         key (all bits above the root level are 0)
+     */
+    private static boolean fits(int key, int shift) {
+        return shift == MAX_SHIFT || (key >>> (shift + BITS)) == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V find(Node node, int shift, int key) {
+        if (node == null || !fits(key, shift)) {
+            return null;
+        }
+        while (true) {
+            int bit = 1 << index(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (shift == 0) {
+                return (V) slot;
+            }
+            node = (Node) slot;
+            shift -= BITS;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, int shift, int prefix, ObjIntConsumer<? super V> action) {
+        int bitmap = node.bitmap;
+        int position = 0;
+        while (bitmap != 0) {
+            int index = Integer.numberOfTrailingZeros(bitmap);
+            bitmap &= bitmap - 1;
+            int key = prefix | (index << shift);
+            Object slot = node.slots[position++];
+            if (shift == 0) {
+                action.accept((V) slot, key);
+            } else {
+                forEach((Node) slot, shift - BITS, key, action);
+            }
+        }
+    }
+
+    /**
+     * Depth-first iterator; the stack holds one node and position per level
+     */
+    private static final class TrieIterator<V> implements Iterator<V> {
+        private final Node[] nodes = new Node[MAX_SHIFT / BITS + 1];
+        private final int[] positions = new int[nodes.length];
+        private final int leafDepth; // Level that holds the values
+        private int depth = -1; // Level being visited, -1 when done
+        private V next;
+
+        TrieIterator(Node root, int shift) {
+            leafDepth = shift / BITS;
+            if (root != null) {
+                depth = 0;
+                nodes[0] = root;
+            }
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                int position = positions[depth];
+                if (position == Integer.bitCount(node.bitmap)) {
+                    depth--;
+                    continue;
+                }
+                positions[depth]++;
+                Object slot = node.slots[position];
+                if (depth == leafDepth) {
+                    next = (V) slot;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) slot;
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V result = next;
+            advance();
+            return result;
+        }
+    }
+
+    // ==================== BUILDER ====================
+
+    /**
+     * Builds maps by changing its own nodes in place. Not thread-safe; the
+     * maps it builds are.
+     * 
+     * @param <V> Type of the values
+     */
+    public static final class Builder<V> {
+
+        private Node root;
+        private int shift;
+        private int size;
+        // Identifies the nodes this builder may change; replaced by build()
+        private Object owner = new Object();
+
+        /**
+         * Creates an empty builder
+         */
+        public Builder() {
+        }
+
+        private Builder(PersistentIntMap<V> start) {
+            root = start.root;
+            shift = start.shift;
+            size = start.size;
+        }
+
+        /**
+         * @return Number of entries so far
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param key The key to look up
+         * @return The value, or null if the key is not in the builder
+         */
+        public V get(int key) {
+            return find(root, shift, key);
+        }
+
+        /**
+         * Adds or replaces an entry
+         * 
+         * @param key   The key
+         * @param value The value (not null)
+         * @return This builder
+         */
+        public Builder<V> put(int key, V value) {
+            if (value == null) {
+                throw new NullPointerException("null value for key " + key);
+            }
+            if (root == null) {
+                shift = 0;
+                while (!fits(key, shift)) {
+                    shift += BITS;
+                }
+            } else {
+                while (!fits(key, shift)) {
+                    // Grow a level: all existing keys have 0 in the new bits
+                    root = new Node(1, new Object[] { root }, owner);
+                    shift += BITS;
+                }
+            }
+            root = put(root, shift, key, value);
+            return this;
+        }
+
+        /**
+         * Removes an entry if present
+         * 
+         * @param key The key
+         * @return This builder
+         */
+        public Builder<V> remove(int key) {
+            if (root != null && fits(key, shift)) {
+                root = remove(root, shift, key);
+            }
+            return this;
+        }
+
+        /**
+         * @return A map with the entries so far. The builder can be used
+         *         further; later changes do not affect the returned map.
+         */
+        public PersistentIntMap<V> build() {
+            owner = new Object();
+            return size == 0 ? empty() : new PersistentIntMap<>(root, shift, size);
+        }
+
+        private Node put(Node node, int level, int key, Object value) {
+            int bit = 1 << index(key, level);
+            if (node == null) {
+                Object child = level == 0 ? value : put(null, level - BITS, key, value);
+                if (level == 0) {
+                    size++;
+                }
+                return new Node(bit, new Object[] { child }, owner);
+            }
+            int position = Integer.bitCount(node.bitmap & (bit - 1));
+            if ((node.bitmap & bit) != 0) {
+                Object old = node.slots[position];
+                Object child = level == 0 ? value : put((Node) old, level - BITS, key, value);
+                if (child == old) {
+                    return node;
+                }
+                Node editable = editable(node, 0);
+                editable.slots[position] = child;
+                return editable;
+            }
+            Object child = level == 0 ? value : put(null, level - BITS, key, value);
+            if (level == 0) {
+                size++;
+            }
+            int count = Integer.bitCount(node.bitmap);
+            Node editable = editable(node, count + 1);
+            System.arraycopy(editable.slots, position, editable.slots, position + 1, count - position);
+            editable.slots[position] = child;
+            editable.bitmap |= bit;
+            return editable;
+        }
+
+        /**
+         * @return The node without the key, or null if it became empty
+         */
+        private Node remove(Node node, int level, int key) {
+            int bit = 1 << index(key, level);
+            if ((node.bitmap & bit) == 0) {
+                return node;
+            }
+            int position = Integer.bitCount(node.bitmap & (bit - 1));
+            if (level > 0) {
+                Node old = (Node) node.slots[position];
+                Node child = remove(old, level - BITS, key);
+                if (child == old) {
+                    return node;
+                }
+                if (child != null) {
+                    Node editable = editable(node, 0);
+                    editable.slots[position] = child;
+                    return editable;
+                }
+            } else {
+                size--;
+            }
+            // Drop the slot
+            int count = Integer.bitCount(node.bitmap);
+            if (count == 1) {
+                return null;
+            }
+            Node editable = editable(node, 0);
+            System.arraycopy(editable.slots, position + 1, editable.slots, position, count - position - 1);
+            editable.slots[count - 1] = null;
+            editable.bitmap &= ~bit;
+            return editable;
+        }
+
+        /**
+         * @param capacity Number of slots the node must have room for
+         * @return The node itself if this builder owns it (grown if needed),
+         *         otherwise a copy owned by this builder
+         */
+        private Node editable(Node node, int capacity) {
+            int count = Integer.bitCount(node.bitmap);
+            if (node.owner == owner) {
+                if (node.slots.length < capacity) {
+                    node.slots = Arrays.copyOf(node.slots, Math.min(1 << BITS, capacity * 2));
+                }
+                return node;
+            }
+            Object[] slots = new Object[Math.max(count, capacity)];
+            System.arraycopy(node.slots, 0, slots, 0, count);
+            return new Node(node.bitmap, slots, owner);
+        }
+    }
+}
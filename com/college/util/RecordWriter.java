@@ -0,0 +1,265 @@
+package com.college.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * UTILITY CLASS: RecordWriter
+ * 
+ * Writes comma-separated records into a large buffer and hands the buffer to
+ * a FileChannel in big blocks. This is the writing counterpart of CsvReader.
+ * 
+ * CONCEPT DEMONSTRATED: BUFFERED, BATCHED OUTPUT
+ * - writer.print("," + id) builds a temporary String for every field and
+ * passes it through several layers of writers
+ * - This writer puts the bytes of each field straight into a small byte
+ * array, which is copied in bulk into one 1 MB direct ByteBuffer; the file
+ * only sees one write call per full buffer
+ * - Numbers are turned into digits directly in the array, without creating
+ * a String
+ * - Plain ASCII text (the usual case) is copied byte by byte; other text goes
+ * through the platform charset encoder, like FileWriter
+ * 
+ * CSV RULES (the same ones CsvReader understands)
+ * - Fields are separated by commas; each record ends with a line break
+ * - Text containing a comma, quote or line break is wrapped in double quotes,
+ * with inner quotes written twice
+ * 
+ * Usage:
+ * <pre>
+ *   try (RecordWriter out = new RecordWriter(file)) {
+ *       out.writeInt(id);
+ *       out.writeString(name);
+ *       out.endRecord();
+ *   }
+ * </pre>
+ */
+public class RecordWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final byte[] MIN_INT = "-2147483648".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(Charset.defaultCharset());
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer; // Direct buffer handed to the channel
+    // Fields are written here first: plain array stores are much cheaper than
+    // one ByteBuffer.put call per byte
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int count; // Bytes used in chunk
+    private final CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private boolean firstField = true; // No comma needed before the next field
+    private long bytesWritten;
+
+    /**
+     * Creates (or truncates) a file and writes to it
+     * 
+     * @param file The file to write
+     * @throws IOException If the file cannot be opened
+     */
+    public RecordWriter(File file) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    Channel to write to (closed by close())
+     * @param bufferSize Size of the output buffer
+     */
+    public RecordWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, bufferSize));
+    }
+
+    /**
+     * Writes a number as the next field
+     * 
+     * @param value The number
+     * @throws IOException If writing fails
+     */
+    public void writeInt(int value) throws IOException {
+        separator();
+        ensure(MIN_INT.length);
+        if (value == Integer.MIN_VALUE) {
+            // -value does not fit in an int
+            System.arraycopy(MIN_INT, 0, chunk, count, MIN_INT.length);
+            count += MIN_INT.length;
+            return;
+        }
+        if (value < 0) {
+            chunk[count++] = '-';
+            value = -value;
+        }
+        // Count the digits, then fill them in from the last one backwards
+        int length = 1;
+        for (int rest = value / 10; rest != 0; rest /= 10) {
+            length++;
+        }
+        int pos = count + length;
+        count = pos;
+        do {
+            chunk[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    /**
+     * Writes text as the next field, quoted if needed
+     * 
+     * @param value The text
+     * @throws IOException If writing fails
+     */
+    public void writeString(String value) throws IOException {
+        separator();
+        if (needsQuotes(value)) {
+            putText("\"" + value.replace("\"", "\"\"") + "\"");
+        } else {
+            putText(value);
+        }
+    }
+
+    /**
+     * Writes a word exactly as given (never quoted), e.g. "null"
+     * 
+     * @param word The word
+     * @throws IOException If writing fails
+     */
+    public void writeWord(String word) throws IOException {
+        separator();
+        putText(word);
+    }
+
+    /**
+     * Ends the current record with a line break
+     * 
+     * @throws IOException If writing fails
+     */
+    public void endRecord() throws IOException {
+        ensure(LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, chunk, count, LINE_SEPARATOR.length);
+        count += LINE_SEPARATOR.length;
+        firstField = true;
+    }
+
+    /**
+     * @return Number of bytes written so far, including buffered bytes
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position() + count;
+    }
+
+    /**
+     * Writes everything buffered to the channel
+     * 
+     * @throws IOException If writing fails
+     */
+    public void flush() throws IOException {
+        spill();
+        writeBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    /**
+     * Copies the chunk into the direct buffer
+     */
+    private void spill() throws IOException {
+        if (buffer.remaining() < count) {
+            writeBuffer();
+        }
+        buffer.put(chunk, 0, count);
+        count = 0;
+    }
+
+    /**
+     * Hands the direct buffer to the channel
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void separator() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            ensure(1);
+            chunk[count++] = ',';
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putText(String value) throws IOException {
+        int length = value.length();
+        if (length <= CHUNK_SIZE) {
+            // Fast path: plain ASCII is one byte per char in every common charset
+            ensure(length);
+            int pos = count;
+            int i = 0;
+            while (i < length) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                chunk[pos++] = (byte) c;
+                i++;
+            }
+            if (i == length) {
+                count = pos;
+                return;
+            }
+            // Not ASCII: encode the whole value instead
+        }
+        spill();
+        encoder.reset();
+        CharBuffer chars = CharBuffer.wrap(value);
+        while (encoder.encode(chars, buffer, true).isOverflow()) {
+            writeBuffer();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Makes room for n more bytes
+     */
+    private void ensure(int n) throws IOException {
+        if (CHUNK_SIZE - count < n) {
+            spill();
+        }
+    }
+}
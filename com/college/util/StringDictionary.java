@@ -0,0 +1,207 @@
+package com.college.util;
+
+import java.util.Arrays;
+
+/**
+ * UTILITY CLASS: StringDictionary
+ * 
+ * Gives every distinct string a small number (its code): the first string
+ * added gets 0, the next new one 1, and so on. Adding a string that is
+ * already there returns its existing code.
+ * 
+ * CONCEPT DEMONSTRATED: DICTIONARY ENCODING (STRING INTERNING)
+ * - Course, subject and class names repeat a lot: 500,000 students may share
+ * 40 courses. Each record read from a file would otherwise hold its own copy
+ * of the text, so the same "Computer Science" would be in memory 50,000
+ * times.
+ * - Records store the code instead, and the text is kept once, here. Two
+ * records have the same course exactly when their codes are equal, so
+ * grouping and comparing works on ints instead of strings.
+ * - Codes are dense (0 to size() - 1), so a count per course can be an
+ * int[] indexed by code instead of a HashMap
+ * 
+ * CONCEPT DEMONSTRATED: LOCK-FREE READS
+ * - decode() and the lookup in encode() take no lock: they read arrays that
+ * a writer only ever adds to, and a reader that finds the new entry not yet
+ * visible simply falls back to the locked path
+ * - Adding a new string is synchronized; it only happens once per distinct
+ * string
+ * 
+ * The dictionary only grows: a code stays valid (and keeps its text) even when
+ * no record uses it any more.
+ */
+public final class StringDictionary {
+
+    /** Code of null, and the result of codeOf() for a string not in the dictionary */
+    public static final int NO_CODE = -1;
+
+    private static final int EMPTY = 0; // Slot value of an unused slot; others hold code + 1
+
+    // Code -> text. Replaced by a larger copy when full; only appended to.
+    private volatile String[] strings = new String[16];
+    // Open-addressing hash table of code + 1, probed linearly from the hash
+    private volatile int[] slots = new int[32];
+    private volatile int size;
+
+    /**
+     * @param value A string, or null
+     * @return The string's code, adding it if it is new (NO_CODE for null)
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        int code = find(value);
+        return code != NO_CODE ? code : add(value);
+    }
+
+    /**
+     * Same as encode(new String(chars, offset, length)), but only creates the
+     * String if the text is new
+     * 
+     * @param chars  Characters
+     * @param offset Start of the text in chars
+     * @param length Length of the text
+     * @return The text's code
+     */
+    public int encode(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i]; // Same as String.hashCode()
+        }
+        int[] table = slots;
+        String[] texts = strings;
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY || entry > texts.length) {
+                break;
+            }
+            String text = texts[entry - 1];
+            if (text == null) {
+                break; // Being added by another thread
+            }
+            if (text.length() == length && regionEquals(text, chars, offset)) {
+                return entry - 1;
+            }
+        }
+        return add(new String(chars, offset, length));
+    }
+
+    /**
+     * @param value A string
+     * @return The dictionary's own copy of the string (equal to value), so
+     *         equal strings share one object
+     */
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * Looks a string up without adding it
+     * 
+     * @param value A string
+     * @return Its code, or NO_CODE if it is not in the dictionary
+     */
+    public int codeOf(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        int code = find(value);
+        if (code == NO_CODE) {
+            synchronized (this) {
+                code = find(value); // Sure to see every string added so far
+            }
+        }
+        return code;
+    }
+
+    /**
+     * @param code A code returned by this dictionary, or NO_CODE
+     * @return Its string (null for NO_CODE)
+     */
+    public String decode(int code) {
+        return code == NO_CODE ? null : strings[code];
+    }
+
+    /**
+     * @return Number of distinct strings; codes are 0 to size() - 1
+     */
+    public int size() {
+        return size;
+    }
+
+    // ==================== INTERNAL HELPERS ====================
+
+    private int find(String value) {
+        int[] table = slots;
+        String[] texts = strings;
+        int mask = table.length - 1;
+        for (int i = spread(value.hashCode()) & mask;; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY || entry > texts.length) {
+                return NO_CODE;
+            }
+            String text = texts[entry - 1];
+            if (text == null) {
+                return NO_CODE;
+            }
+            if (text.equals(value)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private synchronized int add(String value) {
+        int code = find(value);
+        if (code != NO_CODE) {
+            return code; // Added by another thread in the meantime
+        }
+        code = size;
+        String[] texts = strings;
+        if (code == texts.length) {
+            texts = Arrays.copyOf(texts, code * 2);
+        }
+        texts[code] = value;
+        strings = texts;
+        int[] table = slots;
+        if ((code + 1) * 2 > table.length) {
+            // Keep the table at most half full, so probe sequences stay short
+            table = new int[table.length * 2];
+            for (int c = 0; c < code; c++) {
+                insert(table, texts[c].hashCode(), c);
+            }
+            insert(table, value.hashCode(), code);
+            slots = table;
+        } else {
+            insert(table, value.hashCode(), code);
+        }
+        size = code + 1;
+        return code;
+    }
+
+    private static void insert(int[] table, int hash, int code) {
+        int mask = table.length - 1;
+        int i = spread(hash) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = code + 1;
+    }
+
+    /**
+     * Mixes the high bits of the hash into the low bits used for the slot
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(String text, char[] chars, int offset) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}